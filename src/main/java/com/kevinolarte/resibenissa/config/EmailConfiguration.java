@@ -13,7 +13,9 @@ import java.util.Properties;
  * <p>
  * Esta clase define un {@link JavaMailSender} que se configura automáticamente
  * con los datos definidos en el archivo {@code application.properties} o {@code application.yml}.
- * Utiliza los servidores de Gmail como proveedor SMTP.
+ * Por defecto utiliza los servidores de Gmail como proveedor SMTP, pero el host, el puerto,
+ * la autenticación y STARTTLS se pueden sobrescribir para apuntar a un SMTP local en pruebas
+ * (ver {@code application-test.properties}).
  * </p>
  *
  * <p>
@@ -36,24 +38,41 @@ public class EmailConfiguration {
     @Value("${spring.mail.password}")
     private String password;
 
+    @Value("${spring.mail.host:smtp.gmail.com}")
+    private String host;
+
+    @Value("${spring.mail.port:587}")
+    private int port;
+
+    @Value("${spring.mail.properties.mail.smtp.auth:true}")
+    private boolean auth;
+
+    @Value("${spring.mail.properties.mail.smtp.starttls.enable:true}")
+    private boolean starttls;
+
+    @Value("${spring.mail.properties.mail.debug:false}")
+    private boolean debug;
+
     /**
-     * Crea e inicializa el {@link JavaMailSender} con configuración para SMTP (Gmail).
+     * Crea e inicializa el {@link JavaMailSender} con configuración para SMTP.
      *
      * @return Instancia de {@link JavaMailSender} configurada.
      */
     @Bean
     public JavaMailSender javaMailSender() {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
-        mailSender.setHost("smtp.gmail.com");
-        mailSender.setPort(587);
-        mailSender.setUsername(username);
-        mailSender.setPassword(password);
+        mailSender.setHost(host);
+        mailSender.setPort(port);
+        if (auth) {
+            mailSender.setUsername(username);
+            mailSender.setPassword(password);
+        }
 
         Properties props = mailSender.getJavaMailProperties();
         props.put("mail.transport.protocol", "smtp");
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
-        props.put("mail.debug", "true");
+        props.put("mail.smtp.auth", String.valueOf(auth));
+        props.put("mail.smtp.starttls.enable", String.valueOf(starttls));
+        props.put("mail.debug", String.valueOf(debug));
 
         return mailSender;
     }
@@ -0,0 +1,15 @@
+package com.kevinolarte.resibenissa.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas ({@code @Scheduled}) de la aplicación,
+ * como el envío en segundo plano de la bandeja de salida de correos.
+ *
+ * @author Kevin Olarte
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
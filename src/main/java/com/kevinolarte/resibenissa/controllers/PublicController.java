@@ -3,15 +3,24 @@ package com.kevinolarte.resibenissa.controllers;
 import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ApiException;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
-import com.kevinolarte.resibenissa.services.JwtService;
-import com.kevinolarte.resibenissa.services.moduloOrgSalida.ParticipanteService;
+import com.kevinolarte.resibenissa.services.moduloOrgSalida.CalendarioService;
+import com.kevinolarte.resibenissa.services.moduloOrgSalida.PermisoTokenService;
 import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 
 /**
  * Controlador REST para manejar operaciones públicas relacionadas con participantes en eventos.
- * Permite confirmar o denegar permisos de participantes en eventos de una residencia.
+ * Permite confirmar o denegar permisos de participantes en eventos de una residencia
+ * y suscribirse al calendario de salidas.
  * <P>
  * URL Base: {@code /public}
  * @author Kevin Olarte
@@ -22,22 +31,23 @@ import org.springframework.web.bind.annotation.*;
 @AllArgsConstructor
 public class PublicController {
 
-    private final JwtService jwtService;
-    private final ParticipanteService participanteService;
+    private final PermisoTokenService permisoTokenService;
+    private final CalendarioService calendarioService;
 
     /**
      * Endpoint para confirmar el permiso de un participante en un evento.
+     * <p>
+     * El token es de un solo uso; si ya se utilizó, se informa de la respuesta registrada.
      * @param token Token JWT que contiene la información del participante, evento y residencia.
      * @return ResponseEntity con un mensaje de éxito o error.
      */
     @GetMapping("/allowParticipante")
     public ResponseEntity<String> confirmarPermiso(@RequestParam String token) {
         try {
-            Long idParticipante = Long.parseLong(jwtService.extractClaim(token, claims -> claims.get("idParticipante").toString()));
-            Long idEvento = Long.parseLong(jwtService.extractClaim(token, claims -> claims.get("idEvento").toString()));
-            Long idResidencia = Long.parseLong(jwtService.extractClaim(token, claims -> claims.get("idResidencia").toString()));
-
-            participanteService.allow(idResidencia, idEvento, idParticipante);
+            Boolean previa = permisoTokenService.responder(token, true);
+            if (previa != null) {
+                return ResponseEntity.ok(mensajeYaRespondido(previa));
+            }
             return ResponseEntity.ok("✅ Permiso registrado correctamente.");
 
         } catch (ResiException e) {
@@ -49,17 +59,18 @@ public class PublicController {
 
     /**
      * Endpoint para confirmar la denegación de un participante en un evento.
+     * <p>
+     * El token es de un solo uso; si ya se utilizó, se informa de la respuesta registrada.
      * @param token Token JWT que contiene la información del participante, evento y residencia.
      * @return ResponseEntity con un mensaje de éxito o error.
      */
     @GetMapping("/denyParticipante")
     public ResponseEntity<String> confirmarDenegacion(@RequestParam String token) {
         try {
-
-            Long idParticipante = Long.parseLong(jwtService.extractClaim(token, claims -> claims.get("idParticipante").toString()));
-            Long idEvento = Long.parseLong(jwtService.extractClaim(token, claims -> claims.get("idEvento").toString()));
-            Long idResidencia = Long.parseLong(jwtService.extractClaim(token, claims -> claims.get("idResidencia").toString()));
-            participanteService.deny(idResidencia, idEvento, idParticipante);
+            Boolean previa = permisoTokenService.responder(token, false);
+            if (previa != null) {
+                return ResponseEntity.ok(mensajeYaRespondido(previa));
+            }
             return ResponseEntity.ok("✅ Denegación registrada correctamente.");
 
         } catch (ResiException e) {
@@ -68,4 +79,53 @@ public class PublicController {
             throw new ApiException(new ResiException(ApiErrorCode.ENDPOINT_PROTEGIDO), e.getMessage());
         }
     }
+
+    /**
+     * Calendario iCalendar (ICS) de las salidas de una residencia o de un residente, para suscribirse
+     * desde una aplicación de calendario.
+     * <p>
+     * El cuerpo se escribe en streaming. Si la petición trae el ETag o la fecha de la última versión
+     * ({@code If-None-Match} / {@code If-Modified-Since}), se responde {@code 304 Not Modified} sin consultar
+     * la base de datos.
+     * @param token Token del enlace de suscripción (ver {@code /resi/evento/calendario/enlace}).
+     * @param request Petición, para comprobar el ETag.
+     * @return ResponseEntity con el calendario.
+     */
+    @GetMapping(value = "/calendario.ics", produces = "text/calendar")
+    public ResponseEntity<StreamingResponseBody> calendario(@RequestParam String token, WebRequest request) {
+        CalendarioService.Suscripcion suscripcion;
+        String etag;
+        Instant modificado;
+        try {
+            suscripcion = calendarioService.verificarToken(token);
+            etag = calendarioService.getEtag(suscripcion);
+            modificado = calendarioService.getUltimaModificacion(suscripcion.idResidencia());
+        } catch (ResiException e) {
+            throw new ApiException(e, e.getMessage());
+        }catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.ENDPOINT_PROTEGIDO), e.getMessage());
+        }
+        if (request.checkNotModified(etag, modificado.toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(modificado)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(modificado)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(new MediaType("text", "calendar", StandardCharsets.UTF_8))
+                .body(salida -> calendarioService.escribir(suscripcion, salida));
+    }
+
+    /**
+     * Mensaje para un enlace que ya se había utilizado.
+     * @param permitido Respuesta registrada la primera vez.
+     * @return Mensaje a mostrar al familiar.
+     */
+    private static String mensajeYaRespondido(boolean permitido) {
+        return "ℹ️ Esta solicitud ya fue respondida: " + (permitido ? "permiso concedido." : "permiso denegado.");
+    }
 }
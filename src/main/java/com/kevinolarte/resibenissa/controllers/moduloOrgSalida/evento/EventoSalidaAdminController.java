@@ -305,4 +305,24 @@ public class EventoSalidaAdminController {
         }
     }
 
+    /**
+     * Obtiene el enlace de suscripción al calendario (ICS) de las salidas de una residencia
+     * o, si se indica, de un residente.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param idResidente ID del residente (opcional).
+     * @return {@link ResponseEntity} con la ruta del calendario, que incluye su token de acceso.
+     * @throws ApiException si ocurre un error al procesar la solicitud.
+     */
+    @GetMapping("/{idResidencia}/evento/calendario/enlace")
+    public ResponseEntity<String> getEnlaceCalendario(@PathVariable Long idResidencia,
+                                                      @RequestParam(required = false) Long idResidente) {
+        try {
+            return ResponseEntity.ok(eventoSalidaService.getEnlaceCalendario(idResidencia, idResidente));
+        } catch (ResiException e) {
+            throw new ApiException(e, e.getMessage());
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), e.getMessage());
+        }
+    }
 }
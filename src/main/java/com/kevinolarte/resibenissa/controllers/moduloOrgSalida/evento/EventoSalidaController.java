@@ -255,7 +255,23 @@ public class EventoSalidaController {
         }
     }
 
-
-
-
+    /**
+     * Obtiene el enlace de suscripción al calendario (ICS) de las salidas de la residencia
+     * o, si se indica, de un residente.
+     *
+     * @param idResidente ID del residente (opcional).
+     * @return {@link ResponseEntity} con la ruta del calendario, que incluye su token de acceso.
+     * @throws ApiException si ocurre un error al procesar la solicitud.
+     */
+    @GetMapping("/calendario/enlace")
+    public ResponseEntity<String> getEnlaceCalendario(@RequestParam(required = false) Long idResidente) {
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        try {
+            return ResponseEntity.ok(eventoSalidaService.getEnlaceCalendario(currentUser.getResidencia().getId(), idResidente));
+        } catch (ResiException e) {
+            throw new ApiException(e, currentUser);
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
+        }
+    }
 }
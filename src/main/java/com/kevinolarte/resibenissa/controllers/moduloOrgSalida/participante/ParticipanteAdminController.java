@@ -1,11 +1,18 @@
 package com.kevinolarte.resibenissa.controllers.moduloOrgSalida.participante;
 
+import com.kevinolarte.resibenissa.dto.in.moduloOrgSalida.CambiosParticipantesDto;
+import com.kevinolarte.resibenissa.dto.in.moduloOrgSalida.InscripcionMasivaDto;
 import com.kevinolarte.resibenissa.dto.in.moduloOrgSalida.ParticipanteDto;
+import com.kevinolarte.resibenissa.dto.out.moduloOrgSalida.CambiosParticipantesResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloOrgSalida.InscripcionMasivaResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloOrgSalida.NotificacionEventoResponseDto;
 import com.kevinolarte.resibenissa.dto.out.moduloOrgSalida.ParticipanteResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloReporting.EmailEstadoResponseDto;
 import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ApiException;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.User;
+import com.kevinolarte.resibenissa.services.IdempotenciaService;
 import com.kevinolarte.resibenissa.services.moduloOrgSalida.ParticipanteService;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -32,6 +39,7 @@ import java.util.List;
 public class ParticipanteAdminController {
 
     private final ParticipanteService participanteService;
+    private final IdempotenciaService idempotenciaService;
 
     /**
      * Registra un nuevo participante en un evento de salida.
@@ -39,6 +47,7 @@ public class ParticipanteAdminController {
      * @param idResidencia ID de la residencia donde se registra el participante.
      * @param idEvento ID del evento de salida al que se registra el participante.
      * @param participanteDto DTO con los datos del participante a registrar.
+     * @param idempotencyKey Cabecera {@code Idempotency-Key} opcional; si se repite, se devuelve la respuesta original sin repetir la operación.
      * @return {@link ResponseEntity} con el participante creado.
      * @throws ApiException si ocurre un error al procesar la solicitud.
      */
@@ -46,10 +55,61 @@ public class ParticipanteAdminController {
     public ResponseEntity<ParticipanteResponseDto> add(
             @PathVariable Long idResidencia,
             @PathVariable Long idEvento,
-            @RequestBody ParticipanteDto participanteDto) {
+            @RequestBody ParticipanteDto participanteDto,
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String idempotencyKey) {
+        try {
+            return idempotenciaService.ejecutar(idempotencyKey, "participante.add", List.of(idResidencia, idEvento, participanteDto), ParticipanteResponseDto.class,
+                    () -> ResponseEntity.status(HttpStatus.CREATED).body(participanteService.add(participanteDto, idEvento, idResidencia, false, false)));
+        } catch (ResiException e) {
+            throw new ApiException(e, e.getMessage());
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), e.getMessage());
+        }
+    }
+
+    /**
+     * Inscribe a varios residentes a la vez en un evento de salida.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param idEvento ID del evento de salida.
+     * @param inscripcionDto IDs de los residentes y recursos para todos ellos.
+     * @param notificar Si es {@code true}, se avisa a las familias de los inscritos en un único envío.
+     * @param urgente Si es {@code true}, el aviso a los familiares no espera al resumen diario.
+     * @return {@link ResponseEntity} con el resultado de cada residente.
+     * @throws ApiException si ocurre un error al procesar la solicitud.
+     */
+    @PostMapping("/addAll")
+    public ResponseEntity<InscripcionMasivaResponseDto> addAll(
+            @PathVariable Long idResidencia,
+            @PathVariable Long idEvento,
+            @RequestBody InscripcionMasivaDto inscripcionDto,
+            @RequestParam(defaultValue = "false") boolean notificar,
+            @RequestParam(defaultValue = "false") boolean urgente) {
+        try {
+            return ResponseEntity.ok(participanteService.addAll(inscripcionDto, idEvento, idResidencia, notificar, urgente));
+        } catch (ResiException e) {
+            throw new ApiException(e, e.getMessage());
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), e.getMessage());
+        }
+    }
+
+    /**
+     * Cambia a la vez campos de varios participantes de un evento de salida.
+     *
+     * @param idResidencia ID de la residencia donde se encuentra el evento.
+     * @param idEvento ID del evento de salida.
+     * @param cambiosDto Campos a cambiar de cada participante; los que no se indican no se modifican.
+     * @return {@link ResponseEntity} con el resultado de cada participante.
+     * @throws ApiException si ocurre un error al procesar la solicitud.
+     */
+    @PatchMapping("/updateAll")
+    public ResponseEntity<CambiosParticipantesResponseDto> updateAll(
+            @PathVariable Long idResidencia,
+            @PathVariable Long idEvento,
+            @RequestBody CambiosParticipantesDto cambiosDto) {
         try {
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(participanteService.add(participanteDto, idEvento, idResidencia));
+            return ResponseEntity.ok(participanteService.updateAll(cambiosDto, idEvento, idResidencia));
         } catch (ResiException e) {
             throw new ApiException(e, e.getMessage());
         } catch (Exception e) {
@@ -294,4 +354,51 @@ public class ParticipanteAdminController {
         }
     }
 
+    /**
+     * Notifica a las familias de todos los participantes del evento para solicitar su permiso.
+     *
+     * @param idResidencia ID de la residencia donde se encuentra el evento.
+     * @param idEvento ID del evento de salida.
+     * @param urgente Si es {@code true}, los correos no esperan al resumen diario.
+     * @return {@link ResponseEntity} con el identificador del envío y el estado inicial de cada correo.
+     * @throws ApiException si ocurre un error al procesar la solicitud.
+     */
+    @PostMapping("/notificarFamilias")
+    public ResponseEntity<NotificacionEventoResponseDto> notificarFamilias(
+            @PathVariable Long idResidencia,
+            @PathVariable Long idEvento,
+            @RequestParam(defaultValue = "false") boolean urgente) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(participanteService.notificarFamilias(idResidencia, idEvento, urgente));
+        } catch (ResiException e) {
+            throw new ApiException(e, e.getMessage());
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), e.getMessage());
+        }
+    }
+
+    /**
+     * Consulta el estado de envío de cada correo de una notificación masiva.
+     *
+     * @param idResidencia ID de la residencia donde se encuentra el evento.
+     * @param idEvento ID del evento de salida.
+     * @param lote Identificador del envío.
+     * @return {@link ResponseEntity} con el estado de cada correo.
+     * @throws ApiException si ocurre un error al procesar la solicitud.
+     */
+    @GetMapping("/notificaciones/{lote}")
+    public ResponseEntity<List<EmailEstadoResponseDto>> getEstadoNotificacion(
+            @PathVariable Long idResidencia,
+            @PathVariable Long idEvento,
+            @PathVariable String lote) {
+        try {
+            return ResponseEntity.ok(participanteService.getEstadoNotificacion(idResidencia, idEvento, lote));
+        } catch (ResiException e) {
+            throw new ApiException(e, e.getMessage());
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), e.getMessage());
+        }
+    }
+
 }
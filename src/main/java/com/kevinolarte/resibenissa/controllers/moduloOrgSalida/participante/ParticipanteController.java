@@ -1,13 +1,19 @@
 package com.kevinolarte.resibenissa.controllers.moduloOrgSalida.participante;
 
 
+import com.kevinolarte.resibenissa.dto.in.moduloOrgSalida.CambiosParticipantesDto;
+import com.kevinolarte.resibenissa.dto.in.moduloOrgSalida.InscripcionMasivaDto;
 import com.kevinolarte.resibenissa.dto.in.moduloOrgSalida.ParticipanteDto;
+import com.kevinolarte.resibenissa.dto.out.moduloOrgSalida.CambiosParticipantesResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloOrgSalida.InscripcionMasivaResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloOrgSalida.NotificacionEventoResponseDto;
 import com.kevinolarte.resibenissa.dto.out.moduloOrgSalida.ParticipanteResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloReporting.EmailEstadoResponseDto;
 import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ApiException;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.User;
-import com.kevinolarte.resibenissa.services.EmailService;
+import com.kevinolarte.resibenissa.services.IdempotenciaService;
 import com.kevinolarte.resibenissa.services.moduloOrgSalida.ParticipanteService;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -33,23 +39,71 @@ import java.util.List;
 public class ParticipanteController {
 
     private final ParticipanteService participanteService;
-    private final EmailService emailService;
+    private final IdempotenciaService idempotenciaService;
 
     /**
      * Registra un nuevo participante en un evento de salida.
      *
      * @param participanteDto DTO con los datos del participante a registrar.
+     * @param urgente Si es {@code true}, el aviso a los familiares no espera al resumen diario.
+     * @param idempotencyKey Cabecera {@code Idempotency-Key} opcional; si se repite, se devuelve la respuesta original sin repetir la operación.
      * @return {@link ResponseEntity} con el participante creado.
      * @throws ApiException si ocurre un error al procesar la solicitud.
      */
     @PostMapping("/add")
     public ResponseEntity<ParticipanteResponseDto> add(@PathVariable Long idEvento,
-                                                       @RequestBody ParticipanteDto participanteDto) {
+                                                       @RequestBody ParticipanteDto participanteDto,
+                                                       @RequestParam(defaultValue = "false") boolean urgente,
+                                                       @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String idempotencyKey) {
         User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         try {
-            ParticipanteResponseDto dto = participanteService.add(participanteDto, idEvento, currentUser.getResidencia().getId());
-            emailService.sendNotificationParticipante(dto);
-            return ResponseEntity.status(HttpStatus.CREATED).body(dto);
+            Long idResidencia = currentUser.getResidencia().getId();
+            return idempotenciaService.ejecutar(idempotencyKey, "participante.add", List.of(idResidencia, idEvento, participanteDto), ParticipanteResponseDto.class,
+                    () -> ResponseEntity.status(HttpStatus.CREATED).body(participanteService.add(participanteDto, idEvento, idResidencia, true, urgente)));
+        } catch (ResiException e) {
+            throw new ApiException(e, currentUser);
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
+        }
+    }
+
+    /**
+     * Inscribe a varios residentes a la vez en un evento de salida.
+     *
+     * @param inscripcionDto IDs de los residentes y recursos para todos ellos.
+     * @param notificar Si es {@code true} (por defecto), se avisa a las familias de los inscritos en un único envío.
+     * @param urgente Si es {@code true}, el aviso a los familiares no espera al resumen diario.
+     * @return {@link ResponseEntity} con el resultado de cada residente.
+     * @throws ApiException si ocurre un error al procesar la solicitud.
+     */
+    @PostMapping("/addAll")
+    public ResponseEntity<InscripcionMasivaResponseDto> addAll(@PathVariable Long idEvento,
+                                                               @RequestBody InscripcionMasivaDto inscripcionDto,
+                                                               @RequestParam(defaultValue = "true") boolean notificar,
+                                                               @RequestParam(defaultValue = "false") boolean urgente) {
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        try {
+            return ResponseEntity.ok(participanteService.addAll(inscripcionDto, idEvento, currentUser.getResidencia().getId(), notificar, urgente));
+        } catch (ResiException e) {
+            throw new ApiException(e, currentUser);
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
+        }
+    }
+
+    /**
+     * Cambia a la vez campos de varios participantes del evento de salida.
+     *
+     * @param cambiosDto Campos a cambiar de cada participante; los que no se indican no se modifican.
+     * @return {@link ResponseEntity} con el resultado de cada participante.
+     * @throws ApiException si ocurre un error al procesar la solicitud.
+     */
+    @PatchMapping("/updateAll")
+    public ResponseEntity<CambiosParticipantesResponseDto> updateAll(@PathVariable Long idEvento,
+                                                                     @RequestBody CambiosParticipantesDto cambiosDto) {
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        try {
+            return ResponseEntity.ok(participanteService.updateAll(cambiosDto, idEvento, currentUser.getResidencia().getId()));
         } catch (ResiException e) {
             throw new ApiException(e, currentUser);
         } catch (Exception e) {
@@ -275,4 +329,49 @@ public class ParticipanteController {
 
 
 
+    /**
+     * Notifica a las familias de todos los participantes del evento para solicitar su permiso.
+     * <p>
+     * Los correos se envían en segundo plano; la respuesta incluye el identificador del envío
+     * para consultar después el estado de cada destinatario.
+     * </p>
+     *
+     * @param idEvento ID del evento de salida.
+     * @param urgente Si es {@code true}, los correos no esperan al resumen diario.
+     * @return {@link ResponseEntity} con el identificador del envío y el estado inicial de cada correo.
+     */
+    @PostMapping("/notificarFamilias")
+    public ResponseEntity<NotificacionEventoResponseDto> notificarFamilias(@PathVariable Long idEvento,
+                                                                           @RequestParam(defaultValue = "false") boolean urgente) {
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(participanteService.notificarFamilias(currentUser.getResidencia().getId(), idEvento, urgente));
+        } catch (ResiException e) {
+            throw new ApiException(e, currentUser);
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
+        }
+    }
+
+    /**
+     * Consulta el estado de envío de cada correo de una notificación masiva.
+     *
+     * @param idEvento ID del evento de salida.
+     * @param lote Identificador del envío.
+     * @return {@link ResponseEntity} con el estado de cada correo.
+     */
+    @GetMapping("/notificaciones/{lote}")
+    public ResponseEntity<List<EmailEstadoResponseDto>> getEstadoNotificacion(@PathVariable Long idEvento,
+                                                                              @PathVariable String lote) {
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        try {
+            return ResponseEntity.ok(participanteService.getEstadoNotificacion(currentUser.getResidencia().getId(), idEvento, lote));
+        } catch (ResiException e) {
+            throw new ApiException(e, currentUser);
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
+        }
+    }
+
 }
@@ -1,18 +1,28 @@
 package com.kevinolarte.resibenissa.controllers.moduloWallet;
 
 import com.kevinolarte.resibenissa.dto.in.modeloWallet.MovimientoRequestDTO;
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.ExtractoWalletResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.ResumenMensualResponseDto;
 import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ApiException;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.User;
+import com.kevinolarte.resibenissa.models.moduloWallet.Wallet;
+import com.kevinolarte.resibenissa.services.IdempotenciaService;
 import com.kevinolarte.resibenissa.services.moduloWallet.WalletService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/admin/resi/{idResidencia}/resi/{idResidente}/wallet")
@@ -20,18 +30,42 @@ import org.springframework.web.bind.annotation.*;
 public class WalletAdminController {
 
     private final WalletService walletService;
+    private final IdempotenciaService idempotenciaService;
 
+    /**
+     * Descarga el informe PDF de movimientos de la wallet de un residente.
+     * <p>
+     * El PDF se escribe directamente en la respuesta mientras se generan sus páginas, o desde la caché
+     * si la wallet no ha cambiado. Si el cliente envía un {@code If-None-Match} con el ETag
+     * actual, se responde {@code 304 Not Modified} sin generar nada.
+     * </p>
+     *
+     * @param idResidencia ID de la residencia.
+     * @param idResidente ID del residente.
+     * @param desde Fecha inicial del informe (opcional).
+     * @param hasta Fecha final del informe (opcional).
+     * @param request Petición, para comprobar {@code If-None-Match}.
+     * @param response Respuesta HTTP donde se escribe el PDF.
+     */
     @GetMapping("/informe")
-    public ResponseEntity<byte[]> getInforme(
+    public void getInforme(
             @PathVariable Long idResidencia,
-            @PathVariable Long idResidente) {
+            @PathVariable Long idResidente,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            WebRequest request,
+            HttpServletResponse response) {
 
         try{
-            byte[] pdf = walletService.getInforme(idResidencia, idResidente);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=informe_wallet_" + idResidente + ".pdf")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(pdf);
+            Wallet wallet = walletService.getWalletInforme(idResidencia, idResidente, desde, hasta);
+            // El navegador puede guardar el informe, pero debe revalidarlo con el ETag
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            if (request.checkNotModified(walletService.getEtagInforme(wallet, desde, hasta))) {
+                return;
+            }
+            response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=informe_wallet_" + idResidente + ".pdf");
+            walletService.writeInformeCacheado(wallet, desde, hasta, response.getOutputStream());
         }catch (ResiException e){
             throw new ApiException(e, e.getMessage());
         } catch (Exception e) {
@@ -42,11 +76,14 @@ public class WalletAdminController {
     public ResponseEntity<String> deposit(
             @PathVariable Long idResidencia,
             @PathVariable Long idResidente,
-            @RequestBody MovimientoRequestDTO input) {
+            @RequestBody MovimientoRequestDTO input,
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String idempotencyKey) {
 
         try {
-            walletService.deposit(idResidencia, idResidente, input);
-            return ResponseEntity.ok("Deposit successful");
+            return idempotenciaService.ejecutar(idempotencyKey, "wallet.deposit", List.of(idResidencia, idResidente, input), String.class, () -> {
+                walletService.deposit(idResidencia, idResidente, input);
+                return ResponseEntity.ok("Deposit successful");
+            });
         } catch (ResiException e) {
             throw new ApiException(e, e.getMessage());
         } catch (Exception e) {
@@ -58,12 +95,14 @@ public class WalletAdminController {
     public ResponseEntity<String> retire(
             @PathVariable Long idResidencia,
             @PathVariable Long idResidente,
-            @RequestBody MovimientoRequestDTO input) {
-
+            @RequestBody MovimientoRequestDTO input,
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String idempotencyKey) {
 
         try {
-            walletService.retire(idResidencia, idResidente, input);
-            return ResponseEntity.ok("Retire successful");
+            return idempotenciaService.ejecutar(idempotencyKey, "wallet.retire", List.of(idResidencia, idResidente, input), String.class, () -> {
+                walletService.retire(idResidencia, idResidente, input);
+                return ResponseEntity.ok("Retire successful");
+            });
         } catch (ResiException e) {
             throw new ApiException(e, e.getMessage());
         } catch (Exception e) {
@@ -86,6 +125,78 @@ public class WalletAdminController {
         }
     }
 
-}
+    /**
+     * Obtiene el saldo que tenía la wallet de un residente al final de un día.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param idResidente ID del residente.
+     * @param fecha Día a consultar.
+     * @return Saldo en euros.
+     */
+    @GetMapping("/getSaldoEn")
+    public ResponseEntity<Double> getSaldoEn(
+            @PathVariable Long idResidencia,
+            @PathVariable Long idResidente,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+
+        try {
+            return ResponseEntity.ok(walletService.getSaldoEn(idResidencia, idResidente, fecha));
+        } catch (ResiException e) {
+            throw new ApiException(e, e.getMessage());
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene una página de los movimientos de la wallet de un residente en un rango de fechas.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param idResidente ID del residente.
+     * @param desde Fecha inicial (opcional).
+     * @param hasta Fecha final (opcional).
+     * @param page Número de página (desde 0).
+     * @param size Movimientos por página.
+     * @return Extracto con el saldo inicial y final del rango.
+     */
+    @GetMapping("/movimientos")
+    public ResponseEntity<ExtractoWalletResponseDto> getMovimientos(
+            @PathVariable Long idResidencia,
+            @PathVariable Long idResidente,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
 
+        try {
+            return ResponseEntity.ok(walletService.getExtracto(idResidencia, idResidente, desde, hasta, page, size));
+        } catch (ResiException e) {
+            throw new ApiException(e, e.getMessage());
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene los totales mensuales de entradas y salidas de la wallet de un residente en un año.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param idResidente ID del residente.
+     * @param anio Año a consultar (opcional, por defecto el actual).
+     * @return Totales por mes y tipo de movimiento.
+     */
+    @GetMapping("/analitica/mensual")
+    public ResponseEntity<List<ResumenMensualResponseDto>> getResumenMensual(
+            @PathVariable Long idResidencia,
+            @PathVariable Long idResidente,
+            @RequestParam(required = false) Integer anio) {
 
+        try {
+            return ResponseEntity.ok(walletService.getResumenMensual(idResidencia, idResidente, anio));
+        } catch (ResiException e) {
+            throw new ApiException(e, e.getMessage());
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), e.getMessage());
+        }
+    }
+}
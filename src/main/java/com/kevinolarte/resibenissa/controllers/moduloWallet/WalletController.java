@@ -1,18 +1,28 @@
 package com.kevinolarte.resibenissa.controllers.moduloWallet;
 
 import com.kevinolarte.resibenissa.dto.in.modeloWallet.MovimientoRequestDTO;
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.ExtractoWalletResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.ResumenMensualResponseDto;
 import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ApiException;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.User;
+import com.kevinolarte.resibenissa.models.moduloWallet.Wallet;
+import com.kevinolarte.resibenissa.services.IdempotenciaService;
 import com.kevinolarte.resibenissa.services.moduloWallet.WalletService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.util.List;
 
 
 @RequestMapping("/resi/resident/{idResidente}/wallet")
@@ -20,21 +30,44 @@ import org.springframework.web.bind.annotation.*;
 @AllArgsConstructor
 public class WalletController {
     private final WalletService walletService;
+    private final IdempotenciaService idempotenciaService;
 
+    /**
+     * Descarga el informe PDF de movimientos de la wallet de un residente de la residencia del usuario.
+     * <p>
+     * El PDF se escribe directamente en la respuesta mientras se generan sus páginas, o desde la caché
+     * si la wallet no ha cambiado. Si el cliente envía un {@code If-None-Match} con el ETag
+     * actual, se responde {@code 304 Not Modified} sin generar nada.
+     * </p>
+     *
+     * @param idResidente ID del residente.
+     * @param desde Fecha inicial del informe (opcional).
+     * @param hasta Fecha final del informe (opcional).
+     * @param request Petición, para comprobar {@code If-None-Match}.
+     * @param response Respuesta HTTP donde se escribe el PDF.
+     */
     @GetMapping("/informe")
-    public ResponseEntity<byte[]> getInforme(
-            @PathVariable Long idResidente) {
+    public void getInforme(
+            @PathVariable Long idResidente,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            WebRequest request,
+            HttpServletResponse response) {
 
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
 
         User currentUser = (User) auth.getPrincipal();
 
         try{
-            byte[] pdf = walletService.getInforme(currentUser.getResidencia().getId(), idResidente);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=informe_wallet_" + currentUser.getId() + ".pdf")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(pdf);
+            Wallet wallet = walletService.getWalletInforme(currentUser.getResidencia().getId(), idResidente, desde, hasta);
+            // El navegador puede guardar el informe, pero debe revalidarlo con el ETag
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            if (request.checkNotModified(walletService.getEtagInforme(wallet, desde, hasta))) {
+                return;
+            }
+            response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=informe_wallet_" + currentUser.getId() + ".pdf");
+            walletService.writeInformeCacheado(wallet, desde, hasta, response.getOutputStream());
         }catch (ResiException e){
             throw new ApiException(e, currentUser);
         } catch (Exception e) {
@@ -45,13 +78,17 @@ public class WalletController {
     @PostMapping("/deposit")
     public ResponseEntity<String> deposit(
             @PathVariable Long idResidente,
-            @RequestBody MovimientoRequestDTO input) {
+            @RequestBody MovimientoRequestDTO input,
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String idempotencyKey) {
 
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         User currentUser = (User) auth.getPrincipal();
         try {
-            walletService.deposit(currentUser.getResidencia().getId(), idResidente, input);
-            return ResponseEntity.ok("Deposit successful");
+            Long idResidencia = currentUser.getResidencia().getId();
+            return idempotenciaService.ejecutar(idempotencyKey, "wallet.deposit", List.of(idResidencia, idResidente, input), String.class, () -> {
+                walletService.deposit(idResidencia, idResidente, input);
+                return ResponseEntity.ok("Deposit successful");
+            });
         } catch (ResiException e) {
             throw new ApiException(e, currentUser);
         } catch (Exception e) {
@@ -62,13 +99,17 @@ public class WalletController {
     @PostMapping("/retire")
     public ResponseEntity<String> retire(
             @PathVariable Long idResidente,
-            @RequestBody MovimientoRequestDTO input) {
+            @RequestBody MovimientoRequestDTO input,
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String idempotencyKey) {
 
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         User currentUser = (User) auth.getPrincipal();
         try {
-            walletService.retire(currentUser.getResidencia().getId(), idResidente, input);
-            return ResponseEntity.ok("Retire successful");
+            Long idResidencia = currentUser.getResidencia().getId();
+            return idempotenciaService.ejecutar(idempotencyKey, "wallet.retire", List.of(idResidencia, idResidente, input), String.class, () -> {
+                walletService.retire(idResidencia, idResidente, input);
+                return ResponseEntity.ok("Retire successful");
+            });
         } catch (ResiException e) {
             throw new ApiException(e, currentUser);
         } catch (Exception e) {
@@ -91,4 +132,79 @@ public class WalletController {
             throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
         }
     }
+
+    /**
+     * Obtiene el saldo que tenía la wallet de un residente al final de un día.
+     *
+     * @param idResidente ID del residente.
+     * @param fecha Día a consultar.
+     * @return Saldo en euros.
+     */
+    @GetMapping("/getSaldoEn")
+    public ResponseEntity<Double> getSaldoEn(
+            @PathVariable Long idResidente,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User currentUser = (User) auth.getPrincipal();
+        try {
+            return ResponseEntity.ok(walletService.getSaldoEn(currentUser.getResidencia().getId(), idResidente, fecha));
+        } catch (ResiException e) {
+            throw new ApiException(e, currentUser);
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene una página de los movimientos de la wallet de un residente en un rango de fechas.
+     *
+     * @param idResidente ID del residente.
+     * @param desde Fecha inicial (opcional).
+     * @param hasta Fecha final (opcional).
+     * @param page Número de página (desde 0).
+     * @param size Movimientos por página.
+     * @return Extracto con el saldo inicial y final del rango.
+     */
+    @GetMapping("/movimientos")
+    public ResponseEntity<ExtractoWalletResponseDto> getMovimientos(
+            @PathVariable Long idResidente,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User currentUser = (User) auth.getPrincipal();
+        try {
+            return ResponseEntity.ok(walletService.getExtracto(currentUser.getResidencia().getId(), idResidente, desde, hasta, page, size));
+        } catch (ResiException e) {
+            throw new ApiException(e, currentUser);
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene los totales mensuales de entradas y salidas de la wallet de un residente en un año.
+     *
+     * @param idResidente ID del residente.
+     * @param anio Año a consultar (opcional, por defecto el actual).
+     * @return Totales por mes y tipo de movimiento.
+     */
+    @GetMapping("/analitica/mensual")
+    public ResponseEntity<List<ResumenMensualResponseDto>> getResumenMensual(
+            @PathVariable Long idResidente,
+            @RequestParam(required = false) Integer anio) {
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User currentUser = (User) auth.getPrincipal();
+        try {
+            return ResponseEntity.ok(walletService.getResumenMensual(currentUser.getResidencia().getId(), idResidente, anio));
+        } catch (ResiException e) {
+            throw new ApiException(e, currentUser);
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,125 @@
+package com.kevinolarte.resibenissa.controllers.moduloWallet;
+
+import com.kevinolarte.resibenissa.dto.in.modeloWallet.DepositoMasivoRequestDto;
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.ConceptosWalletResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.DepositoMasivoResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.ResumenMensualResponseDto;
+import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
+import com.kevinolarte.resibenissa.exceptions.ApiException;
+import com.kevinolarte.resibenissa.exceptions.ResiException;
+import com.kevinolarte.resibenissa.models.Residente;
+import com.kevinolarte.resibenissa.models.User;
+import com.kevinolarte.resibenissa.services.moduloWallet.WalletAnaliticaService;
+import com.kevinolarte.resibenissa.services.moduloWallet.WalletDepositoMasivoService;
+import com.kevinolarte.resibenissa.services.moduloWallet.WalletInformeZipService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador para operaciones sobre las wallets de todos los residentes de la residencia del usuario autenticado
+ * (informes en bloque, depósitos en bloque y analítica).
+ * <p>
+ * URL Base: {@code /resi/wallet}
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@RestController
+@RequestMapping("/resi/wallet")
+@AllArgsConstructor
+public class WalletResidenciaController {
+
+    private final WalletInformeZipService walletInformeZipService;
+    private final WalletDepositoMasivoService walletDepositoMasivoService;
+    private final WalletAnaliticaService walletAnaliticaService;
+
+    /**
+     * Descarga un ZIP con el informe de wallet de cada residente de la residencia del usuario.
+     * <p>
+     * Los informes se generan en paralelo y el ZIP se escribe en la respuesta a medida que están listos.
+     * Los residentes cuyo informe no se pudo generar se listan en {@code errores.txt}.
+     * </p>
+     *
+     * @param response Respuesta HTTP donde se escribe el ZIP.
+     */
+    @GetMapping("/informes")
+    public void getInformes(HttpServletResponse response) {
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        try {
+            Long idResidencia = currentUser.getResidencia().getId();
+            List<Residente> residentes = walletInformeZipService.getResidentes(idResidencia);
+            response.setContentType("application/zip");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=informes_wallet_" + idResidencia + ".zip");
+            walletInformeZipService.writeInformesZip(residentes, response.getOutputStream());
+        } catch (ResiException e) {
+            throw new ApiException(e, currentUser);
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
+        }
+    }
+
+    /**
+     * Deposita en bloque en las wallets de los residentes de la residencia del usuario.
+     * <p>
+     * Acepta una lista de depósitos por residente o una cantidad para todos los residentes activos.
+     * La clave de la petición la hace idempotente: repetirla devuelve el resultado original.
+     * </p>
+     *
+     * @param input Depósitos y clave de la petición.
+     * @return {@link ResponseEntity} con el resultado del depósito.
+     */
+    @PostMapping("/depositos")
+    public ResponseEntity<DepositoMasivoResponseDto> depositar(@RequestBody DepositoMasivoRequestDto input) {
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        try {
+            return ResponseEntity.ok(walletDepositoMasivoService.depositar(currentUser.getResidencia().getId(), input));
+        } catch (ResiException e) {
+            throw new ApiException(e, currentUser);
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene los totales mensuales de entradas y salidas de todas las wallets de la residencia del usuario en un año.
+     *
+     * @param anio Año a consultar (opcional, por defecto el actual).
+     * @return Totales por mes y tipo de movimiento.
+     */
+    @GetMapping("/analitica/mensual")
+    public ResponseEntity<List<ResumenMensualResponseDto>> getResumenMensual(@RequestParam(required = false) Integer anio) {
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        try {
+            return ResponseEntity.ok(walletAnaliticaService.getResumenMensualResidencia(currentUser.getResidencia().getId(), anio));
+        } catch (ResiException e) {
+            throw new ApiException(e, currentUser);
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene los conceptos de gasto más frecuentes y los de mayor importe de la residencia del usuario.
+     * Los valores son aproximados, con su error máximo.
+     *
+     * @param n Número de conceptos de cada lista.
+     * @return Conceptos más frecuentes y más caros.
+     */
+    @GetMapping("/analitica/conceptos")
+    public ResponseEntity<ConceptosWalletResponseDto> getConceptos(@RequestParam(defaultValue = "10") int n) {
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        try {
+            return ResponseEntity.ok(walletAnaliticaService.getConceptosTop(currentUser.getResidencia().getId(), n));
+        } catch (ResiException e) {
+            throw new ApiException(e, currentUser);
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ApiException;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.User;
+import com.kevinolarte.resibenissa.services.IdempotenciaService;
 import com.kevinolarte.resibenissa.services.modulojuego.RegistroJuegoService;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -40,6 +41,7 @@ import java.util.List;
 public class RegistroJuegoAdminController {
 
     private final RegistroJuegoService registroJuegoService;
+    private final IdempotenciaService idempotenciaService;
 
     /**
      * Crea un nuevo registro de juego para un residente en una residencia y juego específicos.
@@ -47,6 +49,7 @@ public class RegistroJuegoAdminController {
      * @param idResidencia ID de la residencia.
      * @param idJuego ID del juego.
      * @param registroJuegoDto Datos del registro a guardar.
+     * @param idempotencyKey Cabecera {@code Idempotency-Key} opcional; si se repite, se devuelve la respuesta original sin repetir la operación.
      * @return El registro de juego creado.
      * @throws ApiException si ocurre un error al procesar la solicitud.
      */
@@ -54,10 +57,11 @@ public class RegistroJuegoAdminController {
     public ResponseEntity<RegistroJuegoResponseDto> add(
             @PathVariable Long idResidencia,
             @RequestParam Long idJuego,
-            @RequestBody RegistroJuegoDto registroJuegoDto) {
+            @RequestBody RegistroJuegoDto registroJuegoDto,
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String idempotencyKey) {
         try {
-            RegistroJuegoResponseDto registroJuego = registroJuegoService.add(idResidencia, idJuego, registroJuegoDto);
-            return ResponseEntity.status(HttpStatus.CREATED).body(registroJuego);
+            return idempotenciaService.ejecutar(idempotencyKey, "registroJuego.add", List.of(idResidencia, idJuego, registroJuegoDto), RegistroJuegoResponseDto.class,
+                    () -> ResponseEntity.status(HttpStatus.CREATED).body(registroJuegoService.add(idResidencia, idJuego, registroJuegoDto)));
         } catch (ResiException e) {
             throw new ApiException(e, e.getMessage());
         } catch (Exception e) {
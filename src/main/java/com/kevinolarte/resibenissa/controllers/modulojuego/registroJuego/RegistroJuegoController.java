@@ -10,6 +10,7 @@ import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ApiException;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.User;
+import com.kevinolarte.resibenissa.services.IdempotenciaService;
 import com.kevinolarte.resibenissa.services.modulojuego.RegistroJuegoService;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -39,6 +40,7 @@ import java.util.List;
 public class RegistroJuegoController {
 
     private final RegistroJuegoService registroJuegoService;
+    private final IdempotenciaService idempotenciaService;
 
 
 
@@ -47,18 +49,21 @@ public class RegistroJuegoController {
      *
      * @param idJuego ID del juego.
      * @param registroJuegoDto Datos del registro a guardar.
+     * @param idempotencyKey Cabecera {@code Idempotency-Key} opcional; si se repite, se devuelve la respuesta original sin repetir la operación.
      * @return El registro de juego creado.
      * @throws ApiException si ocurre un error al procesar la solicitud.
      */
     @PostMapping("/juego/{idJuego}/add")
     public ResponseEntity<RegistroJuegoResponseDto> add(
             @PathVariable Long idJuego,
-            @RequestBody RegistroJuegoDto registroJuegoDto) {
+            @RequestBody RegistroJuegoDto registroJuegoDto,
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String idempotencyKey) {
         User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         try {
             registroJuegoDto.setIdUsuario(currentUser.getId());
-            RegistroJuegoResponseDto registroJuego = registroJuegoService.add(currentUser.getResidencia().getId(), idJuego, registroJuegoDto);
-            return ResponseEntity.status(HttpStatus.CREATED).body(registroJuego);
+            Long idResidencia = currentUser.getResidencia().getId();
+            return idempotenciaService.ejecutar(idempotencyKey, "registroJuego.add", List.of(idResidencia, idJuego, registroJuegoDto), RegistroJuegoResponseDto.class,
+                    () -> ResponseEntity.status(HttpStatus.CREATED).body(registroJuegoService.add(idResidencia, idJuego, registroJuegoDto)));
         } catch (ResiException e) {
             throw new ApiException(e, currentUser);
         } catch (Exception e) {
@@ -4,6 +4,8 @@ package com.kevinolarte.resibenissa.controllers.residencia;
 import com.kevinolarte.resibenissa.dto.in.ResidenciaDto;
 import com.kevinolarte.resibenissa.dto.out.ResidenciaPublicResponseDto;
 import com.kevinolarte.resibenissa.dto.out.ResidenciaResponseDto;
+import com.kevinolarte.resibenissa.dto.out.ResidenteResponseDto;
+import com.kevinolarte.resibenissa.dto.out.UserResponseDto;
 import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ApiException;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
@@ -81,6 +83,60 @@ public class ResidenciaAdminController {
         return ResponseEntity.ok(residencia);
     }
 
+    /**
+     * Obtiene una página de los residentes de una residencia.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param baja {@code true} para los residentes de baja, {@code false} (por defecto) para los activos.
+     * @param page Número de página (desde 0).
+     * @param size Residentes por página.
+     * @return {@link ResponseEntity} con estado {@code 200 OK} y los residentes de la página.
+     * @throws ApiException si ocurre un error al obtener los residentes.
+     */
+    @GetMapping("/{idResidencia}/residentes")
+    public ResponseEntity<List<ResidenteResponseDto>> getResidentes(
+                                @PathVariable Long idResidencia,
+                                @RequestParam(required = false, defaultValue = "false") boolean baja,
+                                @RequestParam(required = false, defaultValue = "0") int page,
+                                @RequestParam(required = false, defaultValue = "50") int size) {
+        List<ResidenteResponseDto> residentes;
+        try {
+            residentes = residenciaService.getResidentes(idResidencia, baja, page, size);
+        } catch (ResiException e) {
+            throw new ApiException(e, e.getMessage());
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), e.getMessage());
+        }
+        return ResponseEntity.ok(residentes);
+    }
+
+    /**
+     * Obtiene una página de los usuarios de una residencia.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param baja {@code true} para los usuarios de baja, {@code false} (por defecto) para los activos.
+     * @param page Número de página (desde 0).
+     * @param size Usuarios por página.
+     * @return {@link ResponseEntity} con estado {@code 200 OK} y los usuarios de la página.
+     * @throws ApiException si ocurre un error al obtener los usuarios.
+     */
+    @GetMapping("/{idResidencia}/usuarios")
+    public ResponseEntity<List<UserResponseDto>> getUsuarios(
+                                @PathVariable Long idResidencia,
+                                @RequestParam(required = false, defaultValue = "false") boolean baja,
+                                @RequestParam(required = false, defaultValue = "0") int page,
+                                @RequestParam(required = false, defaultValue = "50") int size) {
+        List<UserResponseDto> usuarios;
+        try {
+            usuarios = residenciaService.getUsuarios(idResidencia, baja, page, size);
+        } catch (ResiException e) {
+            throw new ApiException(e, e.getMessage());
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), e.getMessage());
+        }
+        return ResponseEntity.ok(usuarios);
+    }
+
     /**
      * Obtiene todas las residencias.
      *
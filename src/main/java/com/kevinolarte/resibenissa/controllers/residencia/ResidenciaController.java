@@ -3,20 +3,28 @@ package com.kevinolarte.resibenissa.controllers.residencia;
 import com.kevinolarte.resibenissa.dto.in.ResidenciaDto;
 import com.kevinolarte.resibenissa.dto.out.ResidenciaPublicResponseDto;
 import com.kevinolarte.resibenissa.dto.out.ResidenciaResponseDto;
+import com.kevinolarte.resibenissa.dto.out.ResidenteResponseDto;
+import com.kevinolarte.resibenissa.dto.out.UserResponseDto;
 import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ApiException;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.Residencia;
 import com.kevinolarte.resibenissa.models.User;
 import com.kevinolarte.resibenissa.services.ResidenciaService;
-import lombok.AllArgsConstructor;
+import com.kevinolarte.resibenissa.services.DirectorioResidenciasService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controlador que expone endpoints REST para gestionar entidades {@link Residencia}.
@@ -30,10 +38,14 @@ import java.util.List;
  */
 @RequestMapping("/resi")
 @RestController
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class ResidenciaController {
 
     private final ResidenciaService residenciaService;
+    private final DirectorioResidenciasService directorioResidenciasService;
+
+    @Value("${residencia.directorio.max-age-segundos:60}")
+    private long maxAgeDirectorio;
 
 
     /**
@@ -58,20 +70,91 @@ public class ResidenciaController {
     }
 
     /**
-     * Obtiene todas las residencias.
+     * Obtiene una página de los residentes de la residencia del usuario autenticado.
+     *
+     * @param baja {@code true} para los residentes de baja, {@code false} (por defecto) para los activos.
+     * @param page Número de página (desde 0).
+     * @param size Residentes por página.
+     * @return {@link ResponseEntity} con estado {@code 200 OK} y los residentes de la página.
+     * @throws ApiException si ocurre un error al obtener los residentes.
+     */
+    @GetMapping("/residentes")
+    public ResponseEntity<List<ResidenteResponseDto>> getResidentes(
+                                @RequestParam(required = false, defaultValue = "false") boolean baja,
+                                @RequestParam(required = false, defaultValue = "0") int page,
+                                @RequestParam(required = false, defaultValue = "50") int size) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User currentUser = (User) auth.getPrincipal();
+        List<ResidenteResponseDto> residentes;
+        try{
+            residentes = residenciaService.getResidentes(currentUser.getResidencia().getId(), baja, page, size);
+        } catch (ResiException e) {
+            throw new ApiException(e, currentUser);
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
+        }
+        return ResponseEntity.ok(residentes);
+    }
+
+    /**
+     * Obtiene una página de los usuarios de la residencia del usuario autenticado.
      *
-     * @return {@link ResponseEntity} con estado {@code 200 OK} y una lista de DTOs de residencias.
+     * @param baja {@code true} para los usuarios de baja, {@code false} (por defecto) para los activos.
+     * @param page Número de página (desde 0).
+     * @param size Usuarios por página.
+     * @return {@link ResponseEntity} con estado {@code 200 OK} y los usuarios de la página.
+     * @throws ApiException si ocurre un error al obtener los usuarios.
+     */
+    @GetMapping("/usuarios")
+    public ResponseEntity<List<UserResponseDto>> getUsuarios(
+                                @RequestParam(required = false, defaultValue = "false") boolean baja,
+                                @RequestParam(required = false, defaultValue = "0") int page,
+                                @RequestParam(required = false, defaultValue = "50") int size) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User currentUser = (User) auth.getPrincipal();
+        List<UserResponseDto> usuarios;
+        try{
+            usuarios = residenciaService.getUsuarios(currentUser.getResidencia().getId(), baja, page, size);
+        } catch (ResiException e) {
+            throw new ApiException(e, currentUser);
+        } catch (Exception e) {
+            throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
+        }
+        return ResponseEntity.ok(usuarios);
+    }
+
+    /**
+     * Obtiene todas las residencias (endpoint público).
+     * <p>
+     * La lista ({@link ResidenciaPublicResponseDto}) se sirve ya serializada desde memoria con un
+     * ETag fuerte; si la petición trae {@code If-None-Match} con ese ETag se responde
+     * {@code 304 Not Modified} sin cuerpo.
+     * </p>
+     *
+     * @param request Petición, para comprobar el ETag.
+     * @return {@link ResponseEntity} con estado {@code 200 OK} y el JSON de la lista de residencias.
      * @throws ApiException si ocurre un error al obtener las residencias.
      */
-    @GetMapping("/getAll")
-    public ResponseEntity<List<ResidenciaPublicResponseDto>> getAll() {
-        List<ResidenciaPublicResponseDto> residencias;
+    @GetMapping(value = "/getAll", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAll(WebRequest request) {
+        DirectorioResidenciasService.Instantanea directorio;
         try{
-            residencias = residenciaService.getAll();
+            directorio = directorioResidenciasService.get();
         }catch (Exception e){
             throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), e.getMessage());
         }
-        return ResponseEntity.ok(residencias);
+        CacheControl cacheControl = CacheControl.maxAge(maxAgeDirectorio, TimeUnit.SECONDS).cachePublic();
+        if (request.checkNotModified(directorio.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(directorio.etag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(directorio.etag())
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(directorio.cuerpo());
     }
 
 
@@ -11,6 +11,7 @@ import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ApiException;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.User;
+import com.kevinolarte.resibenissa.services.IdempotenciaService;
 import com.kevinolarte.resibenissa.services.ResidenteService;
 import com.kevinolarte.resibenissa.services.modulojuego.RegistroJuegoService;
 import lombok.AllArgsConstructor;
@@ -40,6 +41,7 @@ import java.util.List;
 public class ResidenteAdminController {
     private final ResidenteService residenteService;
     private final RegistroJuegoService registroJuegoService;
+    private final IdempotenciaService idempotenciaService;
 
 
     /**
@@ -47,22 +49,23 @@ public class ResidenteAdminController {
      *
      * @param idResidencia ID de la residencia.
      * @param residenteDto DTO con los datos del residente a crear.
+     * @param idempotencyKey Cabecera {@code Idempotency-Key} opcional; si se repite, se devuelve la respuesta original sin repetir la operación.
      * @return {@link ResponseEntity} con estado {@code 201 Created} y el residente creado.
      * @throws ApiException si ocurre un error al procesar la solicitud, como campos obligatorios faltantes
      */
     @PostMapping("/{idResidencia}/resident/add")
     public ResponseEntity<ResidenteResponseDto> add(
                                     @PathVariable Long idResidencia,
-                                    @RequestBody ResidenteDto residenteDto){
-        ResidenteResponseDto residenteResponseDto;
+                                    @RequestBody ResidenteDto residenteDto,
+                                    @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String idempotencyKey){
         try{
-            residenteResponseDto = residenteService.add(idResidencia, residenteDto);
+            return idempotenciaService.ejecutar(idempotencyKey, "residente.add", List.of(idResidencia, residenteDto), ResidenteResponseDto.class,
+                    () -> ResponseEntity.status(HttpStatus.CREATED).body(residenteService.add(idResidencia, residenteDto)));
         }catch (ResiException e){
             throw new ApiException(e, e.getMessage());
         }catch (Exception e) {
             throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), e.getMessage());
         }
-        return ResponseEntity.status(HttpStatus.CREATED).body(residenteResponseDto);
 
     }
 
@@ -12,6 +12,7 @@ import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ApiException;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.User;
+import com.kevinolarte.resibenissa.services.IdempotenciaService;
 import com.kevinolarte.resibenissa.services.ResidenteService;
 import com.kevinolarte.resibenissa.services.modulojuego.RegistroJuegoService;
 import lombok.AllArgsConstructor;
@@ -46,30 +47,33 @@ public class ResidenteController {
 
     private final ResidenteService residenteService;
     private final RegistroJuegoService registroJuegoService;
+    private final IdempotenciaService idempotenciaService;
 
 
     /**
      * Registra un nuevo residente en la residencia del usuario autenticado.
      *
      * @param residenteDto DTO con los datos del nuevo residente.
+     * @param idempotencyKey Cabecera {@code Idempotency-Key} opcional; si se repite, se devuelve la respuesta original sin repetir la operación.
      * @return {@link ResponseEntity} con estado {@code 201 Created} y el residente creado.
      * @throws ApiException si ocurre un error durante el proceso de registro.
      */
     @PostMapping("/add")
     public ResponseEntity<ResidenteResponseDto> add(
-                                @RequestBody ResidenteDto residenteDto){
+                                @RequestBody ResidenteDto residenteDto,
+                                @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String idempotencyKey){
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         User currentUser = (User) auth.getPrincipal();
 
-        ResidenteResponseDto residenteResponseDto;
         try {
-            residenteResponseDto = residenteService.add(currentUser.getResidencia().getId(), residenteDto);
+            Long idResidencia = currentUser.getResidencia().getId();
+            return idempotenciaService.ejecutar(idempotencyKey, "residente.add", List.of(idResidencia, residenteDto), ResidenteResponseDto.class,
+                    () -> ResponseEntity.status(HttpStatus.CREATED).body(residenteService.add(idResidencia, residenteDto)));
         } catch (ResiException e) {
             throw new ApiException(e, currentUser);
         } catch (Exception e) {
             throw new ApiException(new ResiException(ApiErrorCode.PROBLEMA_INTERNO), currentUser, e.getMessage());
         }
-        return ResponseEntity.status(HttpStatus.CREATED).body(residenteResponseDto);
 
     }
 
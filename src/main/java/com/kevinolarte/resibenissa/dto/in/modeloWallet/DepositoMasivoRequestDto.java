@@ -0,0 +1,39 @@
+package com.kevinolarte.resibenissa.dto.in.modeloWallet;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO de entrada para realizar depósitos en bloque en las wallets de una residencia.
+ * <p>
+ * Admite dos modos: una lista de {@link #depositos} por residente, o una única {@link #cantidad}
+ * para todos los residentes activos de la residencia. La {@link #clave} la genera el cliente y hace
+ * la operación idempotente: repetir una petición con la misma clave no vuelve a depositar.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Getter
+@Setter
+public class DepositoMasivoRequestDto {
+    private String clave;
+    private String concepto;
+    /**
+     * Cantidad en euros para todos los residentes activos (si no se indica {@link #depositos}).
+     */
+    private Double cantidad;
+    private List<DepositoResidenteDto> depositos;
+
+    /**
+     * Depósito para un residente concreto. Si no tiene concepto se usa el general.
+     */
+    @Getter
+    @Setter
+    public static class DepositoResidenteDto {
+        private Long idResidente;
+        private double cantidad;
+        private String concepto;
+    }
+}
@@ -0,0 +1,34 @@
+package com.kevinolarte.resibenissa.dto.in.moduloOrgSalida;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO de entrada para cambiar a la vez campos de varios participantes de un evento de salida.
+ * <p>
+ * Cada cambio solo modifica los campos que trae informados; los que vienen a {@code null} se dejan como están.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Getter
+@Setter
+public class CambiosParticipantesDto {
+    private List<CambioParticipanteDto> cambios;
+
+    /**
+     * Campos a cambiar de un participante.
+     */
+    @Getter
+    @Setter
+    public static class CambioParticipanteDto {
+        private Long idParticipante;
+        private Boolean recursosHumanos;
+        private Boolean recursosMateriales;
+        private Boolean asistenciaPermitida;
+        private String preOpinion;
+        private String postOpinion;
+    }
+}
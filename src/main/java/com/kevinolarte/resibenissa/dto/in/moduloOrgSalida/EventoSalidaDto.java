@@ -21,5 +21,6 @@ public class EventoSalidaDto {
     private String nombre;
     private String descripcion;
     private LocalDateTime fecha;
+    private Integer duracionMinutos;
     private EstadoSalida estado;
 }
@@ -0,0 +1,22 @@
+package com.kevinolarte.resibenissa.dto.in.moduloOrgSalida;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO de entrada para inscribir a varios residentes a la vez en un evento de salida.
+ * <p>
+ * Los recursos indicados se aplican a todos los residentes inscritos.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Getter
+@Setter
+public class InscripcionMasivaDto {
+    private List<Long> idsResidente;
+    private Boolean recursosHumanos;
+    private Boolean recursosMateriales;
+}
@@ -8,4 +8,8 @@ import lombok.Setter;
 public class EmailRequestDto {
     private String subject;
     private String body;
+    /**
+     * Si es {@code true}, el correo se envía de inmediato aunque esté activo el modo resumen.
+     */
+    private boolean urgente;
 }
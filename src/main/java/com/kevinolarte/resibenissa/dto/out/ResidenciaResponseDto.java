@@ -1,22 +1,19 @@
 package com.kevinolarte.resibenissa.dto.out;
 
 import com.kevinolarte.resibenissa.models.Residencia;
-import com.kevinolarte.resibenissa.models.Residente;
-import com.kevinolarte.resibenissa.models.User;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.List;
 /**
- * DTO de salida que representa la información pública de una residencia.
+ * DTO de salida que representa la información de una residencia.
  * <p>
  * Esta clase se utiliza para enviar al cliente los datos esenciales de una residencia,
- * incluyendo su nombre, email y los identificadores de usuarios y residentes asociados.
+ * incluyendo su nombre, email y el número de residentes, usuarios y eventos próximos.
  * </p>
  *
  * <p>
- * Se construye a partir de una instancia de {@link Residencia}, mapeando únicamente los IDs
- * de las relaciones con usuarios y residentes para evitar sobrecarga de datos en la respuesta.
+ * Los totales se calculan con consultas de agregación, así que el tamaño de la respuesta no depende
+ * del tamaño de la residencia. Los residentes y usuarios se consultan aparte, paginados.
  * </p>
  *
  * @author Kevin Olarte
@@ -27,25 +24,29 @@ public class ResidenciaResponseDto {
     private Long id;
     private String nombre;
     private String email;
-    private List<Long> usuarios;
-    private List<Long> residentes;
+    private long residentesActivos;
+    private long residentesBaja;
+    private long usuarios;
+    private long eventosProximos;
+
+    public ResidenciaResponseDto(Long id, String nombre, String email, Long residentesActivos, Long residentesBaja,
+                                 Long usuarios, Long eventosProximos) {
+        this.id = id;
+        this.nombre = nombre;
+        this.email = email;
+        this.residentesActivos = residentesActivos;
+        this.residentesBaja = residentesBaja;
+        this.usuarios = usuarios;
+        this.eventosProximos = eventosProximos;
+    }
 
+    /**
+     * Crea el DTO de una residencia recién creada, que aún no tiene residentes, usuarios ni eventos.
+     *
+     * @param residencia Residencia recién guardada.
+     */
     public ResidenciaResponseDto(Residencia residencia) {
-        this.id = residencia.getId();
-        this.nombre = residencia.getNombre();
-        this.email = residencia.getEmail();
-
-        this.usuarios = residencia.getUsuarios()
-                .stream()
-                .map(User::getId)
-                .toList();
-
-        this.residentes = residencia.getResidentes()
-                .stream()
-                .map(Residente::getId)
-                .toList();
+        this(residencia.getId(), residencia.getNombre(), residencia.getEmail(), 0L, 0L, 0L, 0L);
     }
 
 }
-
-
@@ -41,4 +41,25 @@ public class ResidenteResponseDto {
         this.familiar1 = residente.getFamiliar1();
         this.familiar2 = residente.getFamiliar2();
     }
+
+    /**
+     * Constructor para las consultas de listado que seleccionan solo estas columnas
+     * (ver {@code ResidenteSpecification#columnasResponse}).
+     */
+    public ResidenteResponseDto(Long id, String nombre, String apellido, LocalDate fechaNacimiento, String documentoIdentidad,
+                                String familiar1, String familiar2, Long idResidencia, Boolean baja) {
+        this.id = id;
+        this.nombre = nombre;
+        this.apellido = apellido;
+        this.fechaNacimiento = fechaNacimiento;
+        this.documentoIdentidad = documentoIdentidad;
+        this.familiar1 = familiar1;
+        this.familiar2 = familiar2;
+        this.idResidencia = idResidencia;
+        this.baja = baja;
+    }
+
+    public ResidenteResponseDto() {
+        // Constructor por defecto, para reconstruir respuestas idempotentes guardadas
+    }
 }
@@ -44,5 +44,22 @@ public class UserResponseDto {
         this.baja = user.isBaja();
     }
 
+    /**
+     * Constructor para las consultas de listado que seleccionan solo estas columnas
+     * (ver {@code UserSpecification#columnasResponse}).
+     */
+    public UserResponseDto(Long id, String nombre, String apellido, String email, Boolean enabled, Long idResidencia,
+                           String fotoPerfil, String verificationCode, Boolean baja) {
+        this.id = id;
+        this.nombre = nombre;
+        this.apellido = apellido;
+        this.email = email;
+        this.enabled = enabled;
+        this.idResidencia = idResidencia;
+        this.fotoPerfil = fotoPerfil;
+        this.verificationCode = verificationCode;
+        this.baja = baja;
+    }
+
 
 }
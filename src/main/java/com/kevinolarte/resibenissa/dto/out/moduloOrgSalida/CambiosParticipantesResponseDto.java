@@ -0,0 +1,36 @@
+package com.kevinolarte.resibenissa.dto.out.moduloOrgSalida;
+
+import com.kevinolarte.resibenissa.enums.moduloOrgSalida.ResultadoCambioParticipante;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO de salida con el resultado de una actualización masiva de participantes de un evento de salida.
+ * <p>
+ * Contiene el resultado de cada participante en el orden de la petición.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+public class CambiosParticipantesResponseDto {
+    private Long idEvento;
+    private int actualizados;
+    private List<ResultadoParticipanteDto> resultados;
+
+    /**
+     * Resultado de los cambios de un participante.
+     */
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class ResultadoParticipanteDto {
+        private Long idParticipante;
+        private ResultadoCambioParticipante resultado;
+    }
+}
@@ -29,8 +29,12 @@ public class EventoSalidaResponseDto {
     private String nombre;
     private String descripcion;
     private LocalDateTime fechaInicio;
+    private Integer duracionMinutos;
     private EstadoSalida estado;
     private List<Long> participantes;
+    private int numParticipantes;
+    private int numRecursosHumanos;
+    private int numRecursosMateriales;
     private Long idResidencia;
 
     public EventoSalidaResponseDto(EventoSalida e) {
@@ -38,10 +42,14 @@ public class EventoSalidaResponseDto {
         this.nombre = e.getNombre();
         this.descripcion = e.getDescripcion();
         this.fechaInicio = e.getFechaInicio();
+        this.duracionMinutos = e.getDuracionMinutos();
         this.estado = e.getEstado();
         this.participantes = e.getParticipantes().stream()
                 .map(Participante::getId)
                 .toList();
+        this.numParticipantes = e.getNumParticipantes();
+        this.numRecursosHumanos = e.getNumRecursosHumanos();
+        this.numRecursosMateriales = e.getNumRecursosMateriales();
         this.idResidencia = e.getResidencia().getId();
     }
 }
@@ -0,0 +1,39 @@
+package com.kevinolarte.resibenissa.dto.out.moduloOrgSalida;
+
+import com.kevinolarte.resibenissa.enums.moduloOrgSalida.ResultadoInscripcion;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO de salida con el resultado de una inscripción masiva en un evento de salida.
+ * <p>
+ * Contiene el resultado de cada residente en el orden de la petición y, si se pidió avisar a las
+ * familias y hubo inscritos, el envío generado ({@link NotificacionEventoResponseDto}).
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+public class InscripcionMasivaResponseDto {
+    private Long idEvento;
+    private int inscritos;
+    private List<ResultadoResidenteDto> resultados;
+    private NotificacionEventoResponseDto notificacion;
+
+    /**
+     * Resultado de un residente: si se ha inscrito, el ID del participante creado.
+     */
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class ResultadoResidenteDto {
+        private Long idResidente;
+        private ResultadoInscripcion resultado;
+        private Long idParticipante;
+    }
+}
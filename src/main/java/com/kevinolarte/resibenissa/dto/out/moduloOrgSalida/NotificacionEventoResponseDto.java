@@ -0,0 +1,32 @@
+package com.kevinolarte.resibenissa.dto.out.moduloOrgSalida;
+
+import com.kevinolarte.resibenissa.dto.out.moduloReporting.EmailEstadoResponseDto;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO de salida con el resultado de notificar a las familias de todos los participantes de un evento.
+ * <p>
+ * Incluye el identificador del envío ({@code lote}), que permite consultar más tarde el estado
+ * de cada destinatario, y el estado inicial de cada correo generado.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Getter
+@Setter
+public class NotificacionEventoResponseDto {
+    private String lote;
+    private Long idEvento;
+    private int participantes;
+    private List<EmailEstadoResponseDto> correos;
+
+    public NotificacionEventoResponseDto(String lote, Long idEvento, int participantes, List<EmailEstadoResponseDto> correos) {
+        this.lote = lote;
+        this.idEvento = idEvento;
+        this.participantes = participantes;
+        this.correos = correos;
+    }
+}
@@ -45,4 +45,28 @@ public class ParticipanteResponseDto {
         this.familiar1 = participante.getResidente().getFamiliar1();
         this.familiar2 = participante.getResidente().getFamiliar2();
     }
+
+    /**
+     * Constructor para las consultas de listado que seleccionan solo estas columnas
+     * (ver {@code ParticipanteSpecification#columnasResponse}).
+     */
+    public ParticipanteResponseDto(Long id, Long idResidente, Long idEvento, Boolean recursosHumanos, Boolean recursosMateriales,
+                                   Boolean asistenciaPermitida, String preOpinion, String postOpinion,
+                                   Long idResidencia, String familiar1, String familiar2) {
+        this.id = id;
+        this.idResidente = idResidente;
+        this.idEvento = idEvento;
+        this.recursosHumanos = recursosHumanos;
+        this.recursosMateriales = recursosMateriales;
+        this.asistenciaPermitida = asistenciaPermitida;
+        this.preOpinion = preOpinion;
+        this.postOpinion = postOpinion;
+        this.idResidencia = idResidencia;
+        this.familiar1 = familiar1;
+        this.familiar2 = familiar2;
+    }
+
+    public ParticipanteResponseDto() {
+        // Constructor por defecto, para reconstruir respuestas idempotentes guardadas
+    }
 }
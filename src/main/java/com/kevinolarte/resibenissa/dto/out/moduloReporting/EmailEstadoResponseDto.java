@@ -0,0 +1,49 @@
+package com.kevinolarte.resibenissa.dto.out.moduloReporting;
+
+import com.kevinolarte.resibenissa.enums.moduloReporting.EstadoEmail;
+import com.kevinolarte.resibenissa.models.moduloReporting.EmailOutbox;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de salida con el estado de envío de un correo de la bandeja de salida.
+ * <p>
+ * No incluye el cuerpo del mensaje, solo el destinatario y el resultado de los intentos de envío.
+ * Si el correo se envió dentro de un resumen, {@code idResumen} indica cuál y el resultado es el del resumen.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Getter
+@Setter
+public class EmailEstadoResponseDto {
+    private Long id;
+    private String destinatario;
+    private Long idResumen;
+    private EstadoEmail estado;
+    private int intentos;
+    private String ultimoError;
+    private LocalDateTime fechaEnvio;
+
+    public EmailEstadoResponseDto(EmailOutbox email) {
+        this(email, null);
+    }
+
+    /**
+     * @param email Correo.
+     * @param resumen Correo de resumen en el que se envió {@code email} (o {@code null}); si se indica,
+     *                el estado, los intentos, el error y la fecha de envío son los del resumen.
+     */
+    public EmailEstadoResponseDto(EmailOutbox email, EmailOutbox resumen) {
+        EmailOutbox envio = resumen != null ? resumen : email;
+        this.id = email.getId();
+        this.destinatario = email.getDestinatario();
+        this.idResumen = resumen != null ? resumen.getId() : null;
+        this.estado = envio.getEstado();
+        this.intentos = envio.getIntentos();
+        this.ultimoError = envio.getUltimoError();
+        this.fechaEnvio = envio.getFechaEnvio();
+    }
+}
@@ -0,0 +1,27 @@
+package com.kevinolarte.resibenissa.dto.out.moduloWallet;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * DTO de salida con un concepto de gasto destacado y su valor aproximado.
+ * <p>
+ * {@code valor} es el número de gastos o el importe en céntimos, según la lista. Es una cota superior:
+ * el valor real está entre {@code valor - error} y {@code valor}.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Getter
+@Setter
+public class ConceptoTopResponseDto {
+    private String concepto;
+    private long valor;
+    private long error;
+
+    public ConceptoTopResponseDto(String concepto, long valor, long error) {
+        this.concepto = concepto;
+        this.valor = valor;
+        this.error = error;
+    }
+}
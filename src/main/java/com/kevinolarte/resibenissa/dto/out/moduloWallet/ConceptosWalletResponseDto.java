@@ -0,0 +1,23 @@
+package com.kevinolarte.resibenissa.dto.out.moduloWallet;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO de salida con los conceptos de gasto más frecuentes y los de mayor importe de una residencia.
+ *
+ * @author Kevin Olarte
+ */
+@Getter
+@Setter
+public class ConceptosWalletResponseDto {
+    private List<ConceptoTopResponseDto> masFrecuentes;
+    private List<ConceptoTopResponseDto> masCaros;
+
+    public ConceptosWalletResponseDto(List<ConceptoTopResponseDto> masFrecuentes, List<ConceptoTopResponseDto> masCaros) {
+        this.masFrecuentes = masFrecuentes;
+        this.masCaros = masCaros;
+    }
+}
@@ -0,0 +1,36 @@
+package com.kevinolarte.resibenissa.dto.out.moduloWallet;
+
+import com.kevinolarte.resibenissa.models.moduloWallet.LoteDeposito;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de salida con el resultado de un depósito en bloque.
+ * <p>
+ * Si la petición repetía una clave ya procesada, {@link #repetido} es {@code true}
+ * y los datos son los del depósito original.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Getter
+@Setter
+public class DepositoMasivoResponseDto {
+    private String clave;
+    private int depositos;
+    private int walletsCreadas;
+    private long totalCentimos;
+    private LocalDateTime fecha;
+    private boolean repetido;
+
+    public DepositoMasivoResponseDto(LoteDeposito lote, boolean repetido) {
+        this.clave = lote.getClave();
+        this.depositos = lote.getNumeroDepositos();
+        this.walletsCreadas = lote.getWalletsCreadas();
+        this.totalCentimos = lote.getTotalCentimos();
+        this.fecha = lote.getFecha();
+        this.repetido = repetido;
+    }
+}
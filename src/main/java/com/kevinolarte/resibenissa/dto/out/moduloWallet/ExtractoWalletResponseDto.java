@@ -0,0 +1,39 @@
+package com.kevinolarte.resibenissa.dto.out.moduloWallet;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO de salida con una página del extracto de una wallet en un rango de fechas.
+ * <p>
+ * Incluye el saldo al inicio y al final del rango, de modo que el cliente puede mostrar
+ * el saldo acumulado sin pedir todo el historial. Todas las cantidades están en céntimos.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Getter
+@Setter
+public class ExtractoWalletResponseDto {
+    private LocalDate desde;
+    private LocalDate hasta;
+    private long saldoInicialCentimos;
+    private long saldoFinalCentimos;
+    private int page;
+    private int size;
+    private List<MovimientoWalletResponseDto> movimientos;
+
+    public ExtractoWalletResponseDto(LocalDate desde, LocalDate hasta, long saldoInicialCentimos, long saldoFinalCentimos,
+                                     int page, int size, List<MovimientoWalletResponseDto> movimientos) {
+        this.desde = desde;
+        this.hasta = hasta;
+        this.saldoInicialCentimos = saldoInicialCentimos;
+        this.saldoFinalCentimos = saldoFinalCentimos;
+        this.page = page;
+        this.size = size;
+        this.movimientos = movimientos;
+    }
+}
@@ -0,0 +1,34 @@
+package com.kevinolarte.resibenissa.dto.out.moduloWallet;
+
+import com.kevinolarte.resibenissa.enums.moduloWallet.TipoMovimiento;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de salida con los datos de un movimiento de una wallet.
+ * <p>
+ * Se construye directamente en las consultas JPQL, de modo que leer muchos movimientos
+ * no carga entidades gestionadas (ni su wallet y residente asociados) en el contexto de persistencia.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Getter
+@Setter
+public class MovimientoWalletResponseDto {
+    private Long id;
+    private LocalDateTime fecha;
+    private TipoMovimiento tipo;
+    private long cantidadCentimos;
+    private String concepto;
+
+    public MovimientoWalletResponseDto(Long id, LocalDateTime fecha, TipoMovimiento tipo, long cantidadCentimos, String concepto) {
+        this.id = id;
+        this.fecha = fecha;
+        this.tipo = tipo;
+        this.cantidadCentimos = cantidadCentimos;
+        this.concepto = concepto;
+    }
+}
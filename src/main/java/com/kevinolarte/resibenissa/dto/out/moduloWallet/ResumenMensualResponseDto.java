@@ -0,0 +1,28 @@
+package com.kevinolarte.resibenissa.dto.out.moduloWallet;
+
+import com.kevinolarte.resibenissa.enums.moduloWallet.TipoMovimiento;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * DTO de salida con el total de movimientos de un tipo en un mes (de un residente o de una residencia).
+ *
+ * @author Kevin Olarte
+ */
+@Getter
+@Setter
+public class ResumenMensualResponseDto {
+    private int anio;
+    private int mes;
+    private TipoMovimiento tipo;
+    private long numeroMovimientos;
+    private long totalCentimos;
+
+    public ResumenMensualResponseDto(int anio, int mes, TipoMovimiento tipo, long numeroMovimientos, long totalCentimos) {
+        this.anio = anio;
+        this.mes = mes;
+        this.tipo = tipo;
+        this.numeroMovimientos = numeroMovimientos;
+        this.totalCentimos = totalCentimos;
+    }
+}
@@ -46,4 +46,25 @@ public class RegistroJuegoResponseDto {
         this.fecha = registroJuego.getFecha();
         this.observacion = registroJuego.getObservacion() == null ? null : registroJuego.getObservacion();
     }
+
+    /**
+     * Constructor para las consultas de listado que seleccionan solo estas columnas
+     * (ver {@code RegistroJuegoSpecification#columnasResponse}).
+     */
+    public RegistroJuegoResponseDto(Long id, Long idResidente, Long idJuego, Long idUsuario, Integer num, Double duracion,
+                                    Dificultad dificultad, LocalDateTime fecha, String observacion) {
+        this.id = id;
+        this.idResidente = idResidente;
+        this.idJuego = idJuego;
+        this.idUsuario = idUsuario;
+        this.num = num;
+        this.duracion = duracion;
+        this.dificultad = dificultad;
+        this.fecha = fecha;
+        this.observacion = observacion;
+    }
+
+    public RegistroJuegoResponseDto() {
+        // Constructor por defecto, para reconstruir respuestas idempotentes guardadas
+    }
 }
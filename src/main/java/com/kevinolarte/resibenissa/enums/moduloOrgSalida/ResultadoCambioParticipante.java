@@ -0,0 +1,20 @@
+package com.kevinolarte.resibenissa.enums.moduloOrgSalida;
+
+/**
+ * Resultado de aplicar los cambios de un participante en una actualización masiva de un evento de salida.
+ * @author Kevin Olarte
+ */
+public enum ResultadoCambioParticipante {
+    /** Se han guardado los cambios del participante. */
+    ACTUALIZADO,
+    /** Los valores indicados coinciden con los actuales; no se ha modificado nada. */
+    SIN_CAMBIOS,
+    /** El participante no existe o es de otro evento. */
+    PARTICIPANTE_INVALIDO,
+    /** Algún campo no se puede cambiar en el estado actual del evento; no se aplica ningún cambio del participante. */
+    EVENTO_NO_DISPONIBLE,
+    /** El participante se ha borrado o se le han cambiado los recursos mientras se aplicaban los cambios; no se ha modificado nada. */
+    CONFLICTO,
+    /** El participante aparece más de una vez en la petición; solo se procesa la primera. */
+    REPETIDO
+}
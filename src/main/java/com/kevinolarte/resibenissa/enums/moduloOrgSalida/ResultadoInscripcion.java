@@ -0,0 +1,20 @@
+package com.kevinolarte.resibenissa.enums.moduloOrgSalida;
+
+/**
+ * Resultado de inscribir a un residente en una inscripción masiva a un evento de salida.
+ * @author Kevin Olarte
+ */
+public enum ResultadoInscripcion {
+    /** El residente se ha inscrito en el evento. */
+    INSCRITO,
+    /** El residente no existe o es de otra residencia. */
+    RESIDENTE_INVALIDO,
+    /** El residente está de baja. */
+    RESIDENTE_BAJA,
+    /** El residente ya estaba inscrito en el evento. */
+    YA_INSCRITO,
+    /** El residente ya participa en otra salida que se solapa con esta (ver {@code HorarioResidentesService}). */
+    OTRA_SALIDA_MISMO_DIA,
+    /** El residente aparece más de una vez en la petición; solo se procesa la primera. */
+    REPETIDO
+}
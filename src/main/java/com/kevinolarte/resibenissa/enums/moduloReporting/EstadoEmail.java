@@ -0,0 +1,18 @@
+package com.kevinolarte.resibenissa.enums.moduloReporting;
+
+/**
+ * Estados por los que pasa un correo guardado en la bandeja de salida.
+ * <p>
+ * {@code PENDIENTE} → {@code ENVIANDO} → {@code ENVIADO}. Si el envío falla vuelve a
+ * {@code PENDIENTE} con un nuevo intento programado, y al agotar los reintentos queda en
+ * {@code FALLIDO} (dead-letter) para su revisión manual.
+ * <p>
+ * En modo resumen, los correos no urgentes a familiares quedan en {@code AGRUPADO} hasta que
+ * se fusionan en un único correo de resumen por destinatario; entonces pasan a {@code RESUMIDO}
+ * y es el resumen el que sigue el ciclo normal.
+ *
+ * @author Kevin Olarte
+ */
+public enum EstadoEmail {
+    PENDIENTE, ENVIANDO, ENVIADO, FALLIDO, AGRUPADO, RESUMIDO;
+}
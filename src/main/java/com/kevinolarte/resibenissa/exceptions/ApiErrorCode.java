@@ -59,7 +59,14 @@ public enum ApiErrorCode {
     PROBLEMA_INTERNO(5000, "Error interno del servidor", HttpStatus.INTERNAL_SERVER_ERROR),
     WALLET_NO_ENCONTRADA(1033,"Wallet no encontrada" , HttpStatus.NOT_FOUND ),
     MONTO_INVALIDO(1034,"El monto seleccionado no es valido" , HttpStatus.NOT_ACCEPTABLE ),
-    SALDO_INSUFICIENTE(1035, "No tiene suficiente saldo", HttpStatus.NOT_ACCEPTABLE);
+    SALDO_INSUFICIENTE(1035, "No tiene suficiente saldo", HttpStatus.NOT_ACCEPTABLE),
+    LOTE_INVALIDO(1036, "Envio masivo no encontrado", HttpStatus.NOT_FOUND),
+    PERMISO_YA_RESPONDIDO(1037, "Esta solicitud de permiso ya fue respondida", HttpStatus.CONFLICT),
+    LOTE_EN_CURSO(1038, "Ya se esta procesando una peticion con esta clave", HttpStatus.CONFLICT),
+    CLAVE_IDEMPOTENCIA_INVALIDA(1039, "La clave de idempotencia no es valida", HttpStatus.BAD_REQUEST),
+    DURACION_INVALIDA(1040, "La duracion del evento no es valida", HttpStatus.NOT_ACCEPTABLE),
+    CLAVE_IDEMPOTENCIA_EN_USO(1041, "Ya se esta procesando una peticion con esta clave de idempotencia", HttpStatus.CONFLICT),
+    CLAVE_IDEMPOTENCIA_REUTILIZADA(1042, "La clave de idempotencia ya se uso con otros datos", HttpStatus.UNPROCESSABLE_ENTITY);
 
 
     private final int code;
@@ -34,7 +34,7 @@ public class Logger {
     private String descripcion;
     private LocalDateTime fecha;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_padre")
     private Logger padre;
 
@@ -0,0 +1,72 @@
+package com.kevinolarte.resibenissa.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta guardada de una petición enviada con cabecera {@code Idempotency-Key}.
+ * <p>
+ * Si el cliente repite la petición con la misma clave (por ejemplo, al reintentar tras un corte de red),
+ * se devuelve esta respuesta sin volver a ejecutar la operación. La fila se inserta en la misma
+ * transacción que la operación, así que solo existe si la operación se completó. Caduca a las
+ * {@code idempotencia.ttl-horas} horas.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Entity
+@Getter
+@Setter
+@Table(
+        name = "peticiones_idempotentes",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"ambito", "clave"})
+        },
+        indexes = {
+                @Index(name = "idx_peticion_idempotente_expiracion", columnList = "fecha_expiracion")
+        }
+)
+public class PeticionIdempotente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Operación y usuario que envió la petición; la misma clave de otro usuario u otra operación es independiente.
+     */
+    @Column(nullable = false, length = 200)
+    private String ambito;
+
+    @Column(nullable = false, length = 100)
+    private String clave;
+
+    /**
+     * Hash SHA-256 de los parámetros de la petición, para detectar una clave reutilizada con otros datos.
+     */
+    @Column(nullable = false, length = 64)
+    private String huella;
+
+    @Column(name = "estado_http")
+    private int estadoHttp;
+
+    @Column(columnDefinition = "TEXT")
+    private String cuerpo;
+
+    @Column(name = "fecha_expiracion", nullable = false)
+    private LocalDateTime fechaExpiracion;
+
+    public PeticionIdempotente(String ambito, String clave, String huella, LocalDateTime fechaExpiracion) {
+        this.ambito = ambito;
+        this.clave = clave;
+        this.huella = huella;
+        this.fechaExpiracion = fechaExpiracion;
+    }
+
+    public PeticionIdempotente() {
+        // Constructor por defecto
+    }
+}
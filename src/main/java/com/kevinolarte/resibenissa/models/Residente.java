@@ -25,7 +25,9 @@ import java.util.Set;
  * @author Kevin Olarte
  */
 @Entity
-@Table(name = "residentes")
+@Table(name = "residentes", indexes = {
+        @Index(name = "idx_residente_residencia", columnList = "fk_residencia, baja")
+})
 @Getter
 @Setter
 public class Residente {
@@ -59,7 +61,7 @@ public class Residente {
      * Relación con la residencia donde vive este residente.
      * Múltiples residentes pueden estar en una misma residencia.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "fk_residencia", nullable = false)
     private Residencia residencia;
 
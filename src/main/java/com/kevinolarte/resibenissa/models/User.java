@@ -23,7 +23,9 @@ import java.util.*;
  * @author Kevin Olarte
  */
 @Entity
-@Table(name = "usuarios")
+@Table(name = "usuarios", indexes = {
+        @Index(name = "idx_usuario_residencia", columnList = "fk_residencia, baja")
+})
 @Setter
 @Getter
 public class User implements UserDetails {
@@ -85,7 +87,7 @@ public class User implements UserDetails {
      * Relación con la residencia a la que pertenece el usuario.
      * Varios usuarios pueden estar asociados a la misma residencia.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "fk_residencia", nullable = false)
     @JsonIgnore
     private Residencia residencia;
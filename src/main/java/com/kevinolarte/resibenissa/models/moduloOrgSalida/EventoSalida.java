@@ -6,6 +6,7 @@ import com.kevinolarte.resibenissa.enums.moduloOrgSalida.EstadoSalida;
 import com.kevinolarte.resibenissa.models.Residencia;
 import jakarta.persistence.*;
 import lombok.Getter;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.Setter;
 
 import java.time.LocalDate;
@@ -22,7 +23,13 @@ import java.util.Set;
  */
 
 @Entity
-@Table(name = "eventos")
+@Table(name = "eventos", indexes = {
+        @Index(name = "idx_evento_residencia_fecha", columnList = "fk_residencia, fecha_inicio"),
+        @Index(name = "idx_evento_estado_fecha", columnList = "estado, fecha_inicio"),
+        @Index(name = "idx_evento_residencia_rh", columnList = "fk_residencia, num_recursos_humanos"),
+        @Index(name = "idx_evento_residencia_rm", columnList = "fk_residencia, num_recursos_materiales")
+})
+@DynamicUpdate
 @Getter
 @Setter
 public class EventoSalida {
@@ -50,6 +57,14 @@ public class EventoSalida {
     @Column(nullable = false)
     private LocalDateTime fechaInicio;
 
+    /**
+     * Duración del evento en minutos (opcional).
+     * <p>
+     * Si es nula, se considera que el evento ocupa el día entero al comprobar si un residente
+     * tiene dos salidas a la vez.
+     */
+    private Integer duracionMinutos;
+
     /**
      * Estado actual del evento de salida.
      * <p>
@@ -70,11 +85,34 @@ public class EventoSalida {
     @JsonIgnore
     private Set<Participante> participantes = new LinkedHashSet<>();
 
+    /**
+     * Número de participantes del evento.
+     * <p>
+     * Contadores desnormalizados: los mantiene {@code ParticipanteService} en la misma transacción
+     * que cada alta, baja o cambio de recursos de un participante, mediante actualizaciones atómicas
+     * en base de datos. Por eso la entidad usa {@link DynamicUpdate}, para que guardar el evento
+     * no sobrescriba los contadores con valores leídos antes.
+     */
+    @Column(nullable = false)
+    private int numParticipantes;
+
+    /**
+     * Número de participantes que requieren recursos humanos.
+     */
+    @Column(nullable = false)
+    private int numRecursosHumanos;
+
+    /**
+     * Número de participantes que requieren recursos materiales.
+     */
+    @Column(nullable = false)
+    private int numRecursosMateriales;
+
     /**
      * Relación con la residencia donde pueden tener varias salidas.
      * Múltiples Eventos pueden estar en una misma residencia.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "fk_residencia")
     private Residencia residencia;
 
@@ -82,6 +120,7 @@ public class EventoSalida {
         this.nombre = e.getNombre();
         this.descripcion = e.getDescripcion();
         this.fechaInicio = e.getFecha();
+        this.duracionMinutos = e.getDuracionMinutos();
         this.estado = EstadoSalida.ABIERTO;
     }
     public EventoSalida() {}
@@ -27,6 +27,9 @@ import java.time.LocalDateTime;
         name = "participantes",
         uniqueConstraints = {
                 @UniqueConstraint(columnNames = {"fk_evento", "fk_residente"})
+        },
+        indexes = {
+                @Index(name = "idx_participante_residente", columnList = "fk_residente")
         }
 )
 public class Participante {
@@ -41,7 +44,7 @@ public class Participante {
      * Relación muchos-a-uno con {@link EventoSalida}.
      * Esta relación es ignorada en la serialización JSON para evitar bucles.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "fk_evento", nullable = false)
     @JsonIgnore
     private EventoSalida evento;
@@ -52,7 +55,7 @@ public class Participante {
      * Relación muchos-a-uno con {@link Residente}.
      * Esta relación es ignorada en la serialización JSON para evitar bucles.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "fk_residente", nullable = false)
     @JsonIgnore
     private Residente residente;
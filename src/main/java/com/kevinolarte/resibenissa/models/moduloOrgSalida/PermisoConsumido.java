@@ -0,0 +1,80 @@
+package com.kevinolarte.resibenissa.models.moduloOrgSalida;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de un token de permiso ya utilizado desde el enlace público del correo.
+ * <p>
+ * Los tokens de permitir/denegar son de un solo uso: la primera respuesta queda guardada aquí
+ * y las siguientes se rechazan. Se identifica por la firma del token, que es única y compacta,
+ * y se conserva solo hasta que el token caduca.
+ * <p>
+ * Implementa {@link Persistable} para que guardarlo sea siempre un {@code INSERT}: si dos
+ * respuestas llegan a la vez, la segunda falla por clave duplicada en lugar de sobrescribir a la primera.
+ *
+ * @author Kevin Olarte
+ */
+@Entity
+@Getter
+@Setter
+@Table(
+        name = "permisos_consumidos",
+        indexes = {
+                @Index(name = "idx_permisos_consumidos_expiracion", columnList = "fecha_expiracion")
+        }
+)
+public class PermisoConsumido implements Persistable<String> {
+
+    /**
+     * Firma del token JWT (última parte del token).
+     */
+    @Id
+    @Column(length = 128)
+    private String firma;
+
+    /**
+     * {@code true} si la respuesta fue permitir la asistencia, {@code false} si fue denegarla.
+     */
+    private boolean permitido;
+
+    @Column(name = "fecha_expiracion", nullable = false)
+    private LocalDateTime fechaExpiracion;
+
+    @Column(name = "fecha_consumo", nullable = false)
+    private LocalDateTime fechaConsumo;
+
+    @Transient
+    private boolean nuevo = true;
+
+    public PermisoConsumido(String firma, boolean permitido, LocalDateTime fechaExpiracion) {
+        this.firma = firma;
+        this.permitido = permitido;
+        this.fechaExpiracion = fechaExpiracion;
+        this.fechaConsumo = LocalDateTime.now();
+    }
+
+    public PermisoConsumido() {
+
+    }
+
+    @Override
+    public String getId() {
+        return firma;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nuevo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarExistente() {
+        this.nuevo = false;
+    }
+}
@@ -0,0 +1,104 @@
+package com.kevinolarte.resibenissa.models.moduloReporting;
+
+import com.kevinolarte.resibenissa.enums.moduloReporting.EstadoEmail;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Correo electrónico pendiente de envío (patrón transactional outbox).
+ * <p>
+ * Los servicios de negocio guardan aquí el correo dentro de la misma transacción que el cambio
+ * que lo origina, y un proceso en segundo plano se encarga de enviarlo por SMTP. De este modo
+ * la latencia de la API no depende del servidor de correo.
+ *
+ * @author Kevin Olarte
+ */
+@Entity
+@Table(
+        name = "email_outbox",
+        indexes = {
+                @Index(name = "idx_email_outbox_estado_siguiente", columnList = "estado, siguiente_intento"),
+                @Index(name = "idx_email_outbox_lote", columnList = "lote"),
+                @Index(name = "idx_email_outbox_estado_destinatario", columnList = "estado, destinatario")
+        }
+)
+@Getter
+@Setter
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String destinatario;
+
+    @Column(nullable = false)
+    private String asunto;
+
+    /**
+     * Cuerpo del mensaje en formato HTML.
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String cuerpo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EstadoEmail estado;
+
+    /**
+     * Número de intentos de envío realizados.
+     */
+    private int intentos;
+
+    /**
+     * Momento a partir del cual el correo puede volver a intentarse.
+     */
+    @Column(name = "siguiente_intento", nullable = false)
+    private LocalDateTime siguienteIntento;
+
+    /**
+     * Momento en el que un worker reclamó el correo. Sirve para liberar correos
+     * que quedaron bloqueados si la aplicación se detuvo a mitad de un envío.
+     */
+    @Column(name = "fecha_bloqueo")
+    private LocalDateTime fechaBloqueo;
+
+    /**
+     * Identificador opcional del envío masivo al que pertenece el correo,
+     * para poder consultar el estado de todos sus destinatarios.
+     */
+    private String lote;
+
+    /**
+     * ID del correo de resumen en el que se incluyó este correo (solo en estado {@link EstadoEmail#RESUMIDO}).
+     */
+    @Column(name = "id_resumen")
+    private Long resumen;
+
+    @Column(name = "ultimo_error", length = 1000)
+    private String ultimoError;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_envio")
+    private LocalDateTime fechaEnvio;
+
+    public EmailOutbox(String destinatario, String asunto, String cuerpo) {
+        this.destinatario = destinatario;
+        this.asunto = asunto;
+        this.cuerpo = cuerpo;
+        this.estado = EstadoEmail.PENDIENTE;
+        this.intentos = 0;
+        this.fechaCreacion = LocalDateTime.now();
+        this.siguienteIntento = this.fechaCreacion;
+    }
+
+    public EmailOutbox() {
+
+    }
+}
@@ -0,0 +1,57 @@
+package com.kevinolarte.resibenissa.models.moduloWallet;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Saldo de una wallet en un momento concreto (checkpoint del libro de movimientos).
+ * <p>
+ * {@link #saldoCentimos} es la suma de todos los movimientos de la wallet con fecha anterior a {@link #fecha}.
+ * Para conocer el saldo en cualquier momento basta con el checkpoint anterior más los movimientos
+ * posteriores a él, sin recorrer todo el historial. Los checkpoints se generan a diario para los días
+ * con movimientos y nunca se modifican, porque los movimientos siempre se registran con la fecha actual.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Entity
+@Getter
+@Setter
+@Table(
+        name = "checkpoints_wallet",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"fk_wallet", "fecha"})
+        }
+)
+public class CheckpointWallet {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "fk_wallet", nullable = false)
+    private Wallet wallet;
+
+    /**
+     * Momento del checkpoint (inicio de un día). El saldo incluye los movimientos anteriores a este momento.
+     */
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    @Column(name = "saldo_centimos", nullable = false)
+    private long saldoCentimos;
+
+    public CheckpointWallet(Wallet wallet, LocalDateTime fecha, long saldoCentimos) {
+        this.wallet = wallet;
+        this.fecha = fecha;
+        this.saldoCentimos = saldoCentimos;
+    }
+
+    public CheckpointWallet() {
+        // Constructor por defecto
+    }
+}
@@ -0,0 +1,68 @@
+package com.kevinolarte.resibenissa.models.moduloWallet;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Contador guardado de los conceptos de gasto más frecuentes o más caros de una residencia.
+ * <p>
+ * Es la copia persistente de los contadores en memoria de {@code WalletAnaliticaService}, para que no
+ * se pierdan al reiniciar. Por cada residencia y métrica hay como mucho
+ * {@code wallet.analitica.conceptos-max} filas.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Entity
+@Getter
+@Setter
+@Table(
+        name = "conceptos_top_wallet",
+        indexes = {
+                @Index(name = "idx_conceptos_top_residencia", columnList = "id_residencia")
+        }
+)
+public class ConceptoTopWallet {
+
+    /**
+     * Contador por número de gastos.
+     */
+    public static final String METRICA_FRECUENCIA = "FRECUENCIA";
+    /**
+     * Contador por importe total gastado, en céntimos.
+     */
+    public static final String METRICA_IMPORTE = "IMPORTE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_residencia", nullable = false)
+    private Long idResidencia;
+
+    @Column(nullable = false, length = 20)
+    private String metrica;
+
+    @Column(nullable = false)
+    private String concepto;
+
+    private long valor;
+
+    /**
+     * Sobreestimación máxima de {@link #valor}.
+     */
+    private long error;
+
+    public ConceptoTopWallet(Long idResidencia, String metrica, String concepto, long valor, long error) {
+        this.idResidencia = idResidencia;
+        this.metrica = metrica;
+        this.concepto = concepto;
+        this.valor = valor;
+        this.error = error;
+    }
+
+    public ConceptoTopWallet() {
+        // Constructor por defecto
+    }
+}
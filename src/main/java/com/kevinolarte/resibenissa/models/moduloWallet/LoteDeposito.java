@@ -0,0 +1,62 @@
+package com.kevinolarte.resibenissa.models.moduloWallet;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de un depósito en bloque ya aplicado en las wallets de una residencia.
+ * <p>
+ * La clave la envía el cliente y es única por residencia: si la misma petición se repite
+ * (por ejemplo, tras un timeout) se devuelve este registro en lugar de depositar otra vez.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Entity
+@Getter
+@Setter
+@Table(
+        name = "lotes_deposito",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"id_residencia", "clave"})
+        }
+)
+public class LoteDeposito {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_residencia", nullable = false)
+    private Long idResidencia;
+
+    @Column(nullable = false, length = 100)
+    private String clave;
+
+    private String concepto;
+
+    @Column(name = "numero_depositos")
+    private int numeroDepositos;
+
+    @Column(name = "wallets_creadas")
+    private int walletsCreadas;
+
+    @Column(name = "total_centimos")
+    private long totalCentimos;
+
+    private LocalDateTime fecha;
+
+    public LoteDeposito(Long idResidencia, String clave, String concepto) {
+        this.idResidencia = idResidencia;
+        this.clave = clave;
+        this.concepto = concepto;
+        this.fecha = LocalDateTime.now();
+    }
+
+    public LoteDeposito() {
+        // Constructor por defecto
+    }
+}
@@ -10,16 +10,23 @@ import java.time.LocalDateTime;
 @Entity
 @Setter
 @Getter
+@Table(indexes = {
+        @Index(name = "idx_movimiento_wallet_fecha", columnList = "fk_wallet, fecha, id")
+})
 public class MovimientoWallet {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "fk_wallet", nullable = false)
     private Wallet wallet;
 
-    private Double cantidad;
+    /**
+     * Cantidad del movimiento en céntimos (siempre positiva; el signo lo indica {@link #tipo}).
+     */
+    @Column(name = "cantidad_centimos", nullable = false)
+    private long cantidadCentimos;
 
     @Enumerated(EnumType.STRING)
     private TipoMovimiento tipo; // IN / OUT
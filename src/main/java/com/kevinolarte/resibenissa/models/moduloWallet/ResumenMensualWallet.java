@@ -0,0 +1,61 @@
+package com.kevinolarte.resibenissa.models.moduloWallet;
+
+import com.kevinolarte.resibenissa.enums.moduloWallet.TipoMovimiento;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Totales mensuales de una wallet por tipo de movimiento.
+ * <p>
+ * Se actualiza en cada depósito o retirada con un {@code upsert} atómico, de modo que las consultas
+ * de analítica (por residente o, sumando sus filas, por residencia) no recorren los movimientos.
+ * Guarda el ID de la residencia para poder agregar por residencia con el índice correspondiente.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Entity
+@Getter
+@Setter
+@Table(
+        name = "resumenes_mensuales_wallet",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"id_wallet", "anio", "mes", "tipo"})
+        },
+        indexes = {
+                @Index(name = "idx_resumen_mensual_residencia", columnList = "id_residencia, anio, mes")
+        }
+)
+public class ResumenMensualWallet {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_wallet", nullable = false)
+    private Long idWallet;
+
+    @Column(name = "id_residencia", nullable = false)
+    private Long idResidencia;
+
+    @Column(nullable = false)
+    private int anio;
+
+    @Column(nullable = false)
+    private int mes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TipoMovimiento tipo;
+
+    @Column(name = "numero_movimientos", nullable = false)
+    private long numeroMovimientos;
+
+    @Column(name = "total_centimos", nullable = false)
+    private long totalCentimos;
+
+    public ResumenMensualWallet() {
+        // Constructor por defecto
+    }
+}
@@ -22,10 +22,25 @@ public class Wallet {
     @JoinColumn(name = "fk_residente", unique = true)
     private Residente residente;
 
-    private Double saldoTotal;
+    /**
+     * Saldo actual en céntimos. Se guarda como entero para evitar errores de redondeo y
+     * solo se modifica con actualizaciones atómicas en base de datos
+     * ({@code WalletRepository#depositar} y {@code WalletRepository#retirar}).
+     */
+    @Column(name = "saldo_centimos", nullable = false)
+    private long saldoCentimos;
+
+    /**
+     * Versión de la wallet. Se incrementa con cada depósito o retirada, de modo que
+     * un informe generado para una versión sigue siendo válido mientras no cambie.
+     */
+    private long version;
 
     @OneToMany(mappedBy = "wallet", cascade = CascadeType.ALL)
     private Set<MovimientoWallet> movimientos = new LinkedHashSet<>();
+
+    @OneToMany(mappedBy = "wallet", cascade = CascadeType.REMOVE)
+    private Set<CheckpointWallet> checkpoints = new LinkedHashSet<>();
     public Wallet() {
         // Constructor por defecto
     }
@@ -20,7 +20,14 @@ import java.time.LocalDateTime;
  * @author Kevin Olarte
  */
 @Entity
-@Table(name = "registros_juegos")
+@Table(
+        name = "registros_juegos",
+        indexes = {
+                @Index(name = "idx_registro_juego_juego", columnList = "fk_juego"),
+                @Index(name = "idx_registro_juego_residente", columnList = "fk_residente"),
+                @Index(name = "idx_registro_juego_usuario", columnList = "fk_usuario")
+        }
+)
 @Getter
 @Setter
 public class RegistroJuego {
@@ -32,21 +39,21 @@ public class RegistroJuego {
     /**
      * Residente que ha jugado.
      */
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "fk_residente")
     private Residente residente;
 
     /**
      * Juego que fue utilizado.
      */
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "fk_juego")
     private Juego juego;
 
     /**
      * Trabajador que registra la partida.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "fk_usuario")
     private User usuario;
 
@@ -0,0 +1,47 @@
+package com.kevinolarte.resibenissa.repositories;
+
+import com.kevinolarte.resibenissa.models.PeticionIdempotente;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repositorio de las respuestas guardadas de peticiones idempotentes ({@link PeticionIdempotente}).
+ *
+ * @author Kevin Olarte
+ */
+@Repository
+public interface PeticionIdempotenteRepository extends JpaRepository<PeticionIdempotente, Long> {
+
+    Optional<PeticionIdempotente> findByAmbitoAndClave(String ambito, String clave);
+
+    /**
+     * Elimina las respuestas guardadas ya caducadas.
+     *
+     * @param ahora Momento de referencia.
+     * @return Número de registros eliminados.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PeticionIdempotente p WHERE p.fechaExpiracion <= :ahora")
+    int deleteCaducadas(@Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Elimina la respuesta guardada de una clave si ya ha caducado, para poder reutilizar la clave.
+     *
+     * @param ambito Operación y usuario de la petición.
+     * @param clave Clave de idempotencia.
+     * @param ahora Momento de referencia.
+     * @return Número de registros eliminados.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PeticionIdempotente p WHERE p.ambito = :ambito AND p.clave = :clave AND p.fechaExpiracion <= :ahora")
+    int deleteCaducada(@Param("ambito") String ambito, @Param("clave") String clave, @Param("ahora") LocalDateTime ahora);
+}
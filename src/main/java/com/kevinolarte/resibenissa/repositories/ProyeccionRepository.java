@@ -0,0 +1,65 @@
+package com.kevinolarte.resibenissa.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Repositorio de solo lectura para listados que devuelven DTOs directamente.
+ * <p>
+ * Aplica las mismas {@link Specification} que los repositorios de entidades, pero selecciona solo las
+ * columnas del DTO y lo construye en la propia consulta ({@code SELECT new ...}). No se crean entidades
+ * gestionadas ni copias para el dirty checking, y no se cargan asociaciones.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Repository
+public class ProyeccionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Lista los DTOs de las entidades que cumplen una especificación.
+     *
+     * @param entidad Clase de la entidad consultada.
+     * @param spec Filtros (opcional).
+     * @param sort Orden (opcional); las propiedades ordenadas deben estar entre las columnas seleccionadas
+     *             si la especificación usa {@code DISTINCT}.
+     * @param dto Clase del DTO, con un constructor que recibe las columnas en el mismo orden.
+     * @param columnas Columnas a seleccionar a partir de la raíz de la consulta.
+     * @param <E> Tipo de la entidad.
+     * @param <D> Tipo del DTO.
+     * @return DTOs, no gestionados por el contexto de persistencia.
+     */
+    public <E, D> List<D> findAll(Class<E> entidad, Specification<E> spec, Sort sort, Class<D> dto,
+                                  Function<Root<E>, List<Selection<?>>> columnas) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<D> query = cb.createQuery(dto);
+        Root<E> root = query.from(entidad);
+        query.select(cb.construct(dto, columnas.apply(root).toArray(new Selection<?>[0])));
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+}
@@ -1,10 +1,14 @@
 package com.kevinolarte.resibenissa.repositories;
 
+import com.kevinolarte.resibenissa.dto.out.ResidenciaResponseDto;
 import com.kevinolarte.resibenissa.models.Residencia;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -43,4 +47,24 @@ public interface ResidenciaRepository extends JpaRepository<Residencia, Long> {
      * @return Lista de residencias que tienen el campo baja en true.
      */
     List<Residencia> findByBajaTrue();
+
+    /**
+     * Obtiene los datos de una residencia con el número de residentes activos y de baja,
+     * de usuarios activos y de eventos que aún no han empezado, en una sola consulta.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param ahora Momento a partir del cual un evento se considera próximo.
+     * @return La residencia con sus totales, si existe.
+     */
+    @Query("""
+        SELECT new com.kevinolarte.resibenissa.dto.out.ResidenciaResponseDto(
+            r.id, r.nombre, r.email,
+            (SELECT COUNT(x) FROM Residente x WHERE x.residencia.id = r.id AND x.baja = false),
+            (SELECT COUNT(x) FROM Residente x WHERE x.residencia.id = r.id AND x.baja = true),
+            (SELECT COUNT(u) FROM User u WHERE u.residencia.id = r.id AND u.baja = false),
+            (SELECT COUNT(e) FROM EventoSalida e WHERE e.residencia.id = r.id AND e.fechaInicio >= :ahora))
+        FROM Residencia r
+        WHERE r.id = :idResidencia
+    """)
+    Optional<ResidenciaResponseDto> findResumenById(@Param("idResidencia") Long idResidencia, @Param("ahora") LocalDateTime ahora);
 }
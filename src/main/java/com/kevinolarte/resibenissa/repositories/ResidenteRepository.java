@@ -1,13 +1,21 @@
 package com.kevinolarte.resibenissa.repositories;
 
+import com.kevinolarte.resibenissa.dto.out.ResidenteResponseDto;
 import com.kevinolarte.resibenissa.models.Residencia;
 import com.kevinolarte.resibenissa.models.Residente;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para acceder y gestionar entidades {@link Residente}.
@@ -19,6 +27,23 @@ import java.util.List;
 @Repository
 public interface ResidenteRepository extends JpaRepository<Residente, Long>, JpaSpecificationExecutor<Residente>{
 
+    /**
+     * Obtiene una página de los residentes de una residencia, activos o de baja, ordenados por ID.
+     * @param idResidencia ID de la residencia.
+     * @param baja {@code true} para los residentes de baja, {@code false} para los activos.
+     * @param pageable Página a obtener.
+     * @return Residentes de la página.
+     */
+    @Query("""
+        SELECT new com.kevinolarte.resibenissa.dto.out.ResidenteResponseDto(
+            r.id, r.nombre, r.apellido, r.fechaNacimiento, r.docuemntoIdentidad,
+            r.familiar1, r.familiar2, r.residencia.id, r.baja)
+        FROM Residente r
+        WHERE r.residencia.id = :idResidencia AND r.baja = :baja
+        ORDER BY r.id
+    """)
+    List<ResidenteResponseDto> findPaginaByResidenciaId(@Param("idResidencia") Long idResidencia, @Param("baja") boolean baja, Pageable pageable);
+
 
     /**
      * Busca residentes por su documento de identidad.
@@ -27,4 +52,50 @@ public interface ResidenteRepository extends JpaRepository<Residente, Long>, Jpa
      */
     Residente findByDocuemntoIdentidad(String docuemntoIdentidad);
 
+    /**
+     * Obtiene los residentes activos de una residencia junto con su wallet (si la tienen) en una sola consulta.
+     * @param idResidencia ID de la residencia.
+     * @return Residentes activos ordenados por ID.
+     */
+    @Query("""
+        SELECT r FROM Residente r
+        LEFT JOIN FETCH r.wallet
+        WHERE r.residencia.id = :idResidencia AND r.baja = false
+        ORDER BY r.id
+    """)
+    List<Residente> findAllConWalletByResidenciaId(@Param("idResidencia") Long idResidencia);
+
+    /**
+     * Obtiene los residentes indicados de una residencia junto con su wallet (si la tienen) en una sola consulta.
+     * Los IDs que no existan o sean de otra residencia no se devuelven.
+     * @param idResidencia ID de la residencia.
+     * @param ids IDs de los residentes.
+     * @return Residentes encontrados.
+     */
+    @Query("""
+        SELECT r FROM Residente r
+        LEFT JOIN FETCH r.wallet
+        WHERE r.residencia.id = :idResidencia AND r.id IN :ids
+    """)
+    List<Residente> findAllConWalletByResidenciaIdAndIdIn(@Param("idResidencia") Long idResidencia,
+                                                          @Param("ids") Collection<Long> ids);
+
+    /**
+     * Obtiene la residencia de un residente sin cargar la entidad.
+     *
+     * @param idResidente ID del residente.
+     * @return ID de la residencia, o vacío si el residente no existe.
+     */
+    @Query("SELECT r.residencia.id FROM Residente r WHERE r.id = :idResidente")
+    Optional<Long> findIdResidenciaById(@Param("idResidente") Long idResidente);
+
+    /**
+     * Elimina un residente sin cargarlo. Sus registros, participaciones y wallet deben haberse eliminado antes.
+     *
+     * @param idResidente ID del residente.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Residente r WHERE r.id = :idResidente")
+    void deleteSinCascadaById(@Param("idResidente") Long idResidente);
 }
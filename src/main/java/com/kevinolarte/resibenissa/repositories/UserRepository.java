@@ -1,8 +1,12 @@
 package com.kevinolarte.resibenissa.repositories;
 
+import com.kevinolarte.resibenissa.dto.out.UserResponseDto;
 import com.kevinolarte.resibenissa.models.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -26,5 +30,23 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
      */
     User findByEmail(String email);
 
+    /**
+     * Obtiene una página de los usuarios de una residencia, activos o de baja, ordenados por ID.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param baja {@code true} para los usuarios de baja, {@code false} para los activos.
+     * @param pageable Página a obtener.
+     * @return Usuarios de la página.
+     */
+    @Query("""
+        SELECT new com.kevinolarte.resibenissa.dto.out.UserResponseDto(
+            u.id, u.nombre, u.apellido, u.email, u.enabled, u.residencia.id,
+            u.fotoPerfil, u.verificationCode, u.baja)
+        FROM User u
+        WHERE u.residencia.id = :idResidencia AND u.baja = :baja
+        ORDER BY u.id
+    """)
+    List<UserResponseDto> findPaginaByResidenciaId(@Param("idResidencia") Long idResidencia, @Param("baja") boolean baja, Pageable pageable);
+
 
 }
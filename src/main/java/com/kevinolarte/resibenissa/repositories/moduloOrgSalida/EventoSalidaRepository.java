@@ -3,6 +3,8 @@ package com.kevinolarte.resibenissa.repositories.moduloOrgSalida;
 import com.kevinolarte.resibenissa.enums.moduloOrgSalida.EstadoSalida;
 import com.kevinolarte.resibenissa.models.moduloOrgSalida.EventoSalida;
 import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
@@ -10,12 +12,23 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EventoSalidaRepository extends JpaRepository<EventoSalida, Long>, JpaSpecificationExecutor<EventoSalida> {
 
+    /**
+     * Lista eventos filtrados cargando sus participantes en la misma consulta,
+     * pues la respuesta incluye los IDs de los participantes de cada evento.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"participantes"})
+    List<EventoSalida> findAll(Specification<EventoSalida> spec);
+
     /**
      * Exsite un nombre igual en la misma residencia
      */
@@ -38,4 +51,125 @@ public interface EventoSalidaRepository extends JpaRepository<EventoSalida, Long
      * @return EventoSalida si se encuentra, null en caso contrario.
      */
     EventoSalida findByNombreAndResidencia_Id(String nombre, Long residenciaId);
+
+    /**
+     * Obtiene los eventos no finalizados que empiezan antes de una fecha, para planificar sus cambios de estado.
+     * @param limite Fecha de inicio máxima.
+     * @return Filas {@code [id, estado, fechaInicio, duracionMinutos]}.
+     */
+    @Query("""
+        SELECT e.id, e.estado, e.fechaInicio, e.duracionMinutos
+        FROM EventoSalida e
+        WHERE e.estado <> com.kevinolarte.resibenissa.enums.moduloOrgSalida.EstadoSalida.FINALIZADA
+          AND e.fechaInicio <= :limite
+    """)
+    List<Object[]> findPendientesHasta(@Param("limite") LocalDateTime limite);
+
+    /**
+     * Obtiene el estado y las fechas de varios eventos.
+     * @param ids IDs de los eventos.
+     * @return Filas {@code [id, estado, fechaInicio, duracionMinutos]}.
+     */
+    @Query("""
+        SELECT e.id, e.estado, e.fechaInicio, e.duracionMinutos
+        FROM EventoSalida e
+        WHERE e.id IN :ids
+    """)
+    List<Object[]> findEstadosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Cambia el estado de varios eventos, solo de los que sigan en el estado esperado.
+     * @param ids IDs de los eventos.
+     * @param desde Estado actual esperado.
+     * @param hasta Nuevo estado.
+     * @return Número de eventos cambiados.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EventoSalida e SET e.estado = :hasta WHERE e.id IN :ids AND e.estado = :desde")
+    int cambiarEstado(@Param("ids") Collection<Long> ids,
+                      @Param("desde") EstadoSalida desde,
+                      @Param("hasta") EstadoSalida hasta);
+
+    /**
+     * Suma (o resta) a los contadores de participantes y recursos de un evento.
+     * @param idEvento ID del evento de salida.
+     * @param participantes Variación del número de participantes.
+     * @param recursosHumanos Variación del número de participantes con recursos humanos.
+     * @param recursosMateriales Variación del número de participantes con recursos materiales.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE EventoSalida e
+        SET e.numParticipantes = e.numParticipantes + :participantes,
+            e.numRecursosHumanos = e.numRecursosHumanos + :recursosHumanos,
+            e.numRecursosMateriales = e.numRecursosMateriales + :recursosMateriales
+        WHERE e.id = :idEvento
+    """)
+    void ajustarContadores(@Param("idEvento") Long idEvento,
+                           @Param("participantes") int participantes,
+                           @Param("recursosHumanos") int recursosHumanos,
+                           @Param("recursosMateriales") int recursosMateriales);
+
+    /**
+     * Recalcula desde la tabla de participantes los contadores de los eventos indicados.
+     * @param idsEvento IDs de los eventos de salida.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE eventos e
+        SET num_participantes = c.total,
+            num_recursos_humanos = c.rh,
+            num_recursos_materiales = c.rm
+        FROM (
+            SELECT ev.id AS id,
+                   COUNT(p.id) AS total,
+                   COUNT(p.id) FILTER (WHERE p.recursos_humanos) AS rh,
+                   COUNT(p.id) FILTER (WHERE p.recursos_materiales) AS rm
+            FROM eventos ev
+            LEFT JOIN participantes p ON p.fk_evento = ev.id
+            WHERE ev.id IN (:idsEvento)
+            GROUP BY ev.id
+        ) c
+        WHERE e.id = c.id
+    """, nativeQuery = true)
+    void recalcularContadores(@Param("idsEvento") Collection<Long> idsEvento);
+
+    /**
+     * Corrige los contadores de todos los eventos que no coinciden con sus participantes.
+     * @return Número de eventos corregidos.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE eventos e
+        SET num_participantes = c.total,
+            num_recursos_humanos = c.rh,
+            num_recursos_materiales = c.rm
+        FROM (
+            SELECT ev.id AS id,
+                   COUNT(p.id) AS total,
+                   COUNT(p.id) FILTER (WHERE p.recursos_humanos) AS rh,
+                   COUNT(p.id) FILTER (WHERE p.recursos_materiales) AS rm
+            FROM eventos ev
+            LEFT JOIN participantes p ON p.fk_evento = ev.id
+            GROUP BY ev.id
+        ) c
+        WHERE e.id = c.id
+          AND (e.num_participantes <> c.total
+               OR e.num_recursos_humanos <> c.rh
+               OR e.num_recursos_materiales <> c.rm)
+    """, nativeQuery = true)
+    int repararContadores();
+
+    /**
+     * Obtiene la residencia de un evento sin cargar la entidad.
+     *
+     * @param idEvento ID del evento.
+     * @return ID de la residencia, o vacío si el evento no existe.
+     */
+    @Query("SELECT e.residencia.id FROM EventoSalida e WHERE e.id = :idEvento")
+    Optional<Long> findIdResidenciaById(@Param("idEvento") Long idEvento);
 }
@@ -12,34 +12,14 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ParticipanteRepository extends JpaRepository<Participante, Long>, JpaSpecificationExecutor<Participante> {
 
-    /**
-     * Verifica si un residente esta inscrito el otro evento a partir del idEvento
-     * @param idResidente ID del residente
-     * @param idEvento ID del evento actual
-     * @return true si el residente está inscrito en otro evento el mismo día, false en caso contrario
-     */
-    @Query("""
-        SELECT COUNT(p) > 0
-        FROM Participante p
-        WHERE p.residente.id = :idResidente
-          AND p.evento.fechaInicio = (
-              SELECT s.fechaInicio
-              FROM EventoSalida s
-              WHERE s.id = :idEvento
-          )
-          AND p.evento.id <> :idEvento
-    """)
-    boolean existsByResidenteInOtherEventoSameDay(
-            @Param("idResidente") Long idResidente,
-            @Param("idEvento") Long idEvento
-    );
-
-
     /**
      * Verifica si un residente está inscrito en un evento específico.
      *
@@ -56,6 +36,55 @@ public interface ParticipanteRepository extends JpaRepository<Participante, Long
 """)
     boolean isResidenteInscritoEnEvento(Long idResidente, Long idEvento);
 
+    /**
+     * Obtiene, de entre los residentes indicados, los que ya están inscritos en un evento.
+     *
+     * @param idEvento ID del evento.
+     * @param idsResidente IDs de los residentes a comprobar.
+     * @return IDs de los residentes ya inscritos.
+     */
+    @Query("""
+    SELECT p.residente.id
+    FROM Participante p
+    WHERE p.evento.id = :idEvento
+      AND p.residente.id IN :idsResidente
+""")
+    List<Long> findIdsResidenteInscritos(@Param("idEvento") Long idEvento,
+                                         @Param("idsResidente") Collection<Long> idsResidente);
+
+    /**
+     * Obtiene las franjas de los eventos en los que están inscritos los residentes indicados.
+     *
+     * @param idsResidente IDs de los residentes.
+     * @param desde Solo se devuelven eventos que empiecen a partir de esta fecha.
+     * @return Filas {@code [idResidente, idEvento, fechaInicio, duracionMinutos]}.
+     */
+    @Query("""
+    SELECT p.residente.id, e.id, e.fechaInicio, e.duracionMinutos
+    FROM Participante p
+    JOIN p.evento e
+    WHERE p.residente.id IN :idsResidente
+      AND p.baja = false
+      AND e.fechaInicio >= :desde
+""")
+    List<Object[]> findFranjasByResidenteIdIn(@Param("idsResidente") Collection<Long> idsResidente,
+                                             @Param("desde") LocalDateTime desde);
+
+    /**
+     * Obtiene los participantes activos de un evento junto con su residente, en una sola consulta.
+     *
+     * @param idEvento ID del evento.
+     * @return Lista de participantes con el residente ya cargado.
+     */
+    @Query("""
+    SELECT p
+    FROM Participante p
+    JOIN FETCH p.residente
+    WHERE p.evento.id = :idEvento
+      AND p.baja = false
+""")
+    List<Participante> findAllByEventoIdConResidente(@Param("idEvento") Long idEvento);
+
     /**
      * Elimina todos los participantes asociados a una residencia específica.
      *
@@ -66,5 +95,51 @@ public interface ParticipanteRepository extends JpaRepository<Participante, Long
     @Query("DELETE FROM Participante p WHERE p.residente.residencia.id = :idResidencia")
     void deleteAllByResidenciaId(@Param("idResidencia") Long idResidencia);
 
+    /**
+     * Obtiene el evento de un participante sin cargar la entidad.
+     *
+     * @param idParticipante ID del participante.
+     * @return ID del evento, o vacío si el participante no existe.
+     */
+    @Query("SELECT p.evento.id FROM Participante p WHERE p.id = :idParticipante")
+    Optional<Long> findIdEventoById(@Param("idParticipante") Long idParticipante);
+
+    /**
+     * Obtiene los eventos en los que participa un residente.
+     *
+     * @param idResidente ID del residente.
+     * @return IDs de los eventos, sin repetir.
+     */
+    @Query("SELECT DISTINCT p.evento.id FROM Participante p WHERE p.residente.id = :idResidente")
+    List<Long> findIdsEventoByResidenteId(@Param("idResidente") Long idResidente);
+
+    /**
+     * Elimina un lote de participaciones de un residente.
+     *
+     * @param idResidente ID del residente.
+     * @param limite Máximo de participaciones a eliminar.
+     * @return Número de participaciones eliminadas; si es menor que {@code limite}, no quedan más.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        DELETE FROM participantes
+        WHERE id IN (SELECT id FROM participantes WHERE fk_residente = :idResidente LIMIT :limite)
+    """, nativeQuery = true)
+    int deleteLoteByResidenteId(@Param("idResidente") Long idResidente, @Param("limite") int limite);
 
-}
\ No newline at end of file
+    /**
+     * Obtiene los campos modificables de varios participantes de un evento, sin cargar las entidades.
+     *
+     * @param idEvento ID del evento.
+     * @param ids IDs de los participantes; los que no son del evento no se devuelven.
+     * @return Filas {@code [id, recursosHumanos, recursosMateriales, asistenciaPermitida, preOpinion, postOpinion]}.
+     */
+    @Query("""
+    SELECT p.id, p.recursosHumanos, p.recursosMateriales, p.asistenciaPermitida, p.preOpinion, p.postOpinion
+    FROM Participante p
+    WHERE p.evento.id = :idEvento
+      AND p.id IN :ids
+""")
+    List<Object[]> findCamposByEventoIdAndIdIn(@Param("idEvento") Long idEvento, @Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,41 @@
+package com.kevinolarte.resibenissa.repositories.moduloOrgSalida;
+
+import com.kevinolarte.resibenissa.models.moduloOrgSalida.PermisoConsumido;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de los tokens de permiso ya utilizados ({@link PermisoConsumido}).
+ *
+ * @author Kevin Olarte
+ */
+@Repository
+public interface PermisoConsumidoRepository extends JpaRepository<PermisoConsumido, String> {
+
+    /**
+     * Obtiene los tokens consumidos que aún no han caducado.
+     *
+     * @param ahora Momento de referencia.
+     * @return Tokens consumidos vigentes.
+     */
+    List<PermisoConsumido> findByFechaExpiracionAfter(LocalDateTime ahora);
+
+    /**
+     * Elimina los tokens consumidos que ya han caducado, pues un token caducado
+     * se rechaza igualmente al verificar su firma.
+     *
+     * @param ahora Momento de referencia.
+     * @return Número de registros eliminados.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PermisoConsumido p WHERE p.fechaExpiracion <= :ahora")
+    int deleteCaducados(@Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,159 @@
+package com.kevinolarte.resibenissa.repositories.moduloReporting;
+
+import com.kevinolarte.resibenissa.enums.moduloReporting.EstadoEmail;
+import com.kevinolarte.resibenissa.models.moduloReporting.EmailOutbox;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de la bandeja de salida de correos ({@link EmailOutbox}).
+ *
+ * @author Kevin Olarte
+ */
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Obtiene los correos en un estado concreto cuyo siguiente intento ya ha vencido,
+     * ordenados del más antiguo al más reciente.
+     *
+     * @param estado Estado de los correos a buscar.
+     * @param ahora Momento de referencia.
+     * @param pageable Límite de correos a devolver.
+     * @return Lista de correos listos para enviarse.
+     */
+    List<EmailOutbox> findByEstadoAndSiguienteIntentoLessThanEqualOrderBySiguienteIntentoAsc(EstadoEmail estado, LocalDateTime ahora, Pageable pageable);
+
+    /**
+     * Reclama un correo pendiente para enviarlo. Solo tiene efecto si el correo sigue pendiente,
+     * por lo que dos workers no pueden reclamar el mismo correo.
+     *
+     * @param id ID del correo.
+     * @param pendiente Estado pendiente.
+     * @param enviando Estado de envío en curso.
+     * @param ahora Momento del bloqueo.
+     * @return 1 si el correo se ha reclamado, 0 en caso contrario.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE EmailOutbox e
+        SET e.estado = :enviando, e.fechaBloqueo = :ahora
+        WHERE e.id = :id AND e.estado = :pendiente
+    """)
+    int reclamar(@Param("id") Long id,
+                 @Param("pendiente") EstadoEmail pendiente,
+                 @Param("enviando") EstadoEmail enviando,
+                 @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Devuelve a pendiente los correos que llevan demasiado tiempo en envío
+     * (por ejemplo, tras un reinicio de la aplicación a mitad de envío).
+     *
+     * @param enviando Estado de envío en curso.
+     * @param pendiente Estado pendiente.
+     * @param limite Correos bloqueados antes de este momento se liberan.
+     * @return Número de correos liberados.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE EmailOutbox e
+        SET e.estado = :pendiente, e.fechaBloqueo = null
+        WHERE e.estado = :enviando AND e.fechaBloqueo < :limite
+    """)
+    int liberarBloqueados(@Param("enviando") EstadoEmail enviando,
+                          @Param("pendiente") EstadoEmail pendiente,
+                          @Param("limite") LocalDateTime limite);
+
+    /**
+     * Obtiene los correos de un envío masivo.
+     *
+     * @param lote Identificador del envío.
+     * @return Correos del envío, en orden de creación.
+     */
+    List<EmailOutbox> findByLoteOrderByIdAsc(String lote);
+
+    /**
+     * Obtiene los destinatarios con correos agrupados cuyo correo más antiguo es anterior al límite,
+     * es decir, aquellos cuya ventana de resumen ya ha terminado.
+     *
+     * @param agrupado Estado de los correos en espera de resumen.
+     * @param limite Momento límite de la ventana.
+     * @return Direcciones de correo con un resumen pendiente de generar.
+     */
+    @Query("""
+        SELECT e.destinatario FROM EmailOutbox e
+        WHERE e.estado = :agrupado
+        GROUP BY e.destinatario
+        HAVING MIN(e.fechaCreacion) <= :limite
+    """)
+    List<String> findDestinatariosConResumenVencido(@Param("agrupado") EstadoEmail agrupado,
+                                                    @Param("limite") LocalDateTime limite);
+
+    /**
+     * Obtiene los correos de un destinatario en un estado concreto, en orden de creación.
+     *
+     * @param destinatario Dirección de correo.
+     * @param estado Estado de los correos.
+     * @return Correos encontrados.
+     */
+    List<EmailOutbox> findByDestinatarioAndEstadoOrderByIdAsc(String destinatario, EstadoEmail estado);
+
+    /**
+     * Devuelve a pendientes todos los correos agrupados de un destinatario, para que se envíen por separado.
+     *
+     * @param destinatario Dirección de correo.
+     * @param agrupado Estado de espera de resumen.
+     * @param pendiente Estado pendiente de envío.
+     * @param error Motivo por el que no se ha podido generar el resumen.
+     * @return Número de correos liberados.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE EmailOutbox e
+        SET e.estado = :pendiente, e.ultimoError = :error
+        WHERE e.destinatario = :destinatario AND e.estado = :agrupado
+    """)
+    int liberarAgrupados(@Param("destinatario") String destinatario,
+                         @Param("agrupado") EstadoEmail agrupado,
+                         @Param("pendiente") EstadoEmail pendiente,
+                         @Param("error") String error);
+
+    /**
+     * Marca como resumidos los correos indicados que sigan agrupados.
+     *
+     * @param ids IDs de los correos incluidos en el resumen.
+     * @param idResumen ID del correo de resumen.
+     * @param agrupado Estado de espera de resumen.
+     * @param resumido Estado de correo incluido en un resumen.
+     * @return Número de correos actualizados.
+     */
+    @Modifying
+    @Query("""
+        UPDATE EmailOutbox e
+        SET e.estado = :resumido, e.resumen = :idResumen
+        WHERE e.id IN :ids AND e.estado = :agrupado
+    """)
+    int marcarResumidos(@Param("ids") List<Long> ids,
+                        @Param("idResumen") Long idResumen,
+                        @Param("agrupado") EstadoEmail agrupado,
+                        @Param("resumido") EstadoEmail resumido);
+
+    /**
+     * Cuenta los correos que hay en un estado.
+     *
+     * @param estado Estado a contar.
+     * @return Número de correos en ese estado.
+     */
+    long countByEstado(EstadoEmail estado);
+}
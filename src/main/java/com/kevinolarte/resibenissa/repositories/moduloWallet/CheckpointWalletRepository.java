@@ -0,0 +1,33 @@
+package com.kevinolarte.resibenissa.repositories.moduloWallet;
+
+import com.kevinolarte.resibenissa.models.moduloWallet.CheckpointWallet;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface CheckpointWalletRepository extends JpaRepository<CheckpointWallet, Long> {
+
+    /**
+     * Obtiene el checkpoint más reciente de una wallet que no sea posterior a una fecha.
+     *
+     * @param idWallet ID de la wallet.
+     * @param fecha Fecha límite (incluida).
+     * @return El checkpoint, si existe.
+     */
+    Optional<CheckpointWallet> findFirstByWalletIdAndFechaLessThanEqualOrderByFechaDesc(Long idWallet, LocalDateTime fecha);
+
+    /**
+     * Elimina los checkpoints de la wallet de un residente.
+     *
+     * @param idResidente ID del residente.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CheckpointWallet c WHERE c.wallet.id IN (SELECT w.id FROM Wallet w WHERE w.residente.id = :idResidente)")
+    void deleteByResidenteId(@Param("idResidente") Long idResidente);
+}
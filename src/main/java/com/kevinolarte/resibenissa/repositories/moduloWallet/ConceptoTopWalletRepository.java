@@ -0,0 +1,21 @@
+package com.kevinolarte.resibenissa.repositories.moduloWallet;
+
+import com.kevinolarte.resibenissa.models.moduloWallet.ConceptoTopWallet;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ConceptoTopWalletRepository extends JpaRepository<ConceptoTopWallet, Long> {
+
+    /**
+     * Elimina los contadores guardados de una residencia.
+     *
+     * @param idResidencia ID de la residencia.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ConceptoTopWallet c WHERE c.idResidencia = :idResidencia")
+    void deleteAllByIdResidencia(@Param("idResidencia") Long idResidencia);
+}
@@ -0,0 +1,18 @@
+package com.kevinolarte.resibenissa.repositories.moduloWallet;
+
+import com.kevinolarte.resibenissa.models.moduloWallet.LoteDeposito;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface LoteDepositoRepository extends JpaRepository<LoteDeposito, Long> {
+
+    /**
+     * Busca un depósito en bloque por su clave dentro de una residencia.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param clave Clave enviada por el cliente.
+     * @return El depósito, si ya se procesó.
+     */
+    Optional<LoteDeposito> findByIdResidenciaAndClave(Long idResidencia, String clave);
+}
@@ -1,12 +1,127 @@
 package com.kevinolarte.resibenissa.repositories.moduloWallet;
 
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.MovimientoWalletResponseDto;
 import com.kevinolarte.resibenissa.models.moduloWallet.MovimientoWallet;
 import com.kevinolarte.resibenissa.models.moduloWallet.Wallet;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface MovimientoWalletRepository extends JpaRepository<MovimientoWallet, Long> {
     List<MovimientoWallet> findByWallet(Wallet wallet);
-}
 
+    /**
+     * Obtiene la siguiente página de movimientos de una wallet ordenados por fecha (paginación por cursor).
+     * <p>
+     * Devuelve los movimientos posteriores a ({@code fecha}, {@code idUltimo}) y anteriores a {@code hasta},
+     * por lo que el coste de cada página no crece con el número de páginas ya leídas.
+     * Para la primera página se pasa la fecha inicial del rango y {@code idUltimo = 0}.
+     * </p>
+     *
+     * @param idWallet ID de la wallet.
+     * @param fecha Fecha del último movimiento leído.
+     * @param idUltimo ID del último movimiento leído.
+     * @param hasta Fecha límite (exclusiva).
+     * @param pageable Tamaño de la página.
+     * @return Movimientos de la página.
+     */
+    @Query("""
+        SELECT new com.kevinolarte.resibenissa.dto.out.moduloWallet.MovimientoWalletResponseDto(
+            m.id, m.fecha, m.tipo, m.cantidadCentimos, m.concepto)
+        FROM MovimientoWallet m
+        WHERE m.wallet.id = :idWallet
+          AND m.fecha < :hasta
+          AND (m.fecha > :fecha OR (m.fecha = :fecha AND m.id > :idUltimo))
+        ORDER BY m.fecha ASC, m.id ASC
+    """)
+    List<MovimientoWalletResponseDto> findPaginaInforme(@Param("idWallet") Long idWallet,
+                                                        @Param("fecha") LocalDateTime fecha,
+                                                        @Param("idUltimo") Long idUltimo,
+                                                        @Param("hasta") LocalDateTime hasta,
+                                                        Pageable pageable);
+
+    /**
+     * Suma con signo (entradas positivas, salidas negativas) de los movimientos de una wallet en un intervalo.
+     *
+     * @param idWallet ID de la wallet.
+     * @param desde Inicio del intervalo (incluido).
+     * @param hasta Fin del intervalo (excluido).
+     * @return Variación del saldo en céntimos (0 si no hay movimientos).
+     */
+    @Query("""
+        SELECT COALESCE(SUM(CASE WHEN m.tipo = com.kevinolarte.resibenissa.enums.moduloWallet.TipoMovimiento.IN
+                                 THEN m.cantidadCentimos ELSE -m.cantidadCentimos END), 0)
+        FROM MovimientoWallet m
+        WHERE m.wallet.id = :idWallet AND m.fecha >= :desde AND m.fecha < :hasta
+    """)
+    long sumarEntre(@Param("idWallet") Long idWallet,
+                    @Param("desde") LocalDateTime desde,
+                    @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Variación del saldo de una wallet por día, solo para los días con movimientos, en orden.
+     *
+     * @param idWallet ID de la wallet.
+     * @param desde Inicio del intervalo (incluido).
+     * @param hasta Fin del intervalo (excluido).
+     * @return Filas {@code [LocalDate dia, Long centimos]}.
+     */
+    @Query("""
+        SELECT extract(date from m.fecha),
+               SUM(CASE WHEN m.tipo = com.kevinolarte.resibenissa.enums.moduloWallet.TipoMovimiento.IN
+                        THEN m.cantidadCentimos ELSE -m.cantidadCentimos END)
+        FROM MovimientoWallet m
+        WHERE m.wallet.id = :idWallet AND m.fecha >= :desde AND m.fecha < :hasta
+        GROUP BY extract(date from m.fecha)
+        ORDER BY extract(date from m.fecha)
+    """)
+    List<Object[]> sumarPorDia(@Param("idWallet") Long idWallet,
+                               @Param("desde") LocalDateTime desde,
+                               @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Obtiene una página de los movimientos de una wallet en un intervalo, ordenados por fecha.
+     *
+     * @param idWallet ID de la wallet.
+     * @param desde Inicio del intervalo (incluido).
+     * @param hasta Fin del intervalo (excluido).
+     * @param pageable Página a obtener.
+     * @return Movimientos de la página.
+     */
+    @Query("""
+        SELECT new com.kevinolarte.resibenissa.dto.out.moduloWallet.MovimientoWalletResponseDto(
+            m.id, m.fecha, m.tipo, m.cantidadCentimos, m.concepto)
+        FROM MovimientoWallet m
+        WHERE m.wallet.id = :idWallet AND m.fecha >= :desde AND m.fecha < :hasta
+        ORDER BY m.fecha ASC, m.id ASC
+    """)
+    List<MovimientoWalletResponseDto> findPagina(@Param("idWallet") Long idWallet,
+                                                 @Param("desde") LocalDateTime desde,
+                                                 @Param("hasta") LocalDateTime hasta,
+                                                 Pageable pageable);
+
+    /**
+     * Elimina un lote de movimientos de la wallet de un residente.
+     *
+     * @param idResidente ID del residente.
+     * @param limite Máximo de movimientos a eliminar.
+     * @return Número de movimientos eliminados; si es menor que {@code limite}, no quedan más.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        DELETE FROM movimiento_wallet
+        WHERE id IN (
+            SELECT m.id FROM movimiento_wallet m
+            JOIN wallet w ON w.id = m.fk_wallet
+            WHERE w.fk_residente = :idResidente
+            LIMIT :limite)
+    """, nativeQuery = true)
+    int deleteLoteByResidenteId(@Param("idResidente") Long idResidente, @Param("limite") int limite);
+}
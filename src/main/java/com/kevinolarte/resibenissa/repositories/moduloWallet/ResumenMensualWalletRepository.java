@@ -0,0 +1,93 @@
+package com.kevinolarte.resibenissa.repositories.moduloWallet;
+
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.ResumenMensualResponseDto;
+import com.kevinolarte.resibenissa.models.moduloWallet.ResumenMensualWallet;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ResumenMensualWalletRepository extends JpaRepository<ResumenMensualWallet, Long> {
+
+    /**
+     * Upsert que suma un movimiento al resumen mensual de una wallet. Parámetros, en orden: ID de la wallet,
+     * ID de la residencia, año, mes, tipo y céntimos. Lo usan {@link #acumular} y los depósitos masivos en batch JDBC.
+     */
+    String SQL_ACUMULAR = """
+        INSERT INTO resumenes_mensuales_wallet (id_wallet, id_residencia, anio, mes, tipo, numero_movimientos, total_centimos)
+        VALUES (?, ?, ?, ?, ?, 1, ?)
+        ON CONFLICT (id_wallet, anio, mes, tipo) DO UPDATE
+        SET numero_movimientos = resumenes_mensuales_wallet.numero_movimientos + 1,
+            total_centimos = resumenes_mensuales_wallet.total_centimos + EXCLUDED.total_centimos
+    """;
+
+    /**
+     * Suma un movimiento al resumen mensual de una wallet, creando la fila si no existe.
+     * Es una única sentencia atómica, así que no pierde movimientos simultáneos.
+     *
+     * @param idWallet ID de la wallet.
+     * @param idResidencia ID de la residencia del residente.
+     * @param anio Año del movimiento.
+     * @param mes Mes del movimiento (1-12).
+     * @param tipo Tipo de movimiento ({@code IN} u {@code OUT}).
+     * @param centimos Cantidad del movimiento en céntimos.
+     */
+    @Modifying
+    @Query(value = SQL_ACUMULAR, nativeQuery = true)
+    void acumular(Long idWallet, Long idResidencia, int anio, int mes, String tipo, long centimos);
+
+    /**
+     * Totales mensuales de una wallet en un año.
+     *
+     * @param idWallet ID de la wallet.
+     * @param anio Año a consultar.
+     * @return Totales por mes y tipo.
+     */
+    @Query("""
+        SELECT new com.kevinolarte.resibenissa.dto.out.moduloWallet.ResumenMensualResponseDto(
+            r.anio, r.mes, r.tipo, r.numeroMovimientos, r.totalCentimos)
+        FROM ResumenMensualWallet r
+        WHERE r.idWallet = :idWallet AND r.anio = :anio
+        ORDER BY r.mes, r.tipo
+    """)
+    List<ResumenMensualResponseDto> findByWallet(@Param("idWallet") Long idWallet, @Param("anio") int anio);
+
+    /**
+     * Totales mensuales de todas las wallets de una residencia en un año.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param anio Año a consultar.
+     * @return Totales por mes y tipo.
+     */
+    @Query("""
+        SELECT new com.kevinolarte.resibenissa.dto.out.moduloWallet.ResumenMensualResponseDto(
+            r.anio, r.mes, r.tipo, SUM(r.numeroMovimientos), SUM(r.totalCentimos))
+        FROM ResumenMensualWallet r
+        WHERE r.idResidencia = :idResidencia AND r.anio = :anio
+        GROUP BY r.anio, r.mes, r.tipo
+        ORDER BY r.mes, r.tipo
+    """)
+    List<ResumenMensualResponseDto> findByResidencia(@Param("idResidencia") Long idResidencia, @Param("anio") int anio);
+
+    /**
+     * Elimina un lote de resúmenes mensuales de la wallet de un residente.
+     *
+     * @param idResidente ID del residente.
+     * @param limite Máximo de resúmenes a eliminar.
+     * @return Número de resúmenes eliminados; si es menor que {@code limite}, no quedan más.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        DELETE FROM resumenes_mensuales_wallet
+        WHERE id IN (
+            SELECT r.id FROM resumenes_mensuales_wallet r
+            JOIN wallet w ON w.id = r.id_wallet
+            WHERE w.fk_residente = :idResidente
+            LIMIT :limite)
+    """, nativeQuery = true)
+    int deleteLoteByResidenteId(@Param("idResidente") Long idResidente, @Param("limite") int limite);
+}
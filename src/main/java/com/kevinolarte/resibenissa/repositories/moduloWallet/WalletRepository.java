@@ -1,7 +1,65 @@
 package com.kevinolarte.resibenissa.repositories.moduloWallet;
 
 import com.kevinolarte.resibenissa.models.moduloWallet.Wallet;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
+
+    /**
+     * Suma una cantidad al saldo de una wallet con una única sentencia {@code UPDATE},
+     * de modo que dos movimientos simultáneos nunca pierden una actualización.
+     * También incrementa la versión de la wallet.
+     *
+     * @param idWallet ID de la wallet.
+     * @param centimos Cantidad a sumar, en céntimos.
+     * @return 1 si la wallet existe, 0 en caso contrario.
+     */
+    @Modifying
+    @Query("""
+        UPDATE Wallet w
+        SET w.saldoCentimos = w.saldoCentimos + :centimos, w.version = w.version + 1
+        WHERE w.id = :idWallet
+    """)
+    int depositar(@Param("idWallet") Long idWallet, @Param("centimos") long centimos);
+
+    /**
+     * Resta una cantidad del saldo de una wallet solo si hay saldo suficiente, con una única
+     * sentencia {@code UPDATE} condicional. El saldo nunca puede quedar negativo, ni siquiera
+     * con retiradas simultáneas, y no hace falta bloquear la fila de antemano.
+     *
+     * @param idWallet ID de la wallet.
+     * @param centimos Cantidad a restar, en céntimos.
+     * @return 1 si se ha retirado, 0 si la wallet no existe o no tiene saldo suficiente.
+     */
+    @Modifying
+    @Query("""
+        UPDATE Wallet w
+        SET w.saldoCentimos = w.saldoCentimos - :centimos, w.version = w.version + 1
+        WHERE w.id = :idWallet AND w.saldoCentimos >= :centimos
+    """)
+    int retirar(@Param("idWallet") Long idWallet, @Param("centimos") long centimos);
+
+    /**
+     * Obtiene los IDs de todas las wallets.
+     *
+     * @return IDs de las wallets.
+     */
+    @Query("SELECT w.id FROM Wallet w ORDER BY w.id")
+    List<Long> findAllIds();
+
+    /**
+     * Elimina la wallet de un residente. Sus movimientos y checkpoints deben haberse eliminado antes.
+     *
+     * @param idResidente ID del residente.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Wallet w WHERE w.residente.id = :idResidente")
+    void deleteByResidenteId(@Param("idResidente") Long idResidente);
 }
@@ -2,7 +2,11 @@ package com.kevinolarte.resibenissa.repositories.modulojuego;
 
 import com.kevinolarte.resibenissa.models.Residencia;
 import com.kevinolarte.resibenissa.models.modulojuego.Juego;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -32,4 +36,14 @@ public interface JuegoRepository extends JpaRepository<Juego, Long> {
      * @return Lista de juegos que contienen la cadena en su nombre.
      */
     List<Juego> findByNombreContainingIgnoreCase(String nombre);
+
+    /**
+     * Elimina un juego sin cargarlo. Sus registros deben haberse eliminado antes.
+     *
+     * @param idJuego ID del juego.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Juego j WHERE j.id = :idJuego")
+    void deleteSinCascadaById(@Param("idJuego") Long idJuego);
 }
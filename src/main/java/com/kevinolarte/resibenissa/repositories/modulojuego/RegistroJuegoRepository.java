@@ -4,13 +4,16 @@ import com.kevinolarte.resibenissa.dto.out.modulojuego.MediaRegistroDTO;
 import com.kevinolarte.resibenissa.enums.modulojuego.Dificultad;
 import com.kevinolarte.resibenissa.models.modulojuego.Juego;
 import com.kevinolarte.resibenissa.models.modulojuego.RegistroJuego;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para acceder y gestionar registros de juegos ({@link RegistroJuego}).
@@ -644,4 +647,65 @@ public interface RegistroJuegoRepository extends JpaRepository<RegistroJuego, Lo
                                                                   @Param("idResidencia") Long idResidencia,
                                                                   @Param("dificultad") Dificultad dificultad);
 
+    /**
+     * Obtiene el residente de un registro de juego sin cargar la entidad.
+     *
+     * @param idRegistro ID del registro de juego.
+     * @return ID del residente, o vacío si el registro no existe.
+     */
+    @Query("SELECT r.residente.id FROM RegistroJuego r WHERE r.id = :idRegistro")
+    Optional<Long> findIdResidenteById(@Param("idRegistro") Long idRegistro);
+
+    /**
+     * Comprueba si un usuario tiene registros de juego, sin cargarlos.
+     *
+     * @param idUsuario ID del usuario.
+     * @return {@code true} si hay al menos un registro del usuario.
+     */
+    boolean existsByUsuarioId(Long idUsuario);
+
+    /**
+     * Elimina un lote de registros de un juego.
+     *
+     * @param idJuego ID del juego.
+     * @param limite Máximo de registros a eliminar.
+     * @return Número de registros eliminados; si es menor que {@code limite}, no quedan más.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        DELETE FROM registros_juegos
+        WHERE id IN (SELECT id FROM registros_juegos WHERE fk_juego = :idJuego LIMIT :limite)
+    """, nativeQuery = true)
+    int deleteLoteByJuegoId(@Param("idJuego") Long idJuego, @Param("limite") int limite);
+
+    /**
+     * Elimina un lote de registros de un residente.
+     *
+     * @param idResidente ID del residente.
+     * @param limite Máximo de registros a eliminar.
+     * @return Número de registros eliminados; si es menor que {@code limite}, no quedan más.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        DELETE FROM registros_juegos
+        WHERE id IN (SELECT id FROM registros_juegos WHERE fk_residente = :idResidente LIMIT :limite)
+    """, nativeQuery = true)
+    int deleteLoteByResidenteId(@Param("idResidente") Long idResidente, @Param("limite") int limite);
+
+    /**
+     * Desvincula un lote de registros de su usuario (deja {@code fk_usuario} a {@code null}).
+     *
+     * @param idUsuario ID del usuario.
+     * @param limite Máximo de registros a modificar.
+     * @return Número de registros modificados; si es menor que {@code limite}, no quedan más.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE registros_juegos SET fk_usuario = NULL
+        WHERE id IN (SELECT id FROM registros_juegos WHERE fk_usuario = :idUsuario LIMIT :limite)
+    """, nativeQuery = true)
+    int desvincularLoteByUsuarioId(@Param("idUsuario") Long idUsuario, @Param("limite") int limite);
 }
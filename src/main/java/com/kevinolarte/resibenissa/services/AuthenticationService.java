@@ -11,7 +11,9 @@ import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.Residencia;
 import com.kevinolarte.resibenissa.models.User;
 import com.kevinolarte.resibenissa.repositories.UserRepository;
-import jakarta.mail.MessagingException;
+import com.kevinolarte.resibenissa.services.moduloReporting.EmailOutboxService;
+import com.kevinolarte.resibenissa.services.moduloReporting.EmailTemplateService;
+import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -20,6 +22,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -33,7 +36,7 @@ import java.util.Random;
  * <ul>
  *   <li>{@link PasswordEncoder} para cifrar contraseñas.</li>
  *   <li>{@link AuthenticationManager} para autenticación en Spring Security.</li>
- *   <li>{@link EmailService} para el envío de correos electrónicos.</li>
+ *   <li>{@link EmailOutboxService} para el envío de correos electrónicos en segundo plano.</li>
  *   <li>{@link ResidenciaService} para validar residencias al registrar usuarios.</li>
  * </ul>
  *
@@ -45,7 +48,8 @@ public class AuthenticationService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
+    private final EmailTemplateService emailTemplateService;
     private final ResidenciaService residenciaService;
 
     /**
@@ -53,12 +57,14 @@ public class AuthenticationService {
      * <p>
      * Genera un código de verificación y lo envía por correo electrónico.
      * El usuario se crea con estado desactivado hasta completar la verificación.
+     * El correo se guarda en la bandeja de salida en la misma transacción que el usuario.
      * </p>
      *
      * @param input DTO con los datos del usuario a registrar.
      * @return DTO con los datos del usuario creado.
      * @throws ResiException si el email es inválido, ya existe, o la residencia no es válida.
      */
+    @Transactional
     public UserResponseDto singUp(RegisterUserDto input){
         if (input.getEmail() == null || input.getEmail().trim().isEmpty() || input.getPassword() == null || input.getPassword().trim().isEmpty()
             || input.getIdResidencia() == null || input.getNombre() == null || input.getNombre().trim().isEmpty() || input.getApellido() == null || input.getApellido().trim().isEmpty()){
@@ -87,10 +93,10 @@ public class AuthenticationService {
         System.out.println(user.getVerificationCode());
         user.setVerificationExpiration(LocalDateTime.now().plusMinutes(15));
         user.setEnabled(false);
-        sendVerificationEmail(user);
         user.setResidencia(residenciaTest);
         user.setFotoPerfil("/uploads/" + Conf.imageDefault);
         User savedUser = userRepository.save(user);
+        sendVerificationEmail(savedUser);
 
         return new UserResponseDto(savedUser);
     }
@@ -188,6 +194,7 @@ public class AuthenticationService {
      * @param email Dirección de correo del usuario.
      * @throws ResiException si el usuario no existe o ya está activado.
      */
+    @Transactional
     public void resendVerificationCode(String email){
         if (email == null || email.trim().isEmpty()){
             throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
@@ -207,8 +214,8 @@ public class AuthenticationService {
             }
             user.setVerificationCode(generateVerificationCode());
             user.setVerificationExpiration(LocalDateTime.now().plusHours(1));
-            sendVerificationEmail(user);
             userRepository.save(user);
+            sendVerificationEmail(user);
         }
         else{
             throw new ResiException(ApiErrorCode.USUARIO_INVALIDO);
@@ -227,31 +234,14 @@ public class AuthenticationService {
     }
 
     /**
-     * Envía un correo con el código de verificación al usuario.
+     * Deja en la bandeja de salida el correo con el código de verificación del usuario.
      *
      * @param user Usuario al que se le enviará el correo.
-     * @throws ResiException si ocurre un error al enviar el correo.
      */
     public void sendVerificationEmail(User user){
         String subject = "Account verification";
-        String verificationCode = user.getVerificationCode();
-        String htmlMessage = "<html>"
-                + "<body style=\"font-family: Arial, sans-serif;\">"
-                + "<div style=\"background-color: #f5f5f5; padding: 20px;\">"
-                + "<h2 style=\"color: #333;\">Welcome to our app!</h2>"
-                + "<p style=\"font-size: 16px;\">Please enter the verification code below to continue:</p>"
-                + "<div style=\"background-color: #fff; padding: 20px; border-radius: 5px; box-shadow: 0 0 10px rgba(0,0,0,0.1);\">"
-                + "<h3 style=\"color: #333;\">Verification Code:</h3>"
-                + "<p style=\"font-size: 18px; font-weight: bold; color: #007bff;\">" + verificationCode + "</p>"
-                + "</div>"
-                + "</div>"
-                + "</body>"
-                + "</html>";
-        try{
-            emailService.sendEmail(user.getEmail(), subject, htmlMessage);
-        }catch (MessagingException e){
-            throw new ResiException(ApiErrorCode.ERROR_MAIL_SENDER);
-
-        }
+        String htmlMessage = emailTemplateService.render(EmailTemplateService.PLANTILLA_VERIFICACION,
+                Map.of("codigo", user.getVerificationCode()));
+        emailOutboxService.encolar(user.getEmail(), subject, htmlMessage);
     }
 }
@@ -0,0 +1,94 @@
+package com.kevinolarte.resibenissa.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kevinolarte.resibenissa.dto.out.ResidenciaPublicResponseDto;
+import com.kevinolarte.resibenissa.repositories.ResidenciaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Directorio público de residencias que se muestra en la pantalla de login.
+ * <p>
+ * Guarda en memoria la lista ya serializada a JSON junto con su ETag, de forma que
+ * {@code GET /resi/getAll} no consulta la base de datos. La instantánea se invalida al crear,
+ * dar de baja o eliminar una residencia (al confirmarse la transacción) y se reconstruye en la
+ * siguiente lectura; si llegan muchas a la vez, solo una consulta la base de datos.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Service
+@RequiredArgsConstructor
+public class DirectorioResidenciasService {
+
+    private final ResidenciaRepository residenciaRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Lista serializada y su ETag, de la versión {@code version} del directorio.
+     */
+    public record Instantanea(byte[] cuerpo, String etag, long version) {}
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instantanea instantanea;
+
+    /**
+     * Obtiene la instantánea actual del directorio, reconstruyéndola si se ha invalidado.
+     *
+     * @return Instantánea con el JSON de la lista y su ETag.
+     */
+    public Instantanea get() {
+        Instantanea actual = instantanea;
+        if (actual != null && actual.version() == version.get()) {
+            return actual;
+        }
+        synchronized (this) {
+            actual = instantanea;
+            long v = version.get();
+            if (actual == null || actual.version() != v) {
+                actual = construir(v);
+                instantanea = actual;
+            }
+            return actual;
+        }
+    }
+
+    /**
+     * Marca el directorio como desactualizado. Si hay una transacción en curso, se hace al confirmarse.
+     */
+    public void invalidar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    private Instantanea construir(long v) {
+        List<ResidenciaPublicResponseDto> residencias = residenciaRepository.findAll()
+                .stream().map(ResidenciaPublicResponseDto::new)
+                .toList();
+        try {
+            byte[] cuerpo = objectMapper.writeValueAsBytes(residencias);
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(cuerpo);
+            String etag = "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+            return new Instantanea(cuerpo, etag, v);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
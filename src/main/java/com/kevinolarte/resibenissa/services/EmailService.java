@@ -1,24 +1,35 @@
 package com.kevinolarte.resibenissa.services;
 
+import com.kevinolarte.resibenissa.dto.out.moduloOrgSalida.NotificacionEventoResponseDto;
 import com.kevinolarte.resibenissa.dto.out.moduloOrgSalida.ParticipanteResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloReporting.EmailEstadoResponseDto;
 import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.Residente;
+import com.kevinolarte.resibenissa.models.moduloOrgSalida.EventoSalida;
+import com.kevinolarte.resibenissa.models.moduloOrgSalida.Participante;
+import com.kevinolarte.resibenissa.models.moduloReporting.EmailOutbox;
 import com.kevinolarte.resibenissa.repositories.ResidenteRepository;
+import com.kevinolarte.resibenissa.services.moduloReporting.EmailOutboxService;
+import com.kevinolarte.resibenissa.services.moduloReporting.EmailTemplateService;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Servicio encargado del envío de correos electrónicos dentro de la aplicación.
@@ -40,6 +51,11 @@ public class EmailService {
     private final ResidenteRepository residenteRepository;
     private JavaMailSender mailSender;
     private JwtService jwtService;
+    private final EmailOutboxService emailOutboxService;
+    private final EmailTemplateService emailTemplateService;
+
+    private static final String ASUNTO_PERMISO = "Permiso para excursión";
+    private static final String PREFIJO_LOTE_EVENTO = "evento-";
 
     /**
      * Verifica si una dirección de correo electrónico tiene un formato válido.
@@ -83,49 +99,84 @@ public class EmailService {
         mailSender.send(message);
     }
 
+    /**
+     * Envía varios correos de la bandeja de salida reutilizando una única conexión SMTP.
+     * <p>
+     * {@link JavaMailSender#send(MimeMessage...)} abre un solo transporte para todos los mensajes,
+     * evitando el coste de conexión, STARTTLS y autenticación por cada correo. Si algún mensaje falla
+     * se informa de ese mensaje concreto sin dar por fallidos los demás.
+     * </p>
+     *
+     * @param correos Correos a enviar.
+     * @return Mapa con el ID de cada correo fallido y la descripción del error (vacío si todos se enviaron).
+     */
+    public Map<Long, String> sendEmails(List<EmailOutbox> correos) {
+        Map<Long, String> fallidos = new HashMap<>();
+        Map<MimeMessage, Long> ids = new IdentityHashMap<>();
+        List<MimeMessage> mensajes = new ArrayList<>(correos.size());
+
+        for (EmailOutbox correo : correos) {
+            try {
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, true);
+                helper.setTo(correo.getDestinatario());
+                helper.setSubject(correo.getAsunto());
+                helper.setText(correo.getCuerpo(), true);
+                mensajes.add(message);
+                ids.put(message, correo.getId());
+            } catch (MessagingException e) {
+                fallidos.put(correo.getId(), e.getMessage());
+            }
+        }
+        if (mensajes.isEmpty()) {
+            return fallidos;
+        }
+
+        try {
+            mailSender.send(mensajes.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                // Fallo de conexión: no se ha enviado ninguno
+                ids.values().forEach(id -> fallidos.put(id, e.getMessage()));
+            } else {
+                e.getFailedMessages().forEach((mensaje, error) -> {
+                    Long id = ids.get(mensaje);
+                    if (id != null) {
+                        fallidos.put(id, error.getMessage());
+                    }
+                });
+            }
+        } catch (MailException e) {
+            ids.values().forEach(id -> fallidos.put(id, e.getMessage()));
+        }
+        return fallidos;
+    }
+
 
     /**
      * Envía una notificación por correo electrónico a los familiares de un participante
      * para solicitar permiso para una excursión.
      * <p>
      * Genera un token JWT con información del participante y construye URLs para permitir o rechazar la solicitud.
-     * Reemplaza los placeholders en una plantilla HTML y envía el correo a los familiares.
+     * Renderiza la plantilla HTML precompilada y deja el correo de cada familiar
+     * en la bandeja de salida, desde donde se envía en segundo plano.
      * </p>
      *
      * @param participanteDto DTO que contiene la información del participante.
+     * @param urgente Si es {@code true}, se envía de inmediato aunque esté activo el modo resumen.
      */
-    public void sendNotificationParticipante(ParticipanteResponseDto participanteDto) {
+    @Transactional
+    public void sendNotificationParticipante(ParticipanteResponseDto participanteDto, boolean urgente) {
         try {
-
-            Map<String, Object> claims = new HashMap<>();
-            claims.put("idParticipante", participanteDto.getId());
-            claims.put("idEvento", participanteDto.getIdEvento());
-            claims.put("idResidencia", participanteDto.getIdResidencia());
-
-            String token = jwtService.generateTokenConExpiracionCustomClaims(claims, Duration.ofMinutes(30));
-            System.out.println("Token: " + token);
-            // Construir URLs
-            String urlPermitir = "http://localhost:8080/public/allowParticipante?token=" + token;
-            String urlRechazar = "http://localhost:8080/public/denyParticipante?token=" + token;
-
-            // Leer la plantilla HTML desde resources/templates
-            Path htmlPath = Paths.get("src/main/resources/templates/permiso-excursion.html");
-            String html = Files.readString(htmlPath);
             Residente residente = residenteRepository.findById(participanteDto.getIdResidente())
                     .orElseThrow(() -> new ResiException(ApiErrorCode.RESIDENTE_INVALIDO));
 
-            // Reemplazar los placeholders
-            html = html.replace("{{nombreFamiliar}}", "Familiar")
-                    .replace("{{nombreResidente}}", "Residente " + residente.getNombre() + " " + residente.getApellido())
-                    .replace("{{nombreExcursion}}", "Excursión especial")
-                    .replace("{{fecha}}", LocalDate.now().plusDays(7).toString()) // ejemplo de fecha
-                    .replace("{{urlPermitir}}", urlPermitir)
-                    .replace("{{urlRechazar}}", urlRechazar);
-
+            String html = renderPermisoExcursion(participanteDto.getId(), participanteDto.getIdEvento(), participanteDto.getIdResidencia(),
+                    residente, "Excursión especial", LocalDate.now().plusDays(7).toString(), urgente); // ejemplo de fecha
 
-            sendEmail(participanteDto.getFamiliar1(), "Permiso para excursión", html);
+            emailOutboxService.encolarFamiliar(participanteDto.getFamiliar1(), ASUNTO_PERMISO, html, null, urgente);
             if (participanteDto.getFamiliar2() != null) {
-                sendEmail(participanteDto.getFamiliar2(), "Permiso para excursión", html);
+                emailOutboxService.encolarFamiliar(participanteDto.getFamiliar2(), ASUNTO_PERMISO, html, null, urgente);
             }
 
         } catch (Exception e) {
@@ -133,4 +184,89 @@ public class EmailService {
         }
     }
 
+    /**
+     * Notifica a las familias de todos los participantes de un evento en una sola operación.
+     * <p>
+     * Genera el token de cada participante en una única pasada, renderiza la plantilla una vez por
+     * participante (el mismo HTML sirve para sus dos familiares) y deja todos los correos en la
+     * bandeja de salida dentro de la misma transacción, agrupados bajo un identificador de envío.
+     * Los workers de la bandeja los envían después reutilizando las conexiones SMTP.
+     * </p>
+     *
+     * @param evento Evento de salida ya validado.
+     * @param participantes Participantes del evento, con su residente cargado.
+     * @param urgente Si es {@code true}, se envían de inmediato aunque esté activo el modo resumen.
+     * @return Identificador del envío y estado inicial de cada correo.
+     */
+    @Transactional
+    public NotificacionEventoResponseDto sendNotificacionesEvento(EventoSalida evento, List<Participante> participantes, boolean urgente) {
+        String lote = generarLote(evento.getId());
+        Long idResidencia = evento.getResidencia().getId();
+        String fecha = evento.getFechaInicio().toLocalDate().toString();
+        List<EmailEstadoResponseDto> correos = new ArrayList<>(participantes.size() * 2);
+
+        for (Participante participante : participantes) {
+            Residente residente = participante.getResidente();
+            String html = renderPermisoExcursion(participante.getId(), evento.getId(), idResidencia,
+                    residente, evento.getNombre(), fecha, urgente);
+
+            correos.add(new EmailEstadoResponseDto(emailOutboxService.encolarFamiliar(residente.getFamiliar1(), ASUNTO_PERMISO, html, lote, urgente)));
+            if (residente.getFamiliar2() != null && !residente.getFamiliar2().trim().isEmpty()) {
+                correos.add(new EmailEstadoResponseDto(emailOutboxService.encolarFamiliar(residente.getFamiliar2(), ASUNTO_PERMISO, html, lote, urgente)));
+            }
+        }
+        return new NotificacionEventoResponseDto(lote, evento.getId(), participantes.size(), correos);
+    }
+
+    /**
+     * Indica si un identificador de envío masivo corresponde a un evento.
+     *
+     * @param lote Identificador del envío.
+     * @param idEvento ID del evento.
+     * @return {@code true} si el envío se generó para ese evento.
+     */
+    public static boolean isLoteDeEvento(String lote, Long idEvento) {
+        return lote != null && idEvento != null && lote.startsWith(PREFIJO_LOTE_EVENTO + idEvento + "-");
+    }
+
+    /**
+     * Genera el token de permiso de un participante y renderiza la plantilla de la excursión.
+     *
+     * @param idParticipante ID del participante.
+     * @param idEvento ID del evento.
+     * @param idResidencia ID de la residencia.
+     * @param residente Residente que participa.
+     * @param nombreExcursion Nombre a mostrar de la excursión.
+     * @param fecha Fecha a mostrar de la excursión.
+     * @param urgente Si el correo es urgente. Si va a un resumen, el enlace dura también lo que tarde el resumen.
+     * @return HTML del correo.
+     */
+    private String renderPermisoExcursion(Long idParticipante, Long idEvento, Long idResidencia,
+                                          Residente residente, String nombreExcursion, String fecha, boolean urgente) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("idParticipante", idParticipante);
+        claims.put("idEvento", idEvento);
+        claims.put("idResidencia", idResidencia);
+
+        String token = jwtService.generateTokenConExpiracionCustomClaims(claims,
+                Duration.ofMinutes(30).plus(emailOutboxService.getRetrasoMaximo(urgente)));
+        // Construir URLs
+        String urlPermitir = "http://localhost:8080/public/allowParticipante?token=" + token;
+        String urlRechazar = "http://localhost:8080/public/denyParticipante?token=" + token;
+
+        // Rellenar la plantilla (cargada y compilada una sola vez desde el classpath)
+        Map<String, String> valores = new HashMap<>();
+        valores.put("nombreFamiliar", "Familiar");
+        valores.put("nombreResidente", "Residente " + residente.getNombre() + " " + residente.getApellido());
+        valores.put("nombreExcursion", nombreExcursion);
+        valores.put("fecha", fecha);
+        valores.put("urlPermitir", urlPermitir);
+        valores.put("urlRechazar", urlRechazar);
+        return emailTemplateService.render(EmailTemplateService.PLANTILLA_PERMISO_EXCURSION, valores);
+    }
+
+    private static String generarLote(Long idEvento) {
+        return PREFIJO_LOTE_EVENTO + idEvento + "-" + UUID.randomUUID();
+    }
+
 }
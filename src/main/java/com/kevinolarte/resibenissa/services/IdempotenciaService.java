@@ -0,0 +1,217 @@
+package com.kevinolarte.resibenissa.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
+import com.kevinolarte.resibenissa.exceptions.ResiException;
+import com.kevinolarte.resibenissa.models.PeticionIdempotente;
+import com.kevinolarte.resibenissa.models.User;
+import com.kevinolarte.resibenissa.repositories.PeticionIdempotenteRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Servicio que hace idempotentes las peticiones con cabecera {@code Idempotency-Key}.
+ * <p>
+ * La primera petición con una clave ejecuta la operación y guarda su respuesta en
+ * {@link PeticionIdempotente}, en la misma transacción. Las repeticiones con la misma clave devuelven
+ * esa respuesta, con la cabecera {@value #CABECERA_REPETIDA}, sin volver a ejecutar nada. Si dos
+ * peticiones con la misma clave llegan a la vez, la segunda espera a que termine la primera (por la
+ * restricción única) y devuelve su respuesta.
+ * </p>
+ * <p>
+ * Las respuestas más recientes se guardan también en memoria (como mucho {@code idempotencia.max-memoria}),
+ * para que los reintentos habituales no consulten la base de datos. Si la operación falla no se guarda
+ * nada, y el cliente puede reintentar con la misma clave.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Service
+@RequiredArgsConstructor
+public class IdempotenciaService {
+
+    /**
+     * Cabecera con la clave de idempotencia que envía el cliente.
+     */
+    public static final String CABECERA = "Idempotency-Key";
+    /**
+     * Cabecera que se añade a las respuestas repetidas.
+     */
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+
+    private static final int LONGITUD_MAXIMA_CLAVE = 100;
+
+    private final PeticionIdempotenteRepository peticionIdempotenteRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${idempotencia.ttl-horas:24}")
+    private long ttlHoras;
+
+    @Value("${idempotencia.max-memoria:10000}")
+    private int maxMemoria;
+
+    /**
+     * Respuestas recientes por ámbito y clave, de la menos a la más recientemente usada.
+     */
+    private final Map<String, PeticionIdempotente> recientes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PeticionIdempotente> eldest) {
+            return size() > maxMemoria;
+        }
+    };
+
+    /**
+     * Ejecuta una operación una sola vez por clave de idempotencia.
+     *
+     * @param clave Valor de la cabecera {@value #CABECERA}; si es nulo la operación se ejecuta sin más.
+     * @param operacion Nombre de la operación (por ejemplo {@code "wallet.deposit"}).
+     * @param peticion Parámetros de la petición (ids de la ruta y cuerpo), para comprobar que la clave no se reutiliza con otros datos.
+     * @param tipoCuerpo Clase del cuerpo de la respuesta, para reconstruirla al repetirla.
+     * @param accion Operación a ejecutar.
+     * @param <T> Tipo del cuerpo de la respuesta.
+     * @return La respuesta de la operación, o la guardada si la clave ya se había usado.
+     * @throws ResiException si la clave no es válida o ya se usó con otros datos, o la excepción de la propia operación.
+     */
+    public <T> ResponseEntity<T> ejecutar(String clave, String operacion, Object peticion, Class<T> tipoCuerpo,
+                                          Supplier<ResponseEntity<T>> accion) {
+        if (clave == null) {
+            return accion.get();
+        }
+        clave = clave.trim();
+        if (clave.isEmpty() || clave.length() > LONGITUD_MAXIMA_CLAVE) {
+            throw new ResiException(ApiErrorCode.CLAVE_IDEMPOTENCIA_INVALIDA);
+        }
+        String ambito = operacion + ":" + getUsuario();
+        String huella = getHuella(peticion);
+
+        Optional<PeticionIdempotente> previa = buscar(ambito, clave);
+        if (previa.isPresent()) {
+            return repetir(previa.get(), huella, tipoCuerpo);
+        }
+
+        PeticionIdempotente registro = new PeticionIdempotente(ambito, clave, huella, LocalDateTime.now().plusHours(ttlHoras));
+        ResponseEntity<T> respuesta;
+        try {
+            respuesta = transactionTemplate.execute(status -> {
+                // Una respuesta caducada que aún no se ha purgado seguiría ocupando la clave
+                peticionIdempotenteRepository.deleteCaducada(ambito, registro.getClave(), LocalDateTime.now());
+                // Reservar la clave; una petición simultánea con la misma clave espera aquí a que termine esta
+                try {
+                    peticionIdempotenteRepository.saveAndFlush(registro);
+                } catch (DataIntegrityViolationException e) {
+                    throw new ClaveEnUso();
+                }
+                ResponseEntity<T> r = accion.get();
+                registro.setEstadoHttp(r.getStatusCode().value());
+                registro.setCuerpo(toJson(r.getBody()));
+                return r;
+            });
+        } catch (ClaveEnUso e) {
+            return repetir(buscar(ambito, clave).orElseThrow(() -> new ResiException(ApiErrorCode.CLAVE_IDEMPOTENCIA_EN_USO)), huella, tipoCuerpo);
+        }
+        synchronized (recientes) {
+            recientes.put(ambito + "|" + clave, registro);
+        }
+        return respuesta;
+    }
+
+    /**
+     * Elimina las respuestas guardadas ya caducadas.
+     */
+    @Scheduled(fixedDelayString = "${idempotencia.purga-intervalo-ms:3600000}")
+    public void purgarCaducadas() {
+        LocalDateTime ahora = LocalDateTime.now();
+        synchronized (recientes) {
+            recientes.values().removeIf(p -> !p.getFechaExpiracion().isAfter(ahora));
+        }
+        peticionIdempotenteRepository.deleteCaducadas(ahora);
+    }
+
+    private Optional<PeticionIdempotente> buscar(String ambito, String clave) {
+        PeticionIdempotente peticion;
+        synchronized (recientes) {
+            peticion = recientes.get(ambito + "|" + clave);
+        }
+        if (peticion == null) {
+            peticion = peticionIdempotenteRepository.findByAmbitoAndClave(ambito, clave).orElse(null);
+        }
+        if (peticion == null || !peticion.getFechaExpiracion().isAfter(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(peticion);
+    }
+
+    private <T> ResponseEntity<T> repetir(PeticionIdempotente peticion, String huella, Class<T> tipoCuerpo) {
+        if (!peticion.getHuella().equals(huella)) {
+            throw new ResiException(ApiErrorCode.CLAVE_IDEMPOTENCIA_REUTILIZADA);
+        }
+        try {
+            T cuerpo = peticion.getCuerpo() != null ? objectMapper.readValue(peticion.getCuerpo(), tipoCuerpo) : null;
+            return ResponseEntity.status(HttpStatusCode.valueOf(peticion.getEstadoHttp()))
+                    .header(CABECERA_REPETIDA, "true")
+                    .body(cuerpo);
+        } catch (JsonProcessingException e) {
+            throw new ResiException(ApiErrorCode.PROBLEMA_INTERNO);
+        }
+    }
+
+    /**
+     * Identifica al usuario autenticado, para que las claves de distintos usuarios no se mezclen.
+     */
+    private static String getUsuario() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof User user) {
+            return String.valueOf(user.getId());
+        }
+        return auth != null ? auth.getName() : "anonimo";
+    }
+
+    private String getHuella(Object peticion) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(String.valueOf(toJson(peticion)).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object valor) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            throw new ResiException(ApiErrorCode.PROBLEMA_INTERNO);
+        }
+    }
+
+    /**
+     * La clave la ha registrado otra petición; anula la transacción para poder leer su respuesta.
+     */
+    private static class ClaveEnUso extends RuntimeException {
+        ClaveEnUso() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -39,6 +39,12 @@ public class JwtService {
     @Value("${security.jwt.expiration-time}")
     private long jwtExpiration;
 
+    /**
+     * Clave HMAC derivada de {@code secretKey}. Se calcula una sola vez, ya que
+     * decodificarla en cada firma o verificación es trabajo repetido.
+     */
+    private Key signingKey;
+
     /**
      * Extrae el nombre de usuario (username/subject) del token JWT.
      *
@@ -205,7 +211,10 @@ public class JwtService {
      * @return Clave HMAC SHA válida para firmar/verificar JWT.
      */
     private Key getSingKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        if (signingKey == null) {
+            byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+            signingKey = Keys.hmacShaKeyFor(keyBytes);
+        }
+        return signingKey;
     }
 }
@@ -0,0 +1,139 @@
+package com.kevinolarte.resibenissa.services;
+
+import java.util.Arrays;
+
+/**
+ * Mapa {@code long → long} de direccionamiento abierto (sondeo lineal) sin objetos por entrada.
+ * <p>
+ * Las claves son IDs de entidades, siempre positivos, así que {@code 0} marca las celdas vacías.
+ * Los borrados desplazan hacia atrás las entradas siguientes del mismo grupo, de forma que no quedan
+ * lápidas y las búsquedas no se degradan con el tiempo. No es seguro entre hilos: quien lo use debe
+ * sincronizar el acceso.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+final class MapaLongLong {
+
+    /**
+     * Valor devuelto por {@link #get(long)} cuando la clave no está.
+     */
+    static final long AUSENTE = -1L;
+
+    private static final long VACIO = 0L;
+    private static final float CARGA_MAXIMA = 0.5f;
+
+    private long[] claves;
+    private long[] valores;
+    private int mascara;
+    private int tamano;
+
+    MapaLongLong(int capacidadInicial) {
+        int capacidad = Integer.highestOneBit(Math.max(16, capacidadInicial) - 1) << 1;
+        claves = new long[capacidad];
+        valores = new long[capacidad];
+        mascara = capacidad - 1;
+    }
+
+    /**
+     * @param clave Clave (positiva).
+     * @return Valor asociado, o {@link #AUSENTE} si no está.
+     */
+    long get(long clave) {
+        for (int i = indice(clave); ; i = (i + 1) & mascara) {
+            long k = claves[i];
+            if (k == clave) {
+                return valores[i];
+            }
+            if (k == VACIO) {
+                return AUSENTE;
+            }
+        }
+    }
+
+    /**
+     * Asocia un valor a una clave, sustituyendo el anterior si lo había.
+     *
+     * @param clave Clave (positiva).
+     * @param valor Valor.
+     */
+    void put(long clave, long valor) {
+        if (clave <= VACIO) {
+            throw new IllegalArgumentException("Clave no válida: " + clave);
+        }
+        int i = indice(clave);
+        while (claves[i] != VACIO && claves[i] != clave) {
+            i = (i + 1) & mascara;
+        }
+        if (claves[i] == VACIO) {
+            claves[i] = clave;
+            if (++tamano > claves.length * CARGA_MAXIMA) {
+                valores[i] = valor;
+                redimensionar();
+                return;
+            }
+        }
+        valores[i] = valor;
+    }
+
+    /**
+     * Quita una clave, si está.
+     *
+     * @param clave Clave.
+     */
+    void remove(long clave) {
+        int i = indice(clave);
+        while (claves[i] != clave) {
+            if (claves[i] == VACIO) {
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        tamano--;
+        // Desplazar hacia atrás las entradas del grupo que ya no serían alcanzables
+        int hueco = i;
+        for (int j = (i + 1) & mascara; claves[j] != VACIO; j = (j + 1) & mascara) {
+            int ideal = indice(claves[j]);
+            if (((j - ideal) & mascara) >= ((j - hueco) & mascara)) {
+                claves[hueco] = claves[j];
+                valores[hueco] = valores[j];
+                hueco = j;
+            }
+        }
+        claves[hueco] = VACIO;
+    }
+
+    int size() {
+        return tamano;
+    }
+
+    void clear() {
+        Arrays.fill(claves, VACIO);
+        tamano = 0;
+    }
+
+    private void redimensionar() {
+        long[] clavesAntes = claves;
+        long[] valoresAntes = valores;
+        claves = new long[clavesAntes.length * 2];
+        valores = new long[valoresAntes.length * 2];
+        mascara = claves.length - 1;
+        for (int i = 0; i < clavesAntes.length; i++) {
+            long k = clavesAntes[i];
+            if (k != VACIO) {
+                int j = indice(k);
+                while (claves[j] != VACIO) {
+                    j = (j + 1) & mascara;
+                }
+                claves[j] = k;
+                valores[j] = valoresAntes[i];
+            }
+        }
+    }
+
+    private int indice(long clave) {
+        // Los IDs son consecutivos: se mezclan los bits para repartirlos por toda la tabla
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+}
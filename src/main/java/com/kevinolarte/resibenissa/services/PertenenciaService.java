@@ -0,0 +1,232 @@
+package com.kevinolarte.resibenissa.services;
+
+import com.kevinolarte.resibenissa.repositories.ResidenteRepository;
+import com.kevinolarte.resibenissa.repositories.moduloOrgSalida.EventoSalidaRepository;
+import com.kevinolarte.resibenissa.repositories.moduloOrgSalida.ParticipanteRepository;
+import com.kevinolarte.resibenissa.repositories.modulojuego.RegistroJuegoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Índice en memoria de a quién pertenece cada entidad, para comprobar la pertenencia a una residencia
+ * sin cargar la entidad (y su grafo) de la base de datos.
+ * <p>
+ * Cada tipo guarda su padre directo en un {@link MapaLongLong}: residente y evento → residencia,
+ * participante → evento y registro de juego → residente. Así, al borrar un evento o un residente
+ * basta con quitar su entrada para que sus participantes o registros dejen de resolverse a una residencia.
+ * Las entradas se cargan bajo demanda con una consulta que solo lee la clave ajena, se añaden al crear
+ * la entidad y se quitan al borrarla (en ambos casos, al confirmarse la transacción). La pertenencia
+ * de una entidad no cambia nunca, y los IDs no se reutilizan, así que una entrada nunca queda con un
+ * padre distinto.
+ * Una entrada cargada mientras se confirmaba un borrado del mismo tipo no se guarda, para que no
+ * reaparezca una entidad ya borrada.
+ * </p>
+ * <p>
+ * Cada mapa se vacía si supera {@code pertenencia.max-entradas}; se vuelve a llenar con el uso.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Service
+@RequiredArgsConstructor
+public class PertenenciaService {
+
+    /**
+     * Tipos de entidad del índice, con el padre que se guarda de cada uno.
+     */
+    public enum Tipo {
+        /** Residente → residencia. */
+        RESIDENTE,
+        /** Evento de salida → residencia. */
+        EVENTO,
+        /** Participante → evento de salida. */
+        PARTICIPANTE,
+        /** Registro de juego → residente. */
+        REGISTRO
+    }
+
+    private final ResidenteRepository residenteRepository;
+    private final EventoSalidaRepository eventoSalidaRepository;
+    private final ParticipanteRepository participanteRepository;
+    private final RegistroJuegoRepository registroJuegoRepository;
+
+    @Value("${pertenencia.max-entradas:1000000}")
+    private int maxEntradas;
+
+    private final Map<Tipo, MapaLongLong> mapas = new EnumMap<>(Tipo.class);
+
+    /**
+     * Borrados de cada tipo. Se incrementa (con el mapa bloqueado) en cada borrado, para no guardar
+     * un padre leído de la base de datos antes de que se confirmara el borrado de la entidad.
+     */
+    private final Map<Tipo, AtomicLong> borrados = new EnumMap<>(Tipo.class);
+
+    {
+        for (Tipo tipo : Tipo.values()) {
+            mapas.put(tipo, new MapaLongLong(1024));
+            borrados.put(tipo, new AtomicLong());
+        }
+    }
+
+    /**
+     * Obtiene la residencia de un residente.
+     *
+     * @param idResidente ID del residente.
+     * @return ID de la residencia, o {@code null} si el residente no existe.
+     */
+    public Long getResidenciaDeResidente(Long idResidente) {
+        return getPadre(Tipo.RESIDENTE, idResidente);
+    }
+
+    /**
+     * Obtiene la residencia de un evento de salida.
+     *
+     * @param idEvento ID del evento.
+     * @return ID de la residencia, o {@code null} si el evento no existe.
+     */
+    public Long getResidenciaDeEvento(Long idEvento) {
+        return getPadre(Tipo.EVENTO, idEvento);
+    }
+
+    /**
+     * Obtiene el evento de salida de un participante.
+     *
+     * @param idParticipante ID del participante.
+     * @return ID del evento, o {@code null} si el participante no existe.
+     */
+    public Long getEventoDeParticipante(Long idParticipante) {
+        return getPadre(Tipo.PARTICIPANTE, idParticipante);
+    }
+
+    /**
+     * Obtiene la residencia de un registro de juego, a través de su residente.
+     *
+     * @param idRegistro ID del registro de juego.
+     * @return ID de la residencia, o {@code null} si el registro o su residente no existen.
+     */
+    public Long getResidenciaDeRegistro(Long idRegistro) {
+        Long idResidente = getPadre(Tipo.REGISTRO, idRegistro);
+        return idResidente == null ? null : getResidenciaDeResidente(idResidente);
+    }
+
+    /**
+     * Añade una entidad recién creada. Si hay una transacción en curso, se hace al confirmarse,
+     * para que un alta deshecha no deje su ID en el índice.
+     *
+     * @param tipo Tipo de la entidad.
+     * @param id ID de la entidad.
+     * @param idPadre ID de su padre (ver {@link Tipo}).
+     */
+    public void registrar(Tipo tipo, Long id, Long idPadre) {
+        if (id == null || idPadre == null) {
+            return;
+        }
+        MapaLongLong mapa = mapas.get(tipo);
+        despuesDeConfirmar(() -> {
+            synchronized (mapa) {
+                poner(mapa, id, idPadre);
+            }
+        });
+    }
+
+    /**
+     * Quita una entidad borrada. Si hay una transacción en curso, se hace al confirmarse.
+     *
+     * @param tipo Tipo de la entidad.
+     * @param id ID de la entidad.
+     */
+    public void olvidar(Tipo tipo, Long id) {
+        if (id == null) {
+            return;
+        }
+        MapaLongLong mapa = mapas.get(tipo);
+        AtomicLong version = borrados.get(tipo);
+        despuesDeConfirmar(() -> {
+            synchronized (mapa) {
+                version.incrementAndGet();
+                mapa.remove(id);
+            }
+        });
+    }
+
+    /**
+     * Vacía el índice de un tipo, para borrados masivos en los que no se conocen los IDs.
+     * Si hay una transacción en curso, se hace al confirmarse.
+     *
+     * @param tipo Tipo de entidad.
+     */
+    public void olvidarTodo(Tipo tipo) {
+        MapaLongLong mapa = mapas.get(tipo);
+        AtomicLong version = borrados.get(tipo);
+        despuesDeConfirmar(() -> {
+            synchronized (mapa) {
+                version.incrementAndGet();
+                mapa.clear();
+            }
+        });
+    }
+
+    private Long getPadre(Tipo tipo, Long id) {
+        if (id == null || id <= 0) {
+            return null;
+        }
+        MapaLongLong mapa = mapas.get(tipo);
+        long version;
+        synchronized (mapa) {
+            long padre = mapa.get(id);
+            if (padre != MapaLongLong.AUSENTE) {
+                return padre;
+            }
+            version = borrados.get(tipo).get();
+        }
+        Optional<Long> cargado = cargar(tipo).apply(id);
+        if (cargado.isEmpty()) {
+            return null;
+        }
+        synchronized (mapa) {
+            // Solo se guarda si no se ha borrado nada de este tipo mientras se leía
+            if (borrados.get(tipo).get() == version) {
+                poner(mapa, id, cargado.get());
+            }
+        }
+        return cargado.get();
+    }
+
+    private LongFunction<Optional<Long>> cargar(Tipo tipo) {
+        return switch (tipo) {
+            case RESIDENTE -> residenteRepository::findIdResidenciaById;
+            case EVENTO -> eventoSalidaRepository::findIdResidenciaById;
+            case PARTICIPANTE -> participanteRepository::findIdEventoById;
+            case REGISTRO -> registroJuegoRepository::findIdResidenteById;
+        };
+    }
+
+    private void poner(MapaLongLong mapa, long id, long idPadre) {
+        if (mapa.size() >= maxEntradas) {
+            mapa.clear();
+        }
+        mapa.put(id, idPadre);
+    }
+
+    private static void despuesDeConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
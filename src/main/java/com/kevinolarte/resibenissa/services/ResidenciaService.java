@@ -3,14 +3,20 @@ package com.kevinolarte.resibenissa.services;
 import com.kevinolarte.resibenissa.dto.in.ResidenciaDto;
 import com.kevinolarte.resibenissa.dto.out.ResidenciaPublicResponseDto;
 import com.kevinolarte.resibenissa.dto.out.ResidenciaResponseDto;
+import com.kevinolarte.resibenissa.dto.out.ResidenteResponseDto;
+import com.kevinolarte.resibenissa.dto.out.UserResponseDto;
 import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.Residencia;
 import com.kevinolarte.resibenissa.repositories.ResidenciaRepository;
 import com.kevinolarte.resibenissa.repositories.ResidenteRepository;
+import com.kevinolarte.resibenissa.repositories.UserRepository;
 import com.kevinolarte.resibenissa.repositories.moduloOrgSalida.EventoSalidaRepository;
 import com.kevinolarte.resibenissa.repositories.moduloOrgSalida.ParticipanteRepository;
+import com.kevinolarte.resibenissa.services.moduloOrgSalida.CalendarioService;
+import com.kevinolarte.resibenissa.services.moduloOrgSalida.HorarioResidentesService;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -36,6 +42,13 @@ public class ResidenciaService {
     private final ResidenteRepository residenteRepository;
     private final ParticipanteRepository participanteRepository;
     private final EventoSalidaRepository eventoSalidaRepository;
+    private final UserRepository userRepository;
+    private final DirectorioResidenciasService directorioResidenciasService;
+    private final HorarioResidentesService horarioResidentesService;
+    private final CalendarioService calendarioService;
+    private final PertenenciaService pertenenciaService;
+
+    private static final int TAMANO_MAXIMO_PAGINA = 500;
 
 
     /**
@@ -72,7 +85,9 @@ public class ResidenciaService {
         }
 
         Residencia residencia = new Residencia(input.getNombre(), input.getEmail());
-        return new ResidenciaResponseDto(residenciaRepository.save(residencia));
+        residencia = residenciaRepository.save(residencia);
+        directorioResidenciasService.invalidar();
+        return new ResidenciaResponseDto(residencia);
     }
 
 
@@ -86,17 +101,50 @@ public class ResidenciaService {
      * @throws ResiException si el ID es nulo o no existe una residencia con ese ID.
      */
     public ResidenciaResponseDto get(Long idResidencia) {
-        Residencia resi;
-
         // Comprobar si el ID de residencia es nulo
         if (idResidencia == null)
             throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
-        else
-            resi = residenciaRepository.findById(idResidencia)
-                    .orElseThrow(() -> new ResiException(ApiErrorCode.RESIDENCIA_INVALIDO));
 
+        return residenciaRepository.findResumenById(idResidencia, LocalDateTime.now())
+                .orElseThrow(() -> new ResiException(ApiErrorCode.RESIDENCIA_INVALIDO));
+    }
+
+    /**
+     * Obtiene una página de los residentes de una residencia.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param baja {@code true} para los residentes de baja, {@code false} para los activos.
+     * @param page Número de página (desde 0).
+     * @param size Residentes por página (como mucho {@value #TAMANO_MAXIMO_PAGINA}).
+     * @return Residentes de la página.
+     * @throws ResiException si la residencia no existe o la página no es válida.
+     */
+    public List<ResidenteResponseDto> getResidentes(Long idResidencia, boolean baja, int page, int size) {
+        validarPagina(page, size);
+        getResidencia(idResidencia);
+        return residenteRepository.findPaginaByResidenciaId(idResidencia, baja, PageRequest.of(page, size));
+    }
 
-        return new ResidenciaResponseDto(resi);
+    /**
+     * Obtiene una página de los usuarios de una residencia.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param baja {@code true} para los usuarios de baja, {@code false} para los activos.
+     * @param page Número de página (desde 0).
+     * @param size Usuarios por página (como mucho {@value #TAMANO_MAXIMO_PAGINA}).
+     * @return Usuarios de la página.
+     * @throws ResiException si la residencia no existe o la página no es válida.
+     */
+    public List<UserResponseDto> getUsuarios(Long idResidencia, boolean baja, int page, int size) {
+        validarPagina(page, size);
+        getResidencia(idResidencia);
+        return userRepository.findPaginaByResidenciaId(idResidencia, baja, PageRequest.of(page, size));
+    }
+
+    private static void validarPagina(int page, int size) {
+        if (page < 0 || size <= 0 || size > TAMANO_MAXIMO_PAGINA) {
+            throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
+        }
     }
 
     /**
@@ -137,6 +185,10 @@ public class ResidenciaService {
         }
 
         residenciaRepository.delete(residenciaTmp);
+        directorioResidenciasService.invalidar();
+        // Sus eventos y residentes se borran en cascada (y con ellos participantes y registros)
+        pertenenciaService.olvidarTodo(PertenenciaService.Tipo.RESIDENTE);
+        pertenenciaService.olvidarTodo(PertenenciaService.Tipo.EVENTO);
     }
 
     /**
@@ -168,10 +220,14 @@ public class ResidenciaService {
 
         participanteRepository.deleteAllByResidenciaId(residencia.getId());
         eventoSalidaRepository.deleteAllByResidenciaId(residencia.getId());
+        horarioResidentesService.invalidarTodo();
+        calendarioService.cambio(residencia.getId());
+        pertenenciaService.olvidarTodo(PertenenciaService.Tipo.EVENTO);
 
 
 
         residenciaRepository.save(residencia);
+        directorioResidenciasService.invalidar();
     }
 
 
@@ -10,9 +10,20 @@ import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.Residencia;
 import com.kevinolarte.resibenissa.models.Residente;
+import com.kevinolarte.resibenissa.repositories.ProyeccionRepository;
 import com.kevinolarte.resibenissa.repositories.ResidenteRepository;
+import com.kevinolarte.resibenissa.repositories.moduloOrgSalida.EventoSalidaRepository;
 import com.kevinolarte.resibenissa.repositories.moduloOrgSalida.ParticipanteRepository;
+import com.kevinolarte.resibenissa.repositories.moduloWallet.CheckpointWalletRepository;
+import com.kevinolarte.resibenissa.repositories.moduloWallet.MovimientoWalletRepository;
+import com.kevinolarte.resibenissa.repositories.moduloWallet.ResumenMensualWalletRepository;
+import com.kevinolarte.resibenissa.repositories.moduloWallet.WalletRepository;
+import com.kevinolarte.resibenissa.repositories.modulojuego.RegistroJuegoRepository;
+import com.kevinolarte.resibenissa.services.moduloOrgSalida.CalendarioService;
+import com.kevinolarte.resibenissa.services.moduloOrgSalida.HorarioResidentesService;
+import com.kevinolarte.resibenissa.services.moduloReporting.EmailOutboxService;
 import com.kevinolarte.resibenissa.specifications.ResidenteSpecification;
+import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
@@ -27,7 +38,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Servicio encargado de gestionar la lógica de negocio relacionada con los residentes.
@@ -42,10 +53,25 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class ResidenteService {
     private final ResidenteRepository residenteRepository;
+    private final ProyeccionRepository proyeccionRepository;
     private final ResidenciaService residenciaService;
     private final PasswordEncoder passwordEncoder;
     private final ParticipanteRepository participanteRepository;
-    private final EmailService emailService;
+    private final EventoSalidaRepository eventoSalidaRepository;
+    private final HorarioResidentesService horarioResidentesService;
+    private final CalendarioService calendarioService;
+    private final EmailOutboxService emailOutboxService;
+    private final PertenenciaService pertenenciaService;
+    private final RegistroJuegoRepository registroJuegoRepository;
+    private final WalletRepository walletRepository;
+    private final MovimientoWalletRepository movimientoWalletRepository;
+    private final CheckpointWalletRepository checkpointWalletRepository;
+    private final ResumenMensualWalletRepository resumenMensualWalletRepository;
+
+    /**
+     * Máximo de filas que se eliminan por sentencia al borrar un residente.
+     */
+    private static final int TAMANO_LOTE_BORRADO = 5000;
 
     /**
      * Registra un nuevo residente asociado a una residencia.
@@ -97,6 +123,7 @@ public class ResidenteService {
         Residente residente = new Residente(input.getNombre(), input.getApellido(), input.getFechaNacimiento(), input.getDocumentoIdentidad(), input.getFamiliar1(), input.getFamiliar2());
         residente.setResidencia(residencia);
         Residente residenteSaved = residenteRepository.save(residente);
+        pertenenciaService.registrar(PertenenciaService.Tipo.RESIDENTE, residenteSaved.getId(), idResidencia);
         return new ResidenteResponseDto(residenteSaved);
 
     }
@@ -140,10 +167,7 @@ public class ResidenteService {
         Specification<Residente> spec = ResidenteSpecification.withFilters(null, fechaNacimiento, minFNac, maxFNac, maxAge, minAge, idJuego, idEvento);
 
         Sort sort = (filtrado != null) ? filtrado.toSort() : Sort.by(Sort.Direction.ASC, "apellido");
-        List<Residente> residentes = residenteRepository.findAll(spec, sort);
-
-
-        return residentes.stream().map(ResidenteResponseDto::new).collect(Collectors.toList());
+        return proyeccionRepository.findAll(Residente.class, spec, sort, ResidenteResponseDto.class, ResidenteSpecification::columnasResponse);
 
     }
 
@@ -171,10 +195,7 @@ public class ResidenteService {
         Specification<Residente> spec = ResidenteSpecification.withFilters(idResidencia, fechaNacimiento, minFNac, maxFNac, maxAge, minAge, idJuego, idEvento);
 
         Sort sort = (filtrado != null) ? filtrado.toSort() : Sort.by(Sort.Direction.ASC, "apellido");
-        List<Residente> residentes = residenteRepository.findAll(spec, sort);
-
-
-        return residentes.stream().map(ResidenteResponseDto::new).collect(Collectors.toList());
+        return proyeccionRepository.findAll(Residente.class, spec, sort, ResidenteResponseDto.class, ResidenteSpecification::columnasResponse);
     }
 
     /**
@@ -191,9 +212,8 @@ public class ResidenteService {
             throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
         }
 
-        List<Residente> lista =  residenteRepository.findAll(ResidenteSpecification.withFiltersBaja(fecha, minFecha, maxFecha, idResidencia));
-
-        return lista.stream().map(ResidenteResponseDto::new).toList();
+        return proyeccionRepository.findAll(Residente.class, ResidenteSpecification.withFiltersBaja(fecha, minFecha, maxFecha, idResidencia),
+                null, ResidenteResponseDto.class, ResidenteSpecification::columnasResponse);
     }
 
     /**
@@ -205,9 +225,8 @@ public class ResidenteService {
      * @throws ResiException si la residencia no existe o el ID es nulo.
      */
     public List<ResidenteResponseDto> getAllBajas( LocalDate fecha, LocalDate minFecha, LocalDate maxFecha) {
-        List<Residente> lista =  residenteRepository.findAll(ResidenteSpecification.withFiltersBaja(fecha, minFecha, maxFecha, null));
-
-        return lista.stream().map(ResidenteResponseDto::new).toList();
+        return proyeccionRepository.findAll(Residente.class, ResidenteSpecification.withFiltersBaja(fecha, minFecha, maxFecha, null),
+                null, ResidenteResponseDto.class, ResidenteSpecification::columnasResponse);
     }
 
 
@@ -221,10 +240,38 @@ public class ResidenteService {
      * @throws ResiException si no existe el residente o no pertenece a la residencia.
      */
     public void deleteFisico(Long idResidencia, Long idResidente) {
-        Residente residenteTmp = getResidente(idResidencia, idResidente);
+        comprobarResidente(idResidencia, idResidente);
+
+        // Eliminar por lotes todo lo que depende del residente, sin cargarlo.
+        // Cada lote se confirma por separado: si falla a mitad, se puede repetir el borrado.
+        List<Long> idsEvento = participanteRepository.findIdsEventoByResidenteId(idResidente);
+        borrarPorLotes(limite -> participanteRepository.deleteLoteByResidenteId(idResidente, limite));
+        if (!idsEvento.isEmpty()) {
+            eventoSalidaRepository.recalcularContadores(idsEvento);
+        }
+        borrarPorLotes(limite -> registroJuegoRepository.deleteLoteByResidenteId(idResidente, limite));
+        borrarPorLotes(limite -> movimientoWalletRepository.deleteLoteByResidenteId(idResidente, limite));
+        borrarPorLotes(limite -> resumenMensualWalletRepository.deleteLoteByResidenteId(idResidente, limite));
+        checkpointWalletRepository.deleteByResidenteId(idResidente);
+        walletRepository.deleteByResidenteId(idResidente);
+
         // Eliminar el residente
-        residenteRepository.delete(residenteTmp);
+        residenteRepository.deleteSinCascadaById(idResidente);
+        horarioResidentesService.invalidarResidente(idResidente);
+        calendarioService.cambio(idResidencia);
+        pertenenciaService.olvidar(PertenenciaService.Tipo.RESIDENTE, idResidente);
+    }
 
+    /**
+     * Repite una sentencia de borrado por lotes hasta que elimina menos filas que el tamaño del lote.
+     *
+     * @param borrarLote Sentencia que recibe el tamaño del lote y devuelve las filas eliminadas.
+     */
+    private static void borrarPorLotes(IntUnaryOperator borrarLote) {
+        int borrados;
+        do {
+            borrados = borrarLote.applyAsInt(TAMANO_LOTE_BORRADO);
+        } while (borrados == TAMANO_LOTE_BORRADO);
     }
 
     /**
@@ -234,6 +281,7 @@ public class ResidenteService {
      * @param idResidente  ID del residente.
      * @throws ResiException si el residente no existe o ya está dado de baja.
      */
+    @Transactional
     public void deleteLogico(Long idResidencia, Long idResidente) {
         // Validar que el residente existe
         Residente residenteUpdatable = getResidente(idResidencia, idResidente);
@@ -243,7 +291,16 @@ public class ResidenteService {
             throw new ResiException(ApiErrorCode.RESIDENTE_BAJA);
 
         darBajaUser(residenteUpdatable, passwordEncoder);
+        List<Long> idsEvento = residenteUpdatable.getParticipantes().stream()
+                .map(p -> p.getEvento().getId())
+                .toList();
         participanteRepository.deleteAll(residenteUpdatable.getParticipantes());
+        if (!idsEvento.isEmpty()) {
+            participanteRepository.flush();
+            eventoSalidaRepository.recalcularContadores(idsEvento);
+        }
+        horarioResidentesService.invalidarResidente(residenteUpdatable.getId());
+        calendarioService.cambio(idResidencia);
         residenteRepository.save(residenteUpdatable);
 
 
@@ -334,12 +391,16 @@ public class ResidenteService {
 
     /**
      * Envía un correo electrónico a los familiares de un residente.
+     * <p>
+     * Los correos se guardan en la bandeja de salida y se envían en segundo plano.
+     * </p>
      *
      * @param idResidencia ID de la residencia.
      * @param idResidente  ID del residente.
      * @param input        DTO con el asunto y cuerpo del correo.
      * @throws ResiException si el residente no existe o no tiene familiares asociados.
      */
+    @Transactional
     public void sendEmailFamiliar(Long idResidencia, Long idResidente, EmailRequestDto input) {
 
         // Validar que el residente existe
@@ -350,13 +411,9 @@ public class ResidenteService {
             throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
         }
         //Enviar correo al familiar
-        try{
-            emailService.sendEmail(residenteTmp.getFamiliar1(), input.getSubject(), input.getBody());
-            if(residenteTmp.getFamiliar2() != null)
-                emailService.sendEmail(residenteTmp.getFamiliar2(), input.getSubject(), input.getBody());
-        }catch (Exception e){
-            throw new ResiException(ApiErrorCode.ERROR_MAIL_SENDER);
-        }
+        emailOutboxService.encolarFamiliar(residenteTmp.getFamiliar1(), input.getSubject(), input.getBody(), null, input.isUrgente());
+        if(residenteTmp.getFamiliar2() != null)
+            emailOutboxService.encolarFamiliar(residenteTmp.getFamiliar2(), input.getSubject(), input.getBody(), null, input.isUrgente());
     }
 
 
@@ -389,20 +446,26 @@ public class ResidenteService {
      * @throws ResiException si no existe o no pertenece a la residencia.
      */
     public Residente getResidente(Long idResidencia, Long idResidente) {
+        comprobarResidente(idResidencia, idResidente);
+
+        return residenteRepository.findById(idResidente)
+                .orElseThrow(() -> new ResiException(ApiErrorCode.RESIDENTE_INVALIDO));
+    }
+
+    /**
+     * Comprueba que un residente existe y pertenece a una residencia, sin cargarlo.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param idResidente ID del residente.
+     * @throws ResiException si falta algún ID, o el residente no existe o no pertenece a la residencia.
+     */
+    public void comprobarResidente(Long idResidencia, Long idResidente) {
         if (idResidencia == null || idResidente == null) {
             throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
         }
-
-        // Validar que el residente existe
-        Residente residenteTmp = residenteRepository.findById(idResidente).orElse(null);
-        if (residenteTmp == null) {
-            throw new ResiException(ApiErrorCode.RESIDENTE_INVALIDO);
-        }
-        //Comrpobar que el residente pertenece a la residencia
-        if (!Objects.equals(residenteTmp.getResidencia().getId(), idResidencia)) {
+        if (!Objects.equals(pertenenciaService.getResidenciaDeResidente(idResidente), idResidencia)) {
             throw new ResiException(ApiErrorCode.RESIDENTE_INVALIDO);
         }
-        return residenteTmp;
     }
 
 
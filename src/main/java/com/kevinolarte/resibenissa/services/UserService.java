@@ -7,9 +7,10 @@ import com.kevinolarte.resibenissa.dto.out.UserResponseDto;
 import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.Residencia;
-import com.kevinolarte.resibenissa.models.modulojuego.RegistroJuego;
 import com.kevinolarte.resibenissa.models.User;
+import com.kevinolarte.resibenissa.repositories.ProyeccionRepository;
 import com.kevinolarte.resibenissa.repositories.UserRepository;
+import com.kevinolarte.resibenissa.repositories.modulojuego.RegistroJuegoRepository;
 import com.kevinolarte.resibenissa.specifications.UserSpecification;
 import lombok.AllArgsConstructor;
 import org.springframework.core.io.Resource;
@@ -21,7 +22,6 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.LinkedHashSet;
 import java.util.List;
 
 /**
@@ -38,8 +38,15 @@ import java.util.List;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final ProyeccionRepository proyeccionRepository;
     private final ResidenciaService residenciaService;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final RegistroJuegoRepository registroJuegoRepository;
+
+    /**
+     * Máximo de registros de juego que se desvinculan por sentencia.
+     */
+    private static final int TAMANO_LOTE_DESVINCULAR = 5000;
 
     /**
      * Guarda un nuevo usuario en la base de datos.
@@ -160,9 +167,8 @@ public class UserService {
             throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
         }
 
-        List<User> list = userRepository.findAll(UserSpecification.withFilters(enabled,idResidencia, idJuego));
-
-        return list.stream().map(UserResponseDto::new).toList();
+        return proyeccionRepository.findAll(User.class, UserSpecification.withFilters(enabled, idResidencia, idJuego),
+                null, UserResponseDto.class, UserSpecification::columnasResponse);
 
 
 
@@ -178,9 +184,8 @@ public class UserService {
      */
     public List<UserResponseDto> getAll(Boolean enabled, Long idJuego) {
 
-        List<User> list = userRepository.findAll(UserSpecification.withFilters(enabled,null, idJuego));
-
-        return list.stream().map(UserResponseDto::new).toList();
+        return proyeccionRepository.findAll(User.class, UserSpecification.withFilters(enabled, null, idJuego),
+                null, UserResponseDto.class, UserSpecification::columnasResponse);
 
 
     }
@@ -195,10 +200,8 @@ public class UserService {
     public List<UserResponseDto> getAllBajas(Long idResidencia, LocalDate fecha, LocalDate minFecha, LocalDate maxFecha) {
         if (idResidencia == null) throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
 
-        List<User> list = userRepository.findAll(UserSpecification.withFiltersBaja(fecha,minFecha, maxFecha, idResidencia));
-
-
-        return list.stream().map(UserResponseDto::new).toList();
+        return proyeccionRepository.findAll(User.class, UserSpecification.withFiltersBaja(fecha, minFecha, maxFecha, idResidencia),
+                null, UserResponseDto.class, UserSpecification::columnasResponse);
 
     }
 
@@ -213,9 +216,8 @@ public class UserService {
      */
     public List<UserResponseDto> getAllBajas(LocalDate fecha, LocalDate minFecha, LocalDate maxFecha) {
 
-        List<User> list = userRepository.findAll(UserSpecification.withFiltersBaja(fecha,minFecha, maxFecha, null));
-
-        return list.stream().map(UserResponseDto::new).toList();
+        return proyeccionRepository.findAll(User.class, UserSpecification.withFiltersBaja(fecha, minFecha, maxFecha, null),
+                null, UserResponseDto.class, UserSpecification::columnasResponse);
 
     }
 
@@ -233,7 +235,7 @@ public class UserService {
         User userTmp = getUsuario(idResidencia, idUser);
 
         // Comprobar juegos asociados
-        if (userTmp.getRegistroJuegos() != null && !userTmp.getRegistroJuegos().isEmpty()){
+        if (registroJuegoRepository.existsByUsuarioId(idUser)){
             throw new ResiException(ApiErrorCode.REFERENCIAS_DEPENDIENTES);
         }
 
@@ -293,12 +295,11 @@ public class UserService {
         if (!userTmp.getResidencia().getId().equals(idResidencia)) {
             throw new ResiException(ApiErrorCode.USUARIO_INVALIDO);
         }
-        // Desvincular el usuario de todos los registros de juego
-        for(RegistroJuego reg : userTmp.getRegistroJuegos()){
-            reg.setUsuario(null);
-        }
-        userTmp.setRegistroJuegos(new LinkedHashSet<>());
-        userRepository.save(userTmp);
+        // Desvincular el usuario de todos los registros de juego, por lotes y sin cargarlos
+        int desvinculados;
+        do {
+            desvinculados = registroJuegoRepository.desvincularLoteByUsuarioId(idUser, TAMANO_LOTE_DESVINCULAR);
+        } while (desvinculados == TAMANO_LOTE_DESVINCULAR);
     }
 
 
@@ -0,0 +1,281 @@
+package com.kevinolarte.resibenissa.services.moduloOrgSalida;
+
+import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
+import com.kevinolarte.resibenissa.exceptions.ResiException;
+import com.kevinolarte.resibenissa.services.JwtService;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio que genera los calendarios iCalendar (ICS) de las salidas de una residencia o de un residente,
+ * para suscribirse desde aplicaciones de calendario.
+ * <p>
+ * Los calendarios se escriben en streaming directamente desde una consulta por rango sobre
+ * {@code eventos} (o {@code participantes} para un residente), sin cargar entidades. Como los clientes
+ * de calendario consultan a menudo, cada residencia tiene una versión en memoria que cambia cuando se
+ * confirma algún cambio en sus eventos o participantes; el ETag y el {@code Last-Modified} salen de esa
+ * versión, así que la mayoría de consultas se responden con {@code 304} sin tocar la base de datos.
+ * </p>
+ * <p>
+ * Las aplicaciones de calendario no pueden enviar el token de sesión, por lo que el enlace de
+ * suscripción lleva un token firmado propio ({@link #generarToken(Long, Long)}).
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Service
+@RequiredArgsConstructor
+public class CalendarioService {
+
+    private static final String CLAIM_CALENDARIO = "calendario";
+    private static final DateTimeFormatter FORMATO_FECHA_HORA = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final int TAMANO_LINEA = 73;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JwtService jwtService;
+
+    @Value("${calendario.dias-pasados:90}")
+    private int diasPasados;
+
+    @Value("${calendario.token-dias:365}")
+    private int tokenDias;
+
+    /**
+     * Versión del calendario de cada residencia y momento del último cambio.
+     */
+    record Version(long numero, Instant modificado) {}
+
+    /**
+     * Marca de arranque, para que los ETag no se repitan entre reinicios.
+     */
+    private final long arranque = System.currentTimeMillis();
+    private final Instant versionInicial = Instant.ofEpochMilli(arranque / 1000 * 1000);
+    private final Map<Long, Version> versiones = new ConcurrentHashMap<>();
+
+    /**
+     * Datos de un enlace de suscripción ya verificado.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param idResidente ID del residente, o {@code null} para el calendario de toda la residencia.
+     */
+    public record Suscripcion(Long idResidencia, Long idResidente) {}
+
+    /**
+     * Genera el token del enlace de suscripción a un calendario.
+     *
+     * @param idResidencia ID de la residencia (ya validada).
+     * @param idResidente ID del residente (ya validado), o {@code null} para toda la residencia.
+     * @return Token firmado.
+     */
+    public String generarToken(Long idResidencia, Long idResidente) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_CALENDARIO, true);
+        claims.put("idResidencia", idResidencia);
+        if (idResidente != null) {
+            claims.put("idResidente", idResidente);
+        }
+        return jwtService.generateTokenConExpiracionCustomClaims(claims, Duration.ofDays(tokenDias));
+    }
+
+    /**
+     * Verifica el token de un enlace de suscripción.
+     *
+     * @param token Token del enlace.
+     * @return Calendario al que da acceso.
+     * @throws ResiException si el token no es válido, ha caducado o no es de un calendario.
+     */
+    public Suscripcion verificarToken(String token) {
+        Claims claims;
+        try {
+            claims = jwtService.extractClaim(token, c -> c);
+        } catch (Exception e) {
+            throw new ResiException(ApiErrorCode.ENDPOINT_PROTEGIDO);
+        }
+        if (!Boolean.TRUE.equals(claims.get(CLAIM_CALENDARIO)) || !(claims.get("idResidencia") instanceof Number idResidencia)) {
+            throw new ResiException(ApiErrorCode.ENDPOINT_PROTEGIDO);
+        }
+        Long idResidente = claims.get("idResidente") instanceof Number id ? id.longValue() : null;
+        return new Suscripcion(idResidencia.longValue(), idResidente);
+    }
+
+    /**
+     * Obtiene el ETag del calendario de una suscripción.
+     *
+     * @param suscripcion Calendario.
+     * @return ETag fuerte.
+     */
+    public String getEtag(Suscripcion suscripcion) {
+        return "\"cal-" + arranque + "-" + suscripcion.idResidencia()
+                + (suscripcion.idResidente() != null ? "-" + suscripcion.idResidente() : "")
+                + "-" + getVersion(suscripcion.idResidencia()).numero() + "\"";
+    }
+
+    /**
+     * Obtiene el momento del último cambio en el calendario de una residencia.
+     *
+     * @param idResidencia ID de la residencia.
+     * @return Momento del último cambio (o del arranque, si no ha habido ninguno).
+     */
+    public Instant getUltimaModificacion(Long idResidencia) {
+        return getVersion(idResidencia).modificado();
+    }
+
+    /**
+     * Registra que han cambiado los eventos o participantes de una residencia.
+     * Si hay una transacción en curso, se hace al confirmarse.
+     *
+     * @param idResidencia ID de la residencia.
+     */
+    public void cambio(Long idResidencia) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incrementar(idResidencia);
+                }
+            });
+        } else {
+            incrementar(idResidencia);
+        }
+    }
+
+    /**
+     * Escribe el calendario ICS de una suscripción: los eventos desde {@code calendario.dias-pasados} días atrás.
+     *
+     * @param suscripcion Calendario a escribir.
+     * @param salida Flujo de salida (no se cierra).
+     */
+    public void escribir(Suscripcion suscripcion, OutputStream salida) {
+        Timestamp desde = Timestamp.valueOf(LocalDate.now().minusDays(diasPasados).atStartOfDay());
+        String dtstamp = FORMATO_FECHA_HORA.format(LocalDateTime.ofInstant(getUltimaModificacion(suscripcion.idResidencia()), ZoneOffset.UTC)) + "Z";
+        try {
+            Writer writer = new OutputStreamWriter(salida, StandardCharsets.UTF_8);
+            linea(writer, "BEGIN:VCALENDAR");
+            linea(writer, "VERSION:2.0");
+            linea(writer, "PRODID:-//Resibenissa//Salidas//ES");
+            linea(writer, "CALSCALE:GREGORIAN");
+            linea(writer, "X-WR-CALNAME:" + escapar(suscripcion.idResidente() == null ? "Salidas de la residencia" : "Salidas del residente"));
+
+            if (suscripcion.idResidente() == null) {
+                jdbcTemplate.query("""
+                        SELECT e.id, e.nombre, e.descripcion, e.fecha_inicio, e.duracion_minutos
+                        FROM eventos e
+                        WHERE e.fk_residencia = ? AND e.fecha_inicio >= ?
+                        ORDER BY e.fecha_inicio
+                        """, rs -> {
+                    escribirEvento(writer, dtstamp, rs.getLong(1), rs.getString(2), rs.getString(3),
+                            rs.getTimestamp(4).toLocalDateTime(), (Integer) rs.getObject(5));
+                }, suscripcion.idResidencia(), desde);
+            } else {
+                jdbcTemplate.query("""
+                        SELECT e.id, e.nombre, e.descripcion, e.fecha_inicio, e.duracion_minutos
+                        FROM participantes p
+                        JOIN eventos e ON e.id = p.fk_evento
+                        WHERE p.fk_residente = ? AND p.baja = false
+                          AND e.fk_residencia = ? AND e.fecha_inicio >= ?
+                        ORDER BY e.fecha_inicio
+                        """, rs -> {
+                    escribirEvento(writer, dtstamp, rs.getLong(1), rs.getString(2), rs.getString(3),
+                            rs.getTimestamp(4).toLocalDateTime(), (Integer) rs.getObject(5));
+                }, suscripcion.idResidente(), suscripcion.idResidencia(), desde);
+            }
+
+            linea(writer, "END:VCALENDAR");
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void escribirEvento(Writer writer, String dtstamp, long id, String nombre, String descripcion,
+                                LocalDateTime inicio, Integer duracionMinutos) {
+        try {
+            linea(writer, "BEGIN:VEVENT");
+            linea(writer, "UID:evento-" + id + "@resibenissa");
+            linea(writer, "DTSTAMP:" + dtstamp);
+            if (duracionMinutos == null) {
+                // Sin duración: evento de día completo
+                linea(writer, "DTSTART;VALUE=DATE:" + FORMATO_FECHA.format(inicio));
+                linea(writer, "DTEND;VALUE=DATE:" + FORMATO_FECHA.format(inicio.plusDays(1)));
+            } else {
+                linea(writer, "DTSTART:" + FORMATO_FECHA_HORA.format(inicio));
+                linea(writer, "DTEND:" + FORMATO_FECHA_HORA.format(inicio.plusMinutes(duracionMinutos)));
+            }
+            linea(writer, "SUMMARY:" + escapar(nombre));
+            if (descripcion != null && !descripcion.isEmpty()) {
+                linea(writer, "DESCRIPTION:" + escapar(descripcion));
+            }
+            linea(writer, "END:VEVENT");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Version getVersion(Long idResidencia) {
+        return versiones.getOrDefault(idResidencia, new Version(0, versionInicial));
+    }
+
+    private void incrementar(Long idResidencia) {
+        // Last-Modified va en segundos: se redondea hacia arriba para que nunca sea anterior al cambio
+        Instant ahora = Instant.ofEpochSecond(Instant.now().getEpochSecond() + 1);
+        versiones.compute(idResidencia, (k, v) -> new Version(v == null ? 1 : v.numero() + 1, ahora));
+    }
+
+    /**
+     * Escapa un texto según RFC 5545.
+     */
+    private static String escapar(String texto) {
+        return texto.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n")
+                .replace("\r", "\\n");
+    }
+
+    /**
+     * Escribe una línea terminada en CRLF, plegándola en trozos de como mucho {@value #TAMANO_LINEA}
+     * bytes UTF-8 (RFC 5545 limita las líneas a 75 bytes; las de continuación empiezan por un espacio).
+     */
+    private static void linea(Writer writer, String texto) throws IOException {
+        int inicio = 0;
+        int bytes = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            int n = c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+            // No se parte un par sustituto (un carácter de 4 bytes)
+            if (bytes + n > TAMANO_LINEA && !Character.isLowSurrogate(c)) {
+                writer.write(texto, inicio, i - inicio);
+                writer.write("\r\n ");
+                inicio = i;
+                bytes = 0;
+            }
+            bytes += n;
+        }
+        writer.write(texto, inicio, texto.length() - inicio);
+        writer.write("\r\n");
+    }
+}
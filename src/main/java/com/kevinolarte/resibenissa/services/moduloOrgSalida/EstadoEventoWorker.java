@@ -0,0 +1,198 @@
+package com.kevinolarte.resibenissa.services.moduloOrgSalida;
+
+import com.kevinolarte.resibenissa.enums.moduloOrgSalida.EstadoSalida;
+import com.kevinolarte.resibenissa.repositories.moduloOrgSalida.EventoSalidaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Proceso en segundo plano que avanza el estado de los eventos de salida según su fecha:
+ * {@code ABIERTO → CERRADO} {@code eventos.estado.cierre-antes-minutos} antes del inicio,
+ * {@code CERRADO → EN_CURSO} al empezar y {@code EN_CURSO → FINALIZADA} al terminar
+ * (tras su duración o, si no tiene, al acabar el día).
+ * <p>
+ * No recorre la tabla de eventos en cada pasada: mantiene en una cola de prioridad solo el siguiente
+ * cambio de cada evento que toca dentro de {@code eventos.estado.horizonte-minutos}, y la rellena
+ * periódicamente con una consulta por índice ({@code estado, fecha_inicio}). Al arrancar carga también
+ * los cambios atrasados, que se aplican en la primera pasada. Los cambios que vencen a la vez se
+ * aplican con un {@code UPDATE} por transición, que solo afecta a los eventos que sigan en el
+ * estado esperado (si alguien lo cambió a mano, se respeta).
+ * </p>
+ * <p>
+ * {@link EventoSalidaService} avisa con {@link #planificar(Long)} cuando crea un evento o cambia su
+ * fecha, duración o estado, y con {@link #descartar(Long)} cuando lo borra.
+ * </p>
+ *
+ * Se puede desactivar con {@code eventos.estado.automatico=false}.
+ *
+ * @author Kevin Olarte
+ */
+@Component
+@RequiredArgsConstructor
+public class EstadoEventoWorker {
+
+    private final EventoSalidaRepository eventoSalidaRepository;
+
+    @Value("${eventos.estado.automatico:true}")
+    private boolean automatico;
+
+    @Value("${eventos.estado.cierre-antes-minutos:1440}")
+    private long cierreAntesMinutos;
+
+    @Value("${eventos.estado.horizonte-minutos:1440}")
+    private long horizonteMinutos;
+
+    /**
+     * Siguiente cambio de estado de un evento.
+     */
+    record Transicion(Long idEvento, EstadoSalida desde, EstadoSalida hasta, LocalDateTime cuando) {}
+
+    private final PriorityQueue<Transicion> cola = new PriorityQueue<>(Comparator.comparing(Transicion::cuando));
+
+    /**
+     * Transición vigente de cada evento en la cola; las entradas de la cola que ya no coinciden se ignoran.
+     */
+    private final Map<Long, Transicion> vigentes = new ConcurrentHashMap<>();
+
+    /**
+     * Hasta cuándo se han cargado las transiciones de la base de datos.
+     */
+    private volatile LocalDateTime cargadoHasta = LocalDateTime.MIN;
+
+    /**
+     * Carga al arrancar las transiciones pendientes, incluidas las atrasadas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        if (automatico) {
+            recargar();
+        }
+    }
+
+    /**
+     * Rellena la cola con las transiciones que vencen dentro del horizonte.
+     * Se ejecuta con la mitad de frecuencia que el horizonte, para que la cola nunca se quede corta.
+     */
+    @Scheduled(fixedDelayString = "#{${eventos.estado.horizonte-minutos:1440} * 30000}",
+               initialDelayString = "#{${eventos.estado.horizonte-minutos:1440} * 30000}")
+    public void recargar() {
+        if (!automatico) {
+            return;
+        }
+        LocalDateTime hasta = LocalDateTime.now().plusMinutes(horizonteMinutos);
+        // Un evento ABIERTO se cierra antes de empezar, así que hay que mirar un poco más allá
+        List<Object[]> filas = eventoSalidaRepository.findPendientesHasta(hasta.plusMinutes(cierreAntesMinutos));
+        synchronized (this) {
+            cargadoHasta = hasta;
+            filas.forEach(this::encolar);
+        }
+    }
+
+    /**
+     * Aplica los cambios de estado vencidos, agrupados por transición.
+     */
+    @Scheduled(fixedDelayString = "${eventos.estado.intervalo-ms:30000}")
+    public void avanzar() {
+        if (!automatico) {
+            return;
+        }
+        while (true) {
+            Map<EstadoSalida, List<Long>> vencidos = new EnumMap<>(EstadoSalida.class);
+            LocalDateTime ahora = LocalDateTime.now();
+            synchronized (this) {
+                while (!cola.isEmpty() && !cola.peek().cuando().isAfter(ahora)) {
+                    Transicion t = cola.poll();
+                    if (vigentes.remove(t.idEvento(), t)) {
+                        vencidos.computeIfAbsent(t.desde(), k -> new ArrayList<>()).add(t.idEvento());
+                    }
+                }
+            }
+            if (vencidos.isEmpty()) {
+                return;
+            }
+            List<Long> cambiados = new ArrayList<>();
+            vencidos.forEach((desde, ids) -> {
+                eventoSalidaRepository.cambiarEstado(ids, desde, siguiente(desde));
+                cambiados.addAll(ids);
+            });
+            // El siguiente paso puede vencer ya (p. ej. eventos atrasados), así que se repite la pasada
+            replanificar(cambiados);
+        }
+    }
+
+    /**
+     * Vuelve a planificar un evento después de crearlo o de cambiar su fecha, duración o estado.
+     *
+     * @param idEvento ID del evento.
+     */
+    public void planificar(Long idEvento) {
+        if (automatico) {
+            replanificar(List.of(idEvento));
+        }
+    }
+
+    /**
+     * Quita de la cola un evento borrado.
+     *
+     * @param idEvento ID del evento.
+     */
+    public void descartar(Long idEvento) {
+        vigentes.remove(idEvento);
+    }
+
+    private void replanificar(Collection<Long> ids) {
+        List<Object[]> filas = eventoSalidaRepository.findEstadosByIdIn(ids);
+        synchronized (this) {
+            ids.forEach(vigentes::remove);
+            filas.forEach(this::encolar);
+        }
+    }
+
+    /**
+     * Añade a la cola la siguiente transición de un evento, si vence antes de lo ya cargado.
+     *
+     * @param fila {@code [id, estado, fechaInicio, duracionMinutos]}.
+     */
+    private void encolar(Object[] fila) {
+        Long id = (Long) fila[0];
+        EstadoSalida estado = (EstadoSalida) fila[1];
+        LocalDateTime fechaInicio = (LocalDateTime) fila[2];
+        Integer duracion = (Integer) fila[3];
+
+        LocalDateTime cuando = switch (estado) {
+            case ABIERTO -> fechaInicio.minusMinutes(cierreAntesMinutos);
+            case CERRADO -> fechaInicio;
+            case EN_CURSO -> HorarioResidentesService.fechaFin(fechaInicio, duracion);
+            case FINALIZADA -> null;
+        };
+        if (cuando == null || cuando.isAfter(cargadoHasta)) {
+            return;
+        }
+        Transicion transicion = new Transicion(id, estado, siguiente(estado), cuando);
+        if (!transicion.equals(vigentes.put(id, transicion))) {
+            cola.add(transicion);
+        }
+    }
+
+    private static EstadoSalida siguiente(EstadoSalida estado) {
+        return switch (estado) {
+            case ABIERTO -> EstadoSalida.CERRADO;
+            case CERRADO -> EstadoSalida.EN_CURSO;
+            case EN_CURSO, FINALIZADA -> EstadoSalida.FINALIZADA;
+        };
+    }
+}
@@ -9,10 +9,12 @@ import com.kevinolarte.resibenissa.models.Residencia;
 import com.kevinolarte.resibenissa.models.moduloOrgSalida.EventoSalida;
 import com.kevinolarte.resibenissa.repositories.moduloOrgSalida.EventoSalidaRepository;
 import com.kevinolarte.resibenissa.repositories.moduloOrgSalida.ParticipanteRepository;
+import com.kevinolarte.resibenissa.services.PertenenciaService;
 import com.kevinolarte.resibenissa.services.ResidenciaService;
 import com.kevinolarte.resibenissa.services.ResidenteService;
 import com.kevinolarte.resibenissa.specifications.EventoSalidaSpecification;
 import lombok.AllArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -36,6 +38,10 @@ public class EventoSalidaService {
     private final ResidenciaService residenciaService;
     private final ResidenteService residenteService;
     private final ParticipanteRepository participanteRepository;
+    private final HorarioResidentesService horarioResidentesService;
+    private final EstadoEventoWorker estadoEventoWorker;
+    private final CalendarioService calendarioService;
+    private final PertenenciaService pertenenciaService;
     private final static EstadoSalida[] secuenciaEstados =
             {EstadoSalida.CERRADO, EstadoSalida.EN_CURSO,EstadoSalida.FINALIZADA, EstadoSalida.ABIERTO};
 
@@ -68,12 +74,16 @@ public class EventoSalidaService {
         if (eventoSalidaRepository.existsByNombreAndResidenciaId(input.getNombre(), idResidencia)) {
             throw new ResiException(ApiErrorCode.NOMBRE_DUPLICADO);
         }
+        validarDuracion(input.getDuracionMinutos());
 
 
         // Crear el evento de salida
         EventoSalida eventoSalida = new EventoSalida(input);
         eventoSalida.setResidencia(res);
         EventoSalida newEventoSalida = eventoSalidaRepository.save(eventoSalida);
+        pertenenciaService.registrar(PertenenciaService.Tipo.EVENTO, newEventoSalida.getId(), idResidencia);
+        estadoEventoWorker.planificar(newEventoSalida.getId());
+        calendarioService.cambio(idResidencia);
 
 
         return new EventoSalidaResponseDto(newEventoSalida);
@@ -166,6 +176,10 @@ public class EventoSalidaService {
         EventoSalida eventoSalida = getEventoSalida(idResidencia, idEventoSalida);
 
         eventoSalidaRepository.delete(eventoSalida);
+        horarioResidentesService.invalidarEvento(idEventoSalida);
+        estadoEventoWorker.descartar(idEventoSalida);
+        pertenenciaService.olvidar(PertenenciaService.Tipo.EVENTO, idEventoSalida);
+        calendarioService.cambio(idResidencia);
     }
 
 
@@ -206,6 +220,10 @@ public class EventoSalidaService {
             }
             eventoSalida.setFechaInicio(input.getFecha());
         }
+        if (input.getDuracionMinutos() != null) {
+            validarDuracion(input.getDuracionMinutos());
+            eventoSalida.setDuracionMinutos(input.getDuracionMinutos());
+        }
 
         if (input.getEstado() != null){
             if(!secuenciaEstados[eventoSalida.getEstado().getEstado()].equals(input.getEstado()))
@@ -216,7 +234,15 @@ public class EventoSalidaService {
 
 
 
-        return new EventoSalidaResponseDto(eventoSalidaRepository.save(eventoSalida));
+        EventoSalida actualizado = eventoSalidaRepository.save(eventoSalida);
+        calendarioService.cambio(idResidencia);
+        if (input.getFecha() != null || input.getDuracionMinutos() != null) {
+            horarioResidentesService.invalidarEvento(idEventoSalida);
+        }
+        if (input.getFecha() != null || input.getDuracionMinutos() != null || input.getEstado() != null) {
+            estadoEventoWorker.planificar(idEventoSalida);
+        }
+        return new EventoSalidaResponseDto(actualizado);
     }
 
     /**
@@ -238,7 +264,9 @@ public class EventoSalidaService {
             throw new ResiException(ApiErrorCode.ESTADO_INVALIDO);
         }
         evento.setEstado(estado);
-        return new EventoSalidaResponseDto(eventoSalidaRepository.save(evento));
+        EventoSalida actualizado = eventoSalidaRepository.save(evento);
+        estadoEventoWorker.planificar(idEventoSalida);
+        return new EventoSalidaResponseDto(actualizado);
     }
 
     /**
@@ -266,7 +294,11 @@ public class EventoSalidaService {
             evento.setEstado(EstadoSalida.ABIERTO);
         }
 
-        return new EventoSalidaResponseDto(eventoSalidaRepository.save(evento));
+        EventoSalida actualizado = eventoSalidaRepository.save(evento);
+        horarioResidentesService.invalidarEvento(idEventoSalida);
+        estadoEventoWorker.planificar(idEventoSalida);
+        calendarioService.cambio(idResidencia);
+        return new EventoSalidaResponseDto(actualizado);
     }
 
     /**
@@ -288,7 +320,9 @@ public class EventoSalidaService {
             throw new ResiException(ApiErrorCode.NOMBRE_DUPLICADO);
         }
         evento.setNombre(nombre);
-        return new EventoSalidaResponseDto(eventoSalidaRepository.save(evento));
+        EventoSalida actualizado = eventoSalidaRepository.save(evento);
+        calendarioService.cambio(idResidencia);
+        return new EventoSalidaResponseDto(actualizado);
 
     }
 
@@ -307,7 +341,9 @@ public class EventoSalidaService {
         EventoSalida evento = getEventoSalida(idResidencia,idEventoSalida);
 
         evento.setDescripcion(descripcion);
-        return new EventoSalidaResponseDto(eventoSalidaRepository.save(evento));
+        EventoSalida actualizado = eventoSalidaRepository.save(evento);
+        calendarioService.cambio(idResidencia);
+        return new EventoSalidaResponseDto(actualizado);
     }
 
 
@@ -316,6 +352,49 @@ public class EventoSalidaService {
 
 
 
+    /**
+     * Obtiene el enlace de suscripción al calendario (ICS) de las salidas de una residencia o de un residente.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param idResidente ID del residente (opcional); si se indica, el calendario solo tiene sus salidas.
+     * @return Ruta del calendario con el token de acceso.
+     * @throws ResiException si la residencia o el residente no son válidos.
+     */
+    public String getEnlaceCalendario(Long idResidencia, Long idResidente) {
+        if (idResidencia == null) {
+            throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
+        }
+        residenciaService.getResidencia(idResidencia);
+        if (idResidente != null) {
+            residenteService.comprobarResidente(idResidencia, idResidente);
+        }
+        return "/public/calendario.ics?token=" + calendarioService.generarToken(idResidencia, idResidente);
+    }
+
+    /**
+     * Corrige los contadores de participantes y recursos de los eventos que no coincidan con sus
+     * participantes (por ejemplo, si se borraron participantes fuera de {@link ParticipanteService}).
+     *
+     * @return Número de eventos corregidos.
+     */
+    @Scheduled(cron = "${eventos.contadores.reparar-cron:0 15 3 * * *}")
+    public int repararContadores() {
+        return eventoSalidaRepository.repararContadores();
+    }
+
+    /**
+     * Valida la duración de un evento: opcional, pero si se indica debe estar entre 1 minuto y
+     * {@value HorarioResidentesService#DURACION_MAXIMA_MINUTOS} minutos.
+     *
+     * @param duracionMinutos Duración en minutos.
+     * @throws ResiException si la duración no es válida.
+     */
+    private static void validarDuracion(Integer duracionMinutos) {
+        if (duracionMinutos != null && (duracionMinutos <= 0 || duracionMinutos > HorarioResidentesService.DURACION_MAXIMA_MINUTOS)) {
+            throw new ResiException(ApiErrorCode.DURACION_INVALIDA);
+        }
+    }
+
     /**
      * Valida que un evento de salida pertenezca a una residencia específica.
      *
@@ -325,21 +404,27 @@ public class EventoSalidaService {
      * @throws ResiException si el evento no existe o no pertenece a la residencia.
      */
     protected EventoSalida getEventoSalida(Long idResidencia, Long idEventoSalida) {
-        if (idEventoSalida == null || idResidencia == null) {
-            throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
-        }
+        comprobarEventoSalida(idResidencia, idEventoSalida);
 
-        // Validar que el evento de salida existe
-        EventoSalida eventoSalida = eventoSalidaRepository
+        return eventoSalidaRepository
                 .findById(idEventoSalida)
-                .orElseThrow(() -> new ResiException(ApiErrorCode.EVENTO_SALIDA_INVALIDO));;
+                .orElseThrow(() -> new ResiException(ApiErrorCode.EVENTO_SALIDA_INVALIDO));
+    }
 
-        // Validar que el evento de salida pertenece a la residencia
-        if (!eventoSalida.getResidencia().getId().equals(idResidencia)) {
+    /**
+     * Comprueba que un evento de salida existe y pertenece a una residencia, sin cargarlo.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param idEventoSalida ID del evento de salida.
+     * @throws ResiException si falta algún ID, o el evento no existe o no pertenece a la residencia.
+     */
+    protected void comprobarEventoSalida(Long idResidencia, Long idEventoSalida) {
+        if (idEventoSalida == null || idResidencia == null) {
+            throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
+        }
+        if (!idResidencia.equals(pertenenciaService.getResidenciaDeEvento(idEventoSalida))) {
             throw new ResiException(ApiErrorCode.EVENTO_SALIDA_INVALIDO);
         }
-
-        return eventoSalida;
     }
 
 }
@@ -0,0 +1,250 @@
+package com.kevinolarte.resibenissa.services.moduloOrgSalida;
+
+import com.kevinolarte.resibenissa.models.moduloOrgSalida.EventoSalida;
+import com.kevinolarte.resibenissa.repositories.moduloOrgSalida.ParticipanteRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice en memoria de las franjas horarias de las salidas de cada residente, para detectar
+ * si una inscripción choca con otra salida sin consultar la base de datos.
+ * <p>
+ * La franja de un evento es {@code [fechaInicio, fechaInicio + duracionMinutos)}; si el evento no
+ * tiene duración, ocupa el día entero. Dos salidas chocan si sus franjas se solapan.
+ * </p>
+ * <p>
+ * Las franjas de un residente ({@link IntervalosResidente}) se cargan la primera vez que se consultan
+ * (una consulta para todos los residentes que falten) y se mantienen al inscribir o borrar
+ * participantes, una vez confirmada la transacción. Los cambios de fecha o duración de un evento,
+ * o los borrados en bloque, descartan las franjas afectadas para que se vuelvan a cargar.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Service
+@RequiredArgsConstructor
+public class HorarioResidentesService {
+
+    /**
+     * Duración máxima de un evento; solo se cargan eventos que empiecen, como mucho, este tiempo antes de hoy.
+     */
+    public static final int DURACION_MAXIMA_MINUTOS = 7 * 24 * 60;
+
+    private final ParticipanteRepository participanteRepository;
+
+    @Value("${horario.max-residentes:100000}")
+    private int maxResidentes;
+
+    private final Map<Long, IntervalosResidente> intervalos = new ConcurrentHashMap<>();
+
+    /**
+     * Se incrementa con cada cambio, para no guardar franjas leídas antes de un cambio que no incluyen.
+     */
+    private final AtomicLong cambios = new AtomicLong();
+
+    /**
+     * Indica si un residente tiene otra salida que se solapa con un evento.
+     *
+     * @param idResidente ID del residente (que no debe estar inscrito ya en el evento).
+     * @param evento Evento al que se quiere inscribir.
+     * @return {@code true} si hay conflicto.
+     */
+    public boolean tieneConflicto(Long idResidente, EventoSalida evento) {
+        return !conConflicto(List.of(idResidente), evento).isEmpty();
+    }
+
+    /**
+     * Obtiene, de entre varios residentes, los que tienen otra salida que se solapa con un evento.
+     *
+     * @param idsResidente IDs de los residentes (que no deben estar inscritos ya en el evento).
+     * @param evento Evento al que se quiere inscribir.
+     * @return IDs de los residentes con conflicto.
+     */
+    public Set<Long> conConflicto(Collection<Long> idsResidente, EventoSalida evento) {
+        long[] ventana = ventana(evento.getFechaInicio(), evento.getDuracionMinutos());
+        Map<Long, IntervalosResidente> franjas = getIntervalos(idsResidente);
+        Set<Long> conflicto = new HashSet<>();
+        for (Long id : idsResidente) {
+            IntervalosResidente franjasResidente = franjas.get(id);
+            if (franjasResidente != null && franjasResidente.solapa(ventana[0], ventana[1])) {
+                conflicto.add(id);
+            }
+        }
+        return conflicto;
+    }
+
+    /**
+     * Añade al índice la franja de un evento para un residente recién inscrito, al confirmarse la transacción.
+     *
+     * @param idResidente ID del residente.
+     * @param evento Evento en el que se ha inscrito.
+     */
+    public void anadir(Long idResidente, EventoSalida evento) {
+        long idEvento = evento.getId();
+        long[] ventana = ventana(evento.getFechaInicio(), evento.getDuracionMinutos());
+        alConfirmar(() -> {
+            cambios.incrementAndGet();
+            intervalos.computeIfPresent(idResidente, (k, v) -> v.con(idEvento, ventana[0], ventana[1]));
+        });
+    }
+
+    /**
+     * Quita del índice la franja de un evento para un residente, al confirmarse la transacción.
+     *
+     * @param idResidente ID del residente.
+     * @param idEvento ID del evento del que se ha borrado.
+     */
+    public void quitar(Long idResidente, Long idEvento) {
+        alConfirmar(() -> {
+            cambios.incrementAndGet();
+            intervalos.computeIfPresent(idResidente, (k, v) -> v.sin(idEvento));
+        });
+    }
+
+    /**
+     * Descarta las franjas de los residentes inscritos en un evento (por ejemplo, si cambia su fecha o se borra).
+     *
+     * @param idEvento ID del evento.
+     */
+    public void invalidarEvento(Long idEvento) {
+        alConfirmar(() -> {
+            cambios.incrementAndGet();
+            intervalos.values().removeIf(v -> v.contiene(idEvento));
+        });
+    }
+
+    /**
+     * Descarta las franjas de un residente.
+     *
+     * @param idResidente ID del residente.
+     */
+    public void invalidarResidente(Long idResidente) {
+        alConfirmar(() -> {
+            cambios.incrementAndGet();
+            intervalos.remove(idResidente);
+        });
+    }
+
+    /**
+     * Descarta todo el índice.
+     */
+    public void invalidarTodo() {
+        alConfirmar(() -> {
+            cambios.incrementAndGet();
+            intervalos.clear();
+        });
+    }
+
+    /**
+     * Calcula la franja {@code [inicio, fin)} de un evento, en microsegundos.
+     *
+     * @param fechaInicio Fecha de inicio del evento.
+     * @param duracionMinutos Duración del evento en minutos, o {@code null} si ocupa el día entero.
+     * @return Inicio y fin de la franja.
+     */
+    public static long[] ventana(LocalDateTime fechaInicio, Integer duracionMinutos) {
+        LocalDateTime inicio = duracionMinutos == null ? fechaInicio.toLocalDate().atStartOfDay() : fechaInicio;
+        return new long[]{micros(inicio), micros(fechaFin(fechaInicio, duracionMinutos))};
+    }
+
+    /**
+     * Calcula cuándo termina un evento: tras su duración o, si no tiene, al acabar el día.
+     *
+     * @param fechaInicio Fecha de inicio del evento.
+     * @param duracionMinutos Duración del evento en minutos, o {@code null} si ocupa el día entero.
+     * @return Fecha de fin del evento.
+     */
+    public static LocalDateTime fechaFin(LocalDateTime fechaInicio, Integer duracionMinutos) {
+        if (duracionMinutos == null) {
+            return fechaInicio.toLocalDate().plusDays(1).atStartOfDay();
+        }
+        return fechaInicio.plusMinutes(duracionMinutos);
+    }
+
+    private static long micros(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + fecha.getNano() / 1_000;
+    }
+
+    /**
+     * Obtiene las franjas de varios residentes, cargando en una sola consulta las que no estén en memoria.
+     */
+    private Map<Long, IntervalosResidente> getIntervalos(Collection<Long> idsResidente) {
+        Map<Long, IntervalosResidente> resultado = new HashMap<>();
+        List<Long> faltan = new ArrayList<>();
+        for (Long id : idsResidente) {
+            IntervalosResidente franjas = intervalos.get(id);
+            if (franjas != null) {
+                resultado.put(id, franjas);
+            } else {
+                faltan.add(id);
+            }
+        }
+        if (faltan.isEmpty()) {
+            return resultado;
+        }
+
+        long version = cambios.get();
+        Map<Long, List<Object[]>> filas = new HashMap<>();
+        LocalDateTime desde = LocalDate.now().atStartOfDay().minusMinutes(DURACION_MAXIMA_MINUTOS);
+        for (Object[] fila : participanteRepository.findFranjasByResidenteIdIn(faltan, desde)) {
+            filas.computeIfAbsent((Long) fila[0], k -> new ArrayList<>()).add(fila);
+        }
+        Map<Long, IntervalosResidente> cargados = new HashMap<>();
+        for (Long id : faltan) {
+            List<Object[]> franjas = filas.getOrDefault(id, List.of());
+            long[] eventos = new long[franjas.size()];
+            long[] inicios = new long[franjas.size()];
+            long[] fines = new long[franjas.size()];
+            for (int i = 0; i < franjas.size(); i++) {
+                Object[] fila = franjas.get(i);
+                long[] ventana = ventana((LocalDateTime) fila[2], (Integer) fila[3]);
+                eventos[i] = (Long) fila[1];
+                inicios[i] = ventana[0];
+                fines[i] = ventana[1];
+            }
+            cargados.put(id, franjas.isEmpty() ? IntervalosResidente.VACIO : IntervalosResidente.de(eventos, inicios, fines));
+        }
+        resultado.putAll(cargados);
+
+        // Solo se guardan si nada ha cambiado mientras se leían
+        if (cambios.get() == version) {
+            if (intervalos.size() + cargados.size() > maxResidentes) {
+                intervalos.clear();
+            }
+            cargados.forEach(intervalos::putIfAbsent);
+            if (cambios.get() != version) {
+                cargados.keySet().forEach(intervalos::remove);
+            }
+        }
+        return resultado;
+    }
+
+    private static void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.kevinolarte.resibenissa.services.moduloOrgSalida;
+
+import java.util.Arrays;
+
+/**
+ * Franjas horarias de las salidas en las que está inscrito un residente, en microsegundos.
+ * <p>
+ * Las franjas ({@code [inicio, fin)}) se guardan en arrays ordenados por inicio junto con el máximo
+ * de los fines hasta cada posición, de forma que saber si una franja nueva se solapa con alguna es
+ * una búsqueda binaria: basta con mirar si alguna de las que empiezan antes de su fin termina después
+ * de su inicio. Es inmutable; añadir o quitar devuelve una copia, así que se puede leer sin bloqueos.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+final class IntervalosResidente {
+
+    static final IntervalosResidente VACIO = new IntervalosResidente(new long[0], new long[0], new long[0]);
+
+    private final long[] eventos;
+    private final long[] inicios;
+    private final long[] fines;
+    private final long[] maxFin;
+
+    private IntervalosResidente(long[] eventos, long[] inicios, long[] fines) {
+        this.eventos = eventos;
+        this.inicios = inicios;
+        this.fines = fines;
+        this.maxFin = new long[fines.length];
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < fines.length; i++) {
+            max = Math.max(max, fines[i]);
+            maxFin[i] = max;
+        }
+    }
+
+    /**
+     * Construye las franjas a partir de arrays paralelos sin ordenar.
+     */
+    static IntervalosResidente de(long[] eventos, long[] inicios, long[] fines) {
+        Integer[] orden = new Integer[inicios.length];
+        for (int i = 0; i < orden.length; i++) {
+            orden[i] = i;
+        }
+        Arrays.sort(orden, (a, b) -> Long.compare(inicios[a], inicios[b]));
+        long[] e = new long[orden.length];
+        long[] ini = new long[orden.length];
+        long[] fin = new long[orden.length];
+        for (int i = 0; i < orden.length; i++) {
+            e[i] = eventos[orden[i]];
+            ini[i] = inicios[orden[i]];
+            fin[i] = fines[orden[i]];
+        }
+        return new IntervalosResidente(e, ini, fin);
+    }
+
+    /**
+     * Indica si la franja {@code [inicio, fin)} se solapa con alguna de las del residente.
+     */
+    boolean solapa(long inicio, long fin) {
+        int n = primeroQueEmpiezaEnOdespues(fin);
+        return n > 0 && maxFin[n - 1] > inicio;
+    }
+
+    /**
+     * Devuelve una copia con la franja de un evento añadida (o sustituida, si ya estaba).
+     */
+    IntervalosResidente con(long idEvento, long inicio, long fin) {
+        IntervalosResidente base = sin(idEvento);
+        int pos = base.primeroQueEmpiezaEnOdespues(inicio);
+        int n = base.inicios.length;
+        long[] e = new long[n + 1];
+        long[] ini = new long[n + 1];
+        long[] f = new long[n + 1];
+        System.arraycopy(base.eventos, 0, e, 0, pos);
+        System.arraycopy(base.inicios, 0, ini, 0, pos);
+        System.arraycopy(base.fines, 0, f, 0, pos);
+        e[pos] = idEvento;
+        ini[pos] = inicio;
+        f[pos] = fin;
+        System.arraycopy(base.eventos, pos, e, pos + 1, n - pos);
+        System.arraycopy(base.inicios, pos, ini, pos + 1, n - pos);
+        System.arraycopy(base.fines, pos, f, pos + 1, n - pos);
+        return new IntervalosResidente(e, ini, f);
+    }
+
+    /**
+     * Devuelve una copia sin la franja de un evento.
+     */
+    IntervalosResidente sin(long idEvento) {
+        int pos = indiceDe(idEvento);
+        if (pos < 0) {
+            return this;
+        }
+        int n = eventos.length;
+        long[] e = new long[n - 1];
+        long[] ini = new long[n - 1];
+        long[] f = new long[n - 1];
+        System.arraycopy(eventos, 0, e, 0, pos);
+        System.arraycopy(inicios, 0, ini, 0, pos);
+        System.arraycopy(fines, 0, f, 0, pos);
+        System.arraycopy(eventos, pos + 1, e, pos, n - pos - 1);
+        System.arraycopy(inicios, pos + 1, ini, pos, n - pos - 1);
+        System.arraycopy(fines, pos + 1, f, pos, n - pos - 1);
+        return new IntervalosResidente(e, ini, f);
+    }
+
+    /**
+     * Indica si el residente tiene la franja de un evento.
+     */
+    boolean contiene(long idEvento) {
+        return indiceDe(idEvento) >= 0;
+    }
+
+    private int indiceDe(long idEvento) {
+        for (int i = 0; i < eventos.length; i++) {
+            if (eventos[i] == idEvento) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Posición de la primera franja con inicio mayor o igual que {@code valor}.
+     */
+    private int primeroQueEmpiezaEnOdespues(long valor) {
+        int lo = 0;
+        int hi = inicios.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (inicios[mid] < valor) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
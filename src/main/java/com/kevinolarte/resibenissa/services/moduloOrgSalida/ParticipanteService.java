@@ -1,21 +1,45 @@
 package com.kevinolarte.resibenissa.services.moduloOrgSalida;
 
+import com.kevinolarte.resibenissa.dto.in.moduloOrgSalida.CambiosParticipantesDto;
+import com.kevinolarte.resibenissa.dto.in.moduloOrgSalida.InscripcionMasivaDto;
 import com.kevinolarte.resibenissa.dto.in.moduloOrgSalida.ParticipanteDto;
+import com.kevinolarte.resibenissa.dto.out.moduloOrgSalida.CambiosParticipantesResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloOrgSalida.InscripcionMasivaResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloOrgSalida.NotificacionEventoResponseDto;
 import com.kevinolarte.resibenissa.dto.out.moduloOrgSalida.ParticipanteResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloReporting.EmailEstadoResponseDto;
 import com.kevinolarte.resibenissa.enums.moduloOrgSalida.EstadoSalida;
+import com.kevinolarte.resibenissa.enums.moduloOrgSalida.ResultadoCambioParticipante;
+import com.kevinolarte.resibenissa.enums.moduloOrgSalida.ResultadoInscripcion;
 import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.Residente;
 import com.kevinolarte.resibenissa.models.moduloOrgSalida.EventoSalida;
 import com.kevinolarte.resibenissa.models.moduloOrgSalida.Participante;
+import com.kevinolarte.resibenissa.repositories.ProyeccionRepository;
+import com.kevinolarte.resibenissa.repositories.ResidenteRepository;
+import com.kevinolarte.resibenissa.repositories.moduloOrgSalida.EventoSalidaRepository;
 import com.kevinolarte.resibenissa.repositories.moduloOrgSalida.ParticipanteRepository;
+import com.kevinolarte.resibenissa.services.EmailService;
+import com.kevinolarte.resibenissa.services.PertenenciaService;
 import com.kevinolarte.resibenissa.services.ResidenteService;
+import com.kevinolarte.resibenissa.services.moduloReporting.EmailOutboxService;
 import com.kevinolarte.resibenissa.specifications.ParticipanteSpecification;
+import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 
 /**
@@ -32,22 +56,41 @@ import java.util.List;
 public class ParticipanteService {
 
     private final ParticipanteRepository participanteRepository;
+    private final ProyeccionRepository proyeccionRepository;
+    private final EventoSalidaRepository eventoSalidaRepository;
     private final EventoSalidaService eventoSalidaService;
     private final ResidenteService residenteService;
+    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
+    private final ResidenteRepository residenteRepository;
+    private final HorarioResidentesService horarioResidentesService;
+    private final CalendarioService calendarioService;
+    private final PertenenciaService pertenenciaService;
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final int MAX_INSCRIPCION_MASIVA = 500;
+    private static final int MAX_CAMBIOS_MASIVOS = 500;
 
 
     /**
      * Registra un nuevo participante en un evento de salida.
+     * <p>
+     * Si se avisa a los familiares, sus correos se dejan en la bandeja de salida en la misma transacción
+     * que el alta: o se guardan las dos cosas o ninguna.
+     * </p>
      *
      * @param input DTO con los datos del participante.
      * @param idEventoSalida ID del evento de salida.
      * @param idResidencia ID de la residencia asociada.
+     * @param notificar Si es {@code true}, se pide permiso por correo a los familiares del residente.
+     * @param urgente Si es {@code true}, el aviso no espera al resumen aunque esté activo el modo resumen.
      * @return DTO del participante creado.
      * @throws ResiException si falta algún campo obligatorio, el evento o el residente son inválidos,
      *                      el evento no pertenece a la residencia, el evento está cerrado o ya ha finalizado,
      *                      o el residente ya participa en otra salida el mismo día.
      */
-    public ParticipanteResponseDto add(ParticipanteDto input, Long idEventoSalida, Long idResidencia) {
+    @Transactional
+    public ParticipanteResponseDto add(ParticipanteDto input, Long idEventoSalida, Long idResidencia, boolean notificar, boolean urgente) {
         if (idEventoSalida == null || input.getIdResidente() == null || input.getRecursosHumanos() == null || input.getRecursosMateriales() == null || idResidencia == null) {
             throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
         }
@@ -68,8 +111,8 @@ public class ParticipanteService {
         if (participanteRepository.isResidenteInscritoEnEvento(residente.getId(), idEventoSalida))
             throw new ResiException(ApiErrorCode.PARTICIPANTE_YA_REGISTRADO);
 
-        //Verificar si el participante participa en una salida ese mismo dia
-        if (participanteRepository.existsByResidenteInOtherEventoSameDay(input.getIdResidente(), idEventoSalida))
+        //Verificar si el participante participa en otra salida que se solapa con esta
+        if (horarioResidentesService.tieneConflicto(residente.getId(), eventoSalida))
             throw new ResiException(ApiErrorCode.PARTICIPANTE_YA_REGISTRADO);
 
 
@@ -84,12 +127,121 @@ public class ParticipanteService {
             participante.setPreOpinion(input.getPreOpinion());
         }
 
-        return new ParticipanteResponseDto(participanteRepository.save(participante));
+        participante = participanteRepository.save(participante);
+        pertenenciaService.registrar(PertenenciaService.Tipo.PARTICIPANTE, participante.getId(), idEventoSalida);
+        ajustarContadores(idEventoSalida, 1, delta(false, participante.isRecursosHumanos()), delta(false, participante.isRecursosMateriales()));
+        horarioResidentesService.anadir(residente.getId(), eventoSalida);
+        calendarioService.cambio(idResidencia);
+        ParticipanteResponseDto dto = new ParticipanteResponseDto(participante);
+        if (notificar) {
+            emailService.sendNotificationParticipante(dto, urgente);
+        }
+        return dto;
     }
 
 
 
 
+    /**
+     * Inscribe a varios residentes a la vez en un evento de salida.
+     * <p>
+     * Hace las mismas comprobaciones que {@link #add(ParticipanteDto, Long, Long)} pero para todo el
+     * conjunto: dos consultas (residentes y ya inscritos) más el índice de horarios
+     * ({@link HorarioResidentesService}) para las salidas que se solapan, e inserta los
+     * participantes en batches JDBC. Los residentes que no pasan alguna comprobación no se inscriben
+     * y se indica el motivo en su resultado; el resto se inscriben en la misma transacción.
+     * </p>
+     *
+     * @param input IDs de los residentes (como mucho {@value #MAX_INSCRIPCION_MASIVA}) y recursos para todos ellos.
+     * @param idEventoSalida ID del evento de salida.
+     * @param idResidencia ID de la residencia.
+     * @param notificar Si es {@code true}, se avisa a las familias de los inscritos en un único envío.
+     * @param urgente Si es {@code true}, el aviso no espera al resumen diario.
+     * @return Resultado de cada residente, en el orden de la petición.
+     * @throws ResiException si faltan datos, hay demasiados residentes, el evento no existe,
+     *                      no pertenece a la residencia o no está abierto.
+     */
+    @Transactional
+    public InscripcionMasivaResponseDto addAll(InscripcionMasivaDto input, Long idEventoSalida, Long idResidencia, boolean notificar, boolean urgente) {
+        if (input == null || input.getIdsResidente() == null || input.getIdsResidente().isEmpty()
+                || input.getIdsResidente().size() > MAX_INSCRIPCION_MASIVA || idEventoSalida == null || idResidencia == null) {
+            throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
+        }
+        EventoSalida eventoSalida = eventoSalidaService.getEventoSalida(idResidencia, idEventoSalida);
+        if (eventoSalida.getEstado() != EstadoSalida.ABIERTO) {
+            throw new ResiException(ApiErrorCode.EVENTO_SALIDA_NO_DISPONIBLE);
+        }
+        boolean recursosHumanos = Boolean.TRUE.equals(input.getRecursosHumanos());
+        boolean recursosMateriales = Boolean.TRUE.equals(input.getRecursosMateriales());
+
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long id : input.getIdsResidente()) {
+            if (id == null) {
+                throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
+            }
+            ids.add(id);
+        }
+        Map<Long, Residente> residentes = new HashMap<>();
+        residenteRepository.findAllConWalletByResidenciaIdAndIdIn(idResidencia, ids)
+                .forEach(residente -> residentes.put(residente.getId(), residente));
+        Set<Long> inscritos = new HashSet<>(participanteRepository.findIdsResidenteInscritos(idEventoSalida, ids));
+        Set<Long> candidatos = new HashSet<>(residentes.keySet());
+        candidatos.removeAll(inscritos);
+        Set<Long> otraSalida = horarioResidentesService.conConflicto(candidatos, eventoSalida);
+
+        // Resultado de cada residente; los nuevos participantes se guardan juntos
+        Map<Long, ResultadoInscripcion> resultados = new HashMap<>();
+        Map<Long, Participante> nuevos = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Residente residente = residentes.get(id);
+            ResultadoInscripcion resultado;
+            if (residente == null) {
+                resultado = ResultadoInscripcion.RESIDENTE_INVALIDO;
+            } else if (residente.isBaja()) {
+                resultado = ResultadoInscripcion.RESIDENTE_BAJA;
+            } else if (inscritos.contains(id)) {
+                resultado = ResultadoInscripcion.YA_INSCRITO;
+            } else if (otraSalida.contains(id)) {
+                resultado = ResultadoInscripcion.OTRA_SALIDA_MISMO_DIA;
+            } else {
+                resultado = ResultadoInscripcion.INSCRITO;
+                Participante participante = new Participante();
+                participante.setEvento(eventoSalida);
+                participante.setResidente(residente);
+                participante.setRecursosHumanos(recursosHumanos);
+                participante.setRecursosMateriales(recursosMateriales);
+                nuevos.put(id, participante);
+            }
+            resultados.put(id, resultado);
+        }
+        participanteRepository.saveAll(nuevos.values());
+        nuevos.values().forEach(p -> pertenenciaService.registrar(PertenenciaService.Tipo.PARTICIPANTE, p.getId(), idEventoSalida));
+        nuevos.keySet().forEach(id -> horarioResidentesService.anadir(id, eventoSalida));
+        if (!nuevos.isEmpty()) {
+            calendarioService.cambio(idResidencia);
+        }
+        int n = nuevos.size();
+        ajustarContadores(idEventoSalida, n, recursosHumanos ? n : 0, recursosMateriales ? n : 0);
+
+        List<InscripcionMasivaResponseDto.ResultadoResidenteDto> salida = new ArrayList<>(input.getIdsResidente().size());
+        Set<Long> vistos = new HashSet<>();
+        for (Long id : input.getIdsResidente()) {
+            if (!vistos.add(id)) {
+                salida.add(new InscripcionMasivaResponseDto.ResultadoResidenteDto(id, ResultadoInscripcion.REPETIDO, null));
+                continue;
+            }
+            Participante participante = nuevos.get(id);
+            salida.add(new InscripcionMasivaResponseDto.ResultadoResidenteDto(id, resultados.get(id),
+                    participante != null ? participante.getId() : null));
+        }
+        NotificacionEventoResponseDto notificacion = notificar && !nuevos.isEmpty()
+                ? emailService.sendNotificacionesEvento(eventoSalida, new ArrayList<>(nuevos.values()), urgente)
+                : null;
+        return new InscripcionMasivaResponseDto(idEventoSalida, n, salida, notificacion);
+    }
+
+
+
     /**
      * Obtiene los datos de un participante específico.
      *
@@ -128,16 +280,12 @@ public class ParticipanteService {
             throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
         }
         // Verificar si el evento de salida existe
-        EventoSalida eventoSalida = eventoSalidaService.getEventoSalida(idResidencia, idEvento);
+        eventoSalidaService.comprobarEventoSalida(idResidencia, idEvento);
 
 
-        List<Participante> list = participanteRepository.findAll(
-                ParticipanteSpecification.withFilters(idResidencia, idEvento, idResidente, rH, rM, minEdad, maxEdad, preOpinion, postOpinion, asistenciPermitida)
-        );
-
-
-        return list.stream()
-                .map(ParticipanteResponseDto::new).toList();
+        return proyeccionRepository.findAll(Participante.class,
+                ParticipanteSpecification.withFilters(idResidencia, idEvento, idResidente, rH, rM, minEdad, maxEdad, preOpinion, postOpinion, asistenciPermitida),
+                null, ParticipanteResponseDto.class, ParticipanteSpecification::columnasResponse);
 
 
     }
@@ -154,10 +302,10 @@ public class ParticipanteService {
      * @throws ResiException si falta algún campo obligatorio, el evento o el participante son inválidos,
      *                      el evento no pertenece a la residencia o ya ha finalizado.
      */
+    @Transactional
     public void deleteParticipante(Long idResidencia, Long idEvento, Long idParticipante) {
         Participante participante = getParticipante(idResidencia, idEvento, idParticipante);
-
-        EventoSalida eventoSalida = eventoSalidaService.getEventoSalida(idResidencia, idEvento);
+        EventoSalida eventoSalida = participante.getEvento();
 
         // Verificar si la fecha de inicio del evento de salida ya ha pasado
         if (eventoSalida.getFechaInicio().isBefore(LocalDateTime.now())) {
@@ -166,6 +314,10 @@ public class ParticipanteService {
 
         // Eliminar el participante
         participanteRepository.delete(participante);
+        horarioResidentesService.quitar(participante.getResidente().getId(), idEvento);
+        pertenenciaService.olvidar(PertenenciaService.Tipo.PARTICIPANTE, idParticipante);
+        calendarioService.cambio(idResidencia);
+        ajustarContadores(idEvento, -1, delta(participante.isRecursosHumanos(), false), delta(participante.isRecursosMateriales(), false));
     }
 
 
@@ -180,10 +332,13 @@ public class ParticipanteService {
      * @return DTO del participante actualizado.
      * @throws ResiException si falta algún campo obligatorio, el evento o el participante son inválidos,
      */
+    @Transactional
     public ParticipanteResponseDto update(ParticipanteDto input, Long idResidencia, Long idEvento, Long idParticipante) {
         Participante participante = getParticipante(idResidencia, idEvento, idParticipante);
         if (input == null)
             throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
+        boolean rHAntes = participante.isRecursosHumanos();
+        boolean rMAntes = participante.isRecursosMateriales();
 
         // Verificar el estado del evento de salida
         if (participante.getEvento().getEstado() != EstadoSalida.ABIERTO &&
@@ -207,7 +362,9 @@ public class ParticipanteService {
                 participante.setPreOpinion(input.getPreOpinion());
             }
         }
-        return new ParticipanteResponseDto(participanteRepository.save(participante));
+        participante = participanteRepository.save(participante);
+        ajustarContadores(idEvento, 0, delta(rHAntes, participante.isRecursosHumanos()), delta(rMAntes, participante.isRecursosMateriales()));
+        return new ParticipanteResponseDto(participante);
     }
 
     /**
@@ -316,8 +473,11 @@ public class ParticipanteService {
      * @throws ResiException si falta algún campo obligatorio, el evento o el participante son inválidos,
      *                      o el evento no está abierto o cerrado.
      */
+    @Transactional
     public ParticipanteResponseDto changeRecursos(Long idResidencia, Long idEvento, Long idParticipante, Boolean rH, Boolean rM) {
         Participante participante = getParticipante(idResidencia, idEvento, idParticipante);
+        boolean rHAntes = participante.isRecursosHumanos();
+        boolean rMAntes = participante.isRecursosMateriales();
 
         // Verificar el estado del evento de salida (si no es abierto o cerrado)
         if (participante.getEvento().getEstado() != EstadoSalida.ABIERTO &&
@@ -331,12 +491,211 @@ public class ParticipanteService {
         if (rM != null) {
             participante.setRecursosMateriales(rM);
         }
-        return new ParticipanteResponseDto(participanteRepository.save(participante));
+        participante = participanteRepository.save(participante);
+        ajustarContadores(idEvento, 0, delta(rHAntes, participante.isRecursosHumanos()), delta(rMAntes, participante.isRecursosMateriales()));
+        return new ParticipanteResponseDto(participante);
+    }
+
+
+
+
+    /**
+     * Cambia a la vez campos de varios participantes de un evento de salida.
+     * <p>
+     * El evento se valida una sola vez y los participantes se leen con una única consulta. Cada
+     * participante solo actualiza las columnas que cambian de verdad; las sentencias con las mismas
+     * columnas se envían juntas en un batch JDBC, y solo se aplican si los recursos siguen valiendo lo
+     * leído: si entretanto se ha borrado el participante o se han cambiado sus recursos, la fila no se
+     * actualiza, se marca como {@link ResultadoCambioParticipante#CONFLICTO} y no cuenta para los
+     * contadores del evento. Se aplican las mismas reglas que en los cambios
+     * individuales: recursos y asistencia con el evento abierto o cerrado, preopinión con el evento
+     * abierto y postopinión con el evento finalizado (las opiniones vacías se ignoran).
+     * </p>
+     *
+     * @param input Cambios de cada participante.
+     * @param idEvento ID del evento de salida.
+     * @param idResidencia ID de la residencia.
+     * @return Resultado de cada participante, en el orden de la petición.
+     * @throws ResiException si faltan datos, hay demasiados cambios, o el evento no existe o no pertenece a la residencia.
+     */
+    @Transactional
+    public CambiosParticipantesResponseDto updateAll(CambiosParticipantesDto input, Long idEvento, Long idResidencia) {
+        if (input == null || input.getCambios() == null || input.getCambios().isEmpty()
+                || input.getCambios().size() > MAX_CAMBIOS_MASIVOS || idEvento == null || idResidencia == null) {
+            throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
+        }
+        EstadoSalida estado = eventoSalidaService.getEventoSalida(idResidencia, idEvento).getEstado();
+
+        // Estado actual de todos los participantes, en una sola consulta
+        List<Long> ids = input.getCambios().stream()
+                .map(CambiosParticipantesDto.CambioParticipanteDto::getIdParticipante)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, Object[]> actuales = new HashMap<>();
+        if (!ids.isEmpty()) {
+            participanteRepository.findCamposByEventoIdAndIdIn(idEvento, ids).forEach(f -> actuales.put((Long) f[0], f));
+        }
+
+        // Sentencias agrupadas por columnas modificadas, para enviarlas en batch, con los cambios de cada fila
+        Map<String, List<Object[]>> sentencias = new LinkedHashMap<>();
+        Map<String, List<int[]>> pendientes = new HashMap<>();
+        List<CambiosParticipantesResponseDto.ResultadoParticipanteDto> resultados = new ArrayList<>(input.getCambios().size());
+        Set<Long> vistos = new HashSet<>();
+        for (CambiosParticipantesDto.CambioParticipanteDto cambio : input.getCambios()) {
+            Long id = cambio.getIdParticipante();
+            Object[] actual = id != null ? actuales.get(id) : null;
+            ResultadoCambioParticipante resultado;
+            if (id != null && !vistos.add(id)) {
+                resultado = ResultadoCambioParticipante.REPETIDO;
+            } else if (actual == null) {
+                resultado = ResultadoCambioParticipante.PARTICIPANTE_INVALIDO;
+            } else if (!isCambioPermitido(cambio, estado)) {
+                resultado = ResultadoCambioParticipante.EVENTO_NO_DISPONIBLE;
+            } else {
+                List<String> columnas = new ArrayList<>();
+                List<Object> valores = new ArrayList<>();
+                anadirCambio(columnas, valores, "recursos_humanos", actual[1], cambio.getRecursosHumanos());
+                anadirCambio(columnas, valores, "recursos_materiales", actual[2], cambio.getRecursosMateriales());
+                anadirCambio(columnas, valores, "asistencia_permitida", actual[3], cambio.getAsistenciaPermitida());
+                anadirCambio(columnas, valores, "pre_opinion", actual[4], noVacio(cambio.getPreOpinion()));
+                anadirCambio(columnas, valores, "post_opinion", actual[5], noVacio(cambio.getPostOpinion()));
+                if (columnas.isEmpty()) {
+                    resultado = ResultadoCambioParticipante.SIN_CAMBIOS;
+                } else {
+                    // Los recursos leídos van en el WHERE: los deltas de los contadores se calculan a partir de ellos
+                    valores.add(id);
+                    valores.add(actual[1]);
+                    valores.add(actual[2]);
+                    String sql = "UPDATE participantes SET " + String.join(" = ?, ", columnas)
+                            + " = ? WHERE id = ? AND recursos_humanos = ? AND recursos_materiales = ?";
+                    sentencias.computeIfAbsent(sql, k -> new ArrayList<>()).add(valores.toArray());
+                    int deltaRH = cambio.getRecursosHumanos() != null ? delta((Boolean) actual[1], cambio.getRecursosHumanos()) : 0;
+                    int deltaRM = cambio.getRecursosMateriales() != null ? delta((Boolean) actual[2], cambio.getRecursosMateriales()) : 0;
+                    pendientes.computeIfAbsent(sql, k -> new ArrayList<>()).add(new int[]{resultados.size(), deltaRH, deltaRM});
+                    resultado = ResultadoCambioParticipante.ACTUALIZADO;
+                }
+            }
+            resultados.add(new CambiosParticipantesResponseDto.ResultadoParticipanteDto(id, resultado));
+        }
+
+        // Solo cuentan las filas que se han actualizado de verdad
+        int actualizados = 0;
+        int deltaRH = 0;
+        int deltaRM = 0;
+        for (Map.Entry<String, List<Object[]>> sentencia : sentencias.entrySet()) {
+            int[] filas = jdbcTemplate.batchUpdate(sentencia.getKey(), sentencia.getValue());
+            List<int[]> cambios = pendientes.get(sentencia.getKey());
+            for (int i = 0; i < filas.length; i++) {
+                int[] pendiente = cambios.get(i);
+                if (filas[i] > 0) {
+                    actualizados++;
+                    deltaRH += pendiente[1];
+                    deltaRM += pendiente[2];
+                } else {
+                    resultados.get(pendiente[0]).setResultado(ResultadoCambioParticipante.CONFLICTO);
+                }
+            }
+        }
+        ajustarContadores(idEvento, 0, deltaRH, deltaRM);
+        return new CambiosParticipantesResponseDto(idEvento, actualizados, resultados);
+    }
+
+    /**
+     * Comprueba que todos los campos de un cambio se pueden modificar en el estado del evento.
+     */
+    private static boolean isCambioPermitido(CambiosParticipantesDto.CambioParticipanteDto cambio, EstadoSalida estado) {
+        boolean enPreparacion = estado == EstadoSalida.ABIERTO || estado == EstadoSalida.CERRADO;
+        if ((cambio.getRecursosHumanos() != null || cambio.getRecursosMateriales() != null
+                || cambio.getAsistenciaPermitida() != null) && !enPreparacion) {
+            return false;
+        }
+        if (noVacio(cambio.getPreOpinion()) != null && estado != EstadoSalida.ABIERTO) {
+            return false;
+        }
+        return noVacio(cambio.getPostOpinion()) == null || estado == EstadoSalida.FINALIZADA;
+    }
+
+    /**
+     * Añade una columna a la sentencia si el valor nuevo está informado y es distinto del actual.
+     */
+    private static void anadirCambio(List<String> columnas, List<Object> valores, String columna, Object actual, Object nuevo) {
+        if (nuevo != null && !nuevo.equals(actual)) {
+            columnas.add(columna);
+            valores.add(nuevo);
+        }
+    }
+
+    private static String noVacio(String texto) {
+        return texto == null || texto.trim().isEmpty() ? null : texto;
+    }
+
+    /**
+     * Notifica a las familias de todos los participantes de un evento de salida en una sola operación.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param idEvento ID del evento de salida.
+     * @param urgente Si es {@code true}, se envía de inmediato aunque esté activo el modo resumen.
+     * @return Identificador del envío y estado inicial del correo de cada familiar.
+     * @throws ResiException si el evento no existe, no pertenece a la residencia
+     *                      o ya no admite cambios de permisos (en curso o finalizado).
+     */
+    public NotificacionEventoResponseDto notificarFamilias(Long idResidencia, Long idEvento, boolean urgente) {
+        EventoSalida eventoSalida = eventoSalidaService.getEventoSalida(idResidencia, idEvento);
+
+        // Verificar el estado del evento de salida
+        if (eventoSalida.getEstado() != EstadoSalida.ABIERTO &&
+            eventoSalida.getEstado() != EstadoSalida.CERRADO) {
+            throw new ResiException(ApiErrorCode.EVENTO_SALIDA_NO_DISPONIBLE);
+        }
+
+        List<Participante> participantes = participanteRepository.findAllByEventoIdConResidente(idEvento);
+        return emailService.sendNotificacionesEvento(eventoSalida, participantes, urgente);
+    }
+
+    /**
+     * Obtiene el estado actual de cada correo de una notificación masiva de un evento.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param idEvento ID del evento de salida.
+     * @param lote Identificador del envío devuelto por {@link #notificarFamilias(Long, Long, boolean)}.
+     * @return Estado de cada correo del envío.
+     * @throws ResiException si el evento no existe o el envío no pertenece a ese evento.
+     */
+    public List<EmailEstadoResponseDto> getEstadoNotificacion(Long idResidencia, Long idEvento, String lote) {
+        eventoSalidaService.comprobarEventoSalida(idResidencia, idEvento);
+        if (!EmailService.isLoteDeEvento(lote, idEvento)) {
+            throw new ResiException(ApiErrorCode.LOTE_INVALIDO);
+        }
+        List<EmailEstadoResponseDto> correos = emailOutboxService.getEstadoLote(lote);
+        if (correos.isEmpty()) {
+            throw new ResiException(ApiErrorCode.LOTE_INVALIDO);
+        }
+        return correos;
     }
 
 
 
 
+    /**
+     * Actualiza los contadores desnormalizados del evento ({@link EventoSalida#getNumParticipantes()} y
+     * los de recursos) dentro de la transacción en curso.
+     *
+     * @param idEvento ID del evento de salida.
+     * @param participantes Variación del número de participantes.
+     * @param recursosHumanos Variación de participantes con recursos humanos.
+     * @param recursosMateriales Variación de participantes con recursos materiales.
+     */
+    private void ajustarContadores(Long idEvento, int participantes, int recursosHumanos, int recursosMateriales) {
+        if (participantes != 0 || recursosHumanos != 0 || recursosMateriales != 0) {
+            eventoSalidaRepository.ajustarContadores(idEvento, participantes, recursosHumanos, recursosMateriales);
+        }
+    }
+
+    private static int delta(boolean antes, boolean despues) {
+        return (despues ? 1 : 0) - (antes ? 1 : 0);
+    }
+
     /**
      * Obtiene un participante específico y valida que pertenezca a un evento de salida en una residencia.
      *
@@ -352,26 +711,15 @@ public class ParticipanteService {
             throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
         }
 
-        // Verificar si el evento de salida existe
-        EventoSalida eventoSalida = eventoSalidaService.getEventoSalida(idResidencia, idEvento);
-        if (eventoSalida == null) {
-            throw new ResiException(ApiErrorCode.EVENTO_SALIDA_INVALIDO);
-        }
-        // Verificar si el evento de salida pertenece a la residencia
-        if (!eventoSalida.getResidencia().getId().equals(idResidencia)) {
-            throw new ResiException(ApiErrorCode.EVENTO_SALIDA_INVALIDO);
-        }
-
+        // Verificar que el evento de salida existe y pertenece a la residencia
+        eventoSalidaService.comprobarEventoSalida(idResidencia, idEvento);
 
-        // Verificar si el participante existe
-        Participante participante = participanteRepository.findById(idParticipante)
-                .orElseThrow(() -> new ResiException(ApiErrorCode.PARTICIPANTE_INVALIDO));
-
-        // Verificar si el participante pertenece al evento de salida
-        if (!participante.getEvento().getId().equals(idEvento)) {
+        // Verificar que el participante existe y pertenece al evento de salida
+        if (!idEvento.equals(pertenenciaService.getEventoDeParticipante(idParticipante))) {
             throw new ResiException(ApiErrorCode.PARTICIPANTE_INVALIDO);
         }
-        return participante;
+        return participanteRepository.findById(idParticipante)
+                .orElseThrow(() -> new ResiException(ApiErrorCode.PARTICIPANTE_INVALIDO));
     }
 
 }
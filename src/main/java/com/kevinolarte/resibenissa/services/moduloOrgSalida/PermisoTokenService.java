@@ -0,0 +1,151 @@
+package com.kevinolarte.resibenissa.services.moduloOrgSalida;
+
+import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
+import com.kevinolarte.resibenissa.exceptions.ResiException;
+import com.kevinolarte.resibenissa.models.moduloOrgSalida.PermisoConsumido;
+import com.kevinolarte.resibenissa.repositories.moduloOrgSalida.PermisoConsumidoRepository;
+import com.kevinolarte.resibenissa.services.JwtService;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio que verifica y consume los tokens de los enlaces públicos de permitir/denegar permiso.
+ * <p>
+ * Cada token se verifica (firma, caducidad y claims en un único parseo) y solo puede usarse una vez.
+ * Los tokens consumidos se guardan en memoria, indexados por su firma, y en la tabla
+ * {@code permisos_consumidos} para sobrevivir a reinicios y detectar respuestas simultáneas desde
+ * otra instancia. Los clics repetidos se responden desde memoria, tras verificar el token, sin
+ * acceder a la base de datos; la comprobación y el consumo son una sola operación.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Service
+@RequiredArgsConstructor
+public class PermisoTokenService {
+
+    private final JwtService jwtService;
+    private final ParticipanteService participanteService;
+    private final PermisoConsumidoRepository permisoConsumidoRepository;
+
+    /**
+     * Tokens consumidos y aún no caducados, indexados por su firma.
+     */
+    private final Map<String, PermisoConsumido> consumidos = new ConcurrentHashMap<>();
+
+    /**
+     * Carga en memoria los tokens consumidos que siguen vigentes.
+     */
+    @PostConstruct
+    public void init() {
+        permisoConsumidoRepository.findByFechaExpiracionAfter(LocalDateTime.now())
+                .forEach(permiso -> consumidos.put(permiso.getFirma(), permiso));
+    }
+
+    /**
+     * Verifica el token y, si aún no se ha utilizado, lo marca como consumido y registra la
+     * respuesta en el participante. Si ya se utilizó, devuelve la respuesta registrada entonces.
+     * <p>
+     * El token se parsea una sola vez. Todo ocurre en una transacción: si la respuesta no se puede
+     * registrar, el token no queda consumido y puede volver a usarse.
+     * </p>
+     *
+     * @param token Token JWT del enlace.
+     * @param permitir {@code true} para permitir la asistencia, {@code false} para denegarla.
+     * @return {@code null} si la respuesta se ha registrado ahora, o la respuesta previa
+     *         ({@code true} si se permitió, {@code false} si se denegó) si el token ya se había utilizado.
+     * @throws ResiException si el token no es válido, otra instancia lo está consumiendo a la vez,
+     *                      o el participante no admite la respuesta.
+     * @throws io.jsonwebtoken.JwtException si la firma no es válida o el token ha caducado.
+     */
+    @Transactional
+    public Boolean responder(String token, boolean permitir) {
+        String firma = getFirma(token);
+        Claims claims = jwtService.extractClaim(token, c -> c);
+        Long idParticipante = getId(claims, "idParticipante");
+        Long idEvento = getId(claims, "idEvento");
+        Long idResidencia = getId(claims, "idResidencia");
+        LocalDateTime expiracion = LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault());
+
+        // Clics repetidos (o simultáneos): se responde desde memoria sin acceder a la base de datos
+        PermisoConsumido permiso = new PermisoConsumido(firma, permitir, expiracion);
+        PermisoConsumido previo = consumidos.putIfAbsent(firma, permiso);
+        if (previo != null) {
+            return previo.isPermitido();
+        }
+        // Si la transacción no se confirma, el token vuelve a estar disponible
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    consumidos.remove(firma, permiso);
+                }
+            }
+        });
+
+        try {
+            permisoConsumidoRepository.saveAndFlush(permiso);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResiException(ApiErrorCode.PERMISO_YA_RESPONDIDO);
+        }
+
+        if (permitir) {
+            participanteService.allow(idResidencia, idEvento, idParticipante);
+        } else {
+            participanteService.deny(idResidencia, idEvento, idParticipante);
+        }
+        return null;
+    }
+
+    /**
+     * Elimina de memoria y de la base de datos los tokens consumidos que ya han caducado.
+     */
+    @Scheduled(fixedDelayString = "${permisos.purga-ms:3600000}")
+    public void purgarCaducados() {
+        LocalDateTime ahora = LocalDateTime.now();
+        consumidos.values().removeIf(permiso -> !permiso.getFechaExpiracion().isAfter(ahora));
+        permisoConsumidoRepository.deleteCaducados(ahora);
+    }
+
+    /**
+     * Obtiene la firma de un token JWT, que lo identifica de forma única.
+     *
+     * @param token Token JWT.
+     * @return Firma del token.
+     * @throws ResiException si el token está vacío o no tiene formato JWT.
+     */
+    private static String getFirma(String token) {
+        int punto = token == null ? -1 : token.lastIndexOf('.');
+        if (punto < 0 || punto == token.length() - 1) {
+            throw new ResiException(ApiErrorCode.ENDPOINT_PROTEGIDO);
+        }
+        return token.substring(punto + 1);
+    }
+
+    /**
+     * Lee un identificador numérico de los claims del token.
+     *
+     * @param claims Claims ya verificados.
+     * @param nombre Nombre del claim.
+     * @return Valor del claim.
+     * @throws ResiException si el claim no existe o no es numérico.
+     */
+    private static Long getId(Claims claims, String nombre) {
+        if (!(claims.get(nombre) instanceof Number valor)) {
+            throw new ResiException(ApiErrorCode.ENDPOINT_PROTEGIDO);
+        }
+        return valor.longValue();
+    }
+}
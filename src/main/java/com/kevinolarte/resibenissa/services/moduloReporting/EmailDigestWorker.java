@@ -0,0 +1,50 @@
+package com.kevinolarte.resibenissa.services.moduloReporting;
+
+import com.kevinolarte.resibenissa.services.LoggerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Proceso programado que genera los correos de resumen para los familiares.
+ * <p>
+ * Cada {@code email.digest.intervalo-ms} busca los destinatarios cuyo correo agrupado más antiguo
+ * supera la ventana {@code email.digest.ventana-minutos} (un día por defecto) y fusiona todos sus
+ * correos pendientes en uno solo, que después envía {@link EmailOutboxWorker} como cualquier otro.
+ * </p>
+ *
+ * Solo se activa con {@code email.digest.enabled=true}.
+ *
+ * @author Kevin Olarte
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "email.digest.enabled", havingValue = "true")
+public class EmailDigestWorker {
+
+    private final EmailOutboxService emailOutboxService;
+    private final LoggerService loggerService;
+
+    /**
+     * Genera un resumen por cada destinatario con la ventana vencida.
+     * Si el resumen de un destinatario falla, se registra el error y sus correos se envían por separado
+     * (con los reintentos normales de la bandeja de salida), sin afectar a los demás.
+     */
+    @Scheduled(fixedDelayString = "${email.digest.intervalo-ms:60000}")
+    public void resumir() {
+        for (String destinatario : emailOutboxService.getDestinatariosResumenVencido()) {
+            try {
+                emailOutboxService.resumir(destinatario);
+            } catch (Exception e) {
+                loggerService.registrarLogError("Error al generar el resumen de correos de " + destinatario + ": " + e.getMessage());
+                try {
+                    emailOutboxService.enviarSinResumen(destinatario, e.getMessage());
+                } catch (Exception ex) {
+                    // Sus correos siguen agrupados y se reintentan en la siguiente ejecución
+                    loggerService.registrarLogError("Error al liberar los correos agrupados de " + destinatario + ": " + ex.getMessage());
+                }
+            }
+        }
+    }
+}
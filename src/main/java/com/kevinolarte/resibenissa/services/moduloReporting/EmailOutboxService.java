@@ -0,0 +1,360 @@
+package com.kevinolarte.resibenissa.services.moduloReporting;
+
+import com.kevinolarte.resibenissa.dto.out.moduloReporting.EmailEstadoResponseDto;
+import com.kevinolarte.resibenissa.enums.moduloReporting.EstadoEmail;
+import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
+import com.kevinolarte.resibenissa.exceptions.ResiException;
+import com.kevinolarte.resibenissa.models.moduloReporting.EmailOutbox;
+import com.kevinolarte.resibenissa.repositories.moduloReporting.EmailOutboxRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Servicio que gestiona la bandeja de salida de correos electrónicos.
+ * <p>
+ * Los servicios de negocio llaman a {@link #encolar(String, String, String)} en lugar de enviar
+ * el correo directamente. El correo se guarda en la misma transacción que el cambio de negocio
+ * y lo envía más tarde {@link EmailOutboxWorker}, que usa este servicio para reclamar correos,
+ * marcarlos como enviados o programar reintentos con backoff exponencial.
+ * </p>
+ * <p>
+ * Con {@code email.digest.enabled=true}, los correos no urgentes a familiares
+ * ({@link #encolarFamiliar(String, String, String, String, boolean)}) se acumulan por destinatario
+ * y {@link EmailDigestWorker} los fusiona en un único correo de resumen por ventana.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailTemplateService emailTemplateService;
+
+    @Value("${email.outbox.max-intentos:5}")
+    private int maxIntentos;
+
+    @Value("${email.outbox.backoff-inicial-segundos:30}")
+    private long backoffInicialSegundos;
+
+    @Value("${email.outbox.backoff-max-segundos:3600}")
+    private long backoffMaxSegundos;
+
+    @Value("${email.outbox.bloqueo-max-segundos:300}")
+    private long bloqueoMaxSegundos;
+
+    @Value("${email.digest.enabled:false}")
+    private boolean resumenActivo;
+
+    @Value("${email.digest.ventana-minutos:1440}")
+    private long ventanaResumenMinutos;
+
+    @Value("${email.digest.intervalo-ms:60000}")
+    private long intervaloResumenMs;
+
+    private static final String ASUNTO_RESUMEN = "Resumen de comunicaciones de la residencia";
+
+    /**
+     * Contenido del {@code <body>} de un correo, que es lo que se copia en el resumen.
+     */
+    private static final Pattern BODY = Pattern.compile("<body[^>]*>(.*)</body>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    /**
+     * Guarda un correo en la bandeja de salida para que se envíe en segundo plano.
+     * <p>
+     * Si se llama dentro de una transacción, el correo solo se enviará si esa transacción se confirma.
+     * </p>
+     *
+     * @param destinatario Dirección de correo del destinatario.
+     * @param asunto Asunto del correo.
+     * @param cuerpo Cuerpo del mensaje en formato HTML.
+     * @return El correo guardado.
+     * @throws ResiException si falta algún campo obligatorio.
+     */
+    @Transactional
+    public EmailOutbox encolar(String destinatario, String asunto, String cuerpo) {
+        return encolar(destinatario, asunto, cuerpo, null);
+    }
+
+    /**
+     * Guarda un correo en la bandeja de salida asociado a un envío masivo.
+     *
+     * @param destinatario Dirección de correo del destinatario.
+     * @param asunto Asunto del correo.
+     * @param cuerpo Cuerpo del mensaje en formato HTML.
+     * @param lote Identificador del envío masivo (opcional).
+     * @return El correo guardado.
+     * @throws ResiException si falta algún campo obligatorio.
+     */
+    @Transactional
+    public EmailOutbox encolar(String destinatario, String asunto, String cuerpo, String lote) {
+        if (destinatario == null || destinatario.trim().isEmpty() || asunto == null || cuerpo == null) {
+            throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
+        }
+        EmailOutbox email = new EmailOutbox(destinatario.trim(), asunto, cuerpo);
+        email.setLote(lote);
+        return emailOutboxRepository.save(email);
+    }
+
+    /**
+     * Guarda un correo dirigido a un familiar.
+     * <p>
+     * Si el modo resumen está activo y el correo no es urgente, queda en {@link EstadoEmail#AGRUPADO}
+     * para enviarse dentro del siguiente resumen del destinatario. En otro caso se envía como cualquier otro correo.
+     * </p>
+     *
+     * @param destinatario Dirección de correo del familiar.
+     * @param asunto Asunto del correo.
+     * @param cuerpo Cuerpo del mensaje en formato HTML.
+     * @param lote Identificador del envío masivo (opcional).
+     * @param urgente {@code true} para enviarlo de inmediato aunque el modo resumen esté activo.
+     * @return El correo guardado.
+     * @throws ResiException si falta algún campo obligatorio.
+     */
+    @Transactional
+    public EmailOutbox encolarFamiliar(String destinatario, String asunto, String cuerpo, String lote, boolean urgente) {
+        EmailOutbox email = encolar(destinatario, asunto, cuerpo, lote);
+        if (isAgrupable(urgente)) {
+            email.setEstado(EstadoEmail.AGRUPADO);
+            email = emailOutboxRepository.save(email);
+        }
+        return email;
+    }
+
+    /**
+     * Indica si un correo a un familiar se agruparía en el resumen.
+     *
+     * @param urgente Si el correo es urgente.
+     * @return {@code true} si el modo resumen está activo y el correo no es urgente.
+     */
+    public boolean isAgrupable(boolean urgente) {
+        return resumenActivo && !urgente;
+    }
+
+    /**
+     * Retraso máximo con el que puede salir un correo a un familiar, para dimensionar
+     * la caducidad de los enlaces que contiene.
+     *
+     * @param urgente Si el correo es urgente.
+     * @return Cero si se envía de inmediato, o la ventana de resumen más el intervalo del proceso.
+     */
+    public Duration getRetrasoMaximo(boolean urgente) {
+        if (!isAgrupable(urgente)) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMinutes(ventanaResumenMinutos).plusMillis(intervaloResumenMs);
+    }
+
+    /**
+     * Obtiene los destinatarios cuya ventana de resumen ya ha terminado.
+     *
+     * @return Direcciones de correo con un resumen pendiente de generar.
+     */
+    public List<String> getDestinatariosResumenVencido() {
+        return emailOutboxRepository.findDestinatariosConResumenVencido(EstadoEmail.AGRUPADO,
+                LocalDateTime.now().minusMinutes(ventanaResumenMinutos));
+    }
+
+    /**
+     * Fusiona todos los correos agrupados de un destinatario en un único correo de resumen.
+     * <p>
+     * El resumen se guarda como pendiente y los correos originales pasan a {@link EstadoEmail#RESUMIDO}
+     * apuntando a él, todo en la misma transacción. Si otro proceso ya los había resumido, se deshace.
+     * </p>
+     *
+     * @param destinatario Dirección de correo del familiar.
+     * @return El correo de resumen, o {@code null} si no había nada que resumir.
+     * @throws IllegalStateException si los correos cambiaron de estado mientras se resumían.
+     */
+    @Transactional
+    public EmailOutbox resumir(String destinatario) {
+        List<EmailOutbox> agrupados = emailOutboxRepository.findByDestinatarioAndEstadoOrderByIdAsc(destinatario, EstadoEmail.AGRUPADO);
+        if (agrupados.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder mensajes = new StringBuilder();
+        for (EmailOutbox email : agrupados) {
+            mensajes.append("<div class=\"mensaje\"><h3>")
+                    .append(HtmlUtils.htmlEscape(email.getAsunto()))
+                    .append("</h3>")
+                    .append(getContenidoBody(email.getCuerpo()))
+                    .append("</div>");
+        }
+        Map<String, String> valores = new HashMap<>();
+        valores.put("total", String.valueOf(agrupados.size()));
+        valores.put("mensajes", mensajes.toString());
+        String cuerpo = emailTemplateService.render(EmailTemplateService.PLANTILLA_RESUMEN_FAMILIAR, valores);
+
+        EmailOutbox resumen = encolar(destinatario, ASUNTO_RESUMEN, cuerpo, null);
+        List<Long> ids = agrupados.stream().map(EmailOutbox::getId).toList();
+        if (emailOutboxRepository.marcarResumidos(ids, resumen.getId(), EstadoEmail.AGRUPADO, EstadoEmail.RESUMIDO) != ids.size()) {
+            throw new IllegalStateException("Correos de " + destinatario + " modificados durante el resumen");
+        }
+        return resumen;
+    }
+
+    /**
+     * Obtiene el contenido del {@code <body>} de un documento HTML, para insertarlo en otro documento
+     * sin su {@code DOCTYPE}, {@code <head>} ni estilos.
+     *
+     * @param html Documento HTML completo o fragmento.
+     * @return Contenido del {@code <body>}, o el propio texto si no tiene {@code <body>}.
+     */
+    private static String getContenidoBody(String html) {
+        Matcher body = BODY.matcher(html);
+        return body.find() ? body.group(1) : html;
+    }
+
+    /**
+     * Envía por separado los correos agrupados de un destinatario cuyo resumen no se ha podido generar.
+     * <p>
+     * Los correos vuelven a {@link EstadoEmail#PENDIENTE} con el error anotado, y desde ahí siguen
+     * el ciclo normal de envío y reintentos de {@link EmailOutboxWorker}.
+     * </p>
+     *
+     * @param destinatario Dirección de correo del familiar.
+     * @param error Motivo por el que falló el resumen.
+     * @return Número de correos liberados.
+     */
+    public int enviarSinResumen(String destinatario, String error) {
+        String motivo = "Resumen no generado: " + error;
+        return emailOutboxRepository.liberarAgrupados(destinatario, EstadoEmail.AGRUPADO, EstadoEmail.PENDIENTE,
+                motivo.length() > 1000 ? motivo.substring(0, 1000) : motivo);
+    }
+
+    /**
+     * Obtiene el estado actual de todos los correos de un envío masivo.
+     * <p>
+     * Los correos incluidos en un resumen ({@link EstadoEmail#RESUMIDO}) muestran el estado de envío
+     * de su resumen, que es el correo que realmente se envía.
+     * </p>
+     *
+     * @param lote Identificador del envío.
+     * @return Estado de cada correo del envío.
+     */
+    public List<EmailEstadoResponseDto> getEstadoLote(String lote) {
+        List<EmailOutbox> correos = emailOutboxRepository.findByLoteOrderByIdAsc(lote);
+        List<Long> idsResumen = correos.stream()
+                .filter(e -> e.getEstado() == EstadoEmail.RESUMIDO && e.getResumen() != null)
+                .map(EmailOutbox::getResumen)
+                .distinct()
+                .toList();
+        Map<Long, EmailOutbox> resumenes = new HashMap<>();
+        if (!idsResumen.isEmpty()) {
+            emailOutboxRepository.findAllById(idsResumen).forEach(r -> resumenes.put(r.getId(), r));
+        }
+        return correos.stream()
+                .map(e -> new EmailEstadoResponseDto(e, e.getEstado() == EstadoEmail.RESUMIDO ? resumenes.get(e.getResumen()) : null))
+                .toList();
+    }
+
+    /**
+     * Reclama hasta {@code max} correos pendientes cuyo intento ya ha vencido.
+     * <p>
+     * Cada correo se reclama con una actualización condicional, así que un correo
+     * nunca es reclamado por dos workers a la vez.
+     * </p>
+     *
+     * @param max Número máximo de correos a reclamar.
+     * @return Correos reclamados, ya en estado {@link EstadoEmail#ENVIANDO}.
+     */
+    public List<EmailOutbox> reclamarPendientes(int max) {
+        List<EmailOutbox> reclamados = new ArrayList<>();
+        if (max <= 0) {
+            return reclamados;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        List<EmailOutbox> candidatos = emailOutboxRepository
+                .findByEstadoAndSiguienteIntentoLessThanEqualOrderBySiguienteIntentoAsc(EstadoEmail.PENDIENTE, ahora, PageRequest.of(0, max));
+
+        for (EmailOutbox email : candidatos) {
+            if (emailOutboxRepository.reclamar(email.getId(), EstadoEmail.PENDIENTE, EstadoEmail.ENVIANDO, ahora) == 1) {
+                email.setEstado(EstadoEmail.ENVIANDO);
+                email.setFechaBloqueo(ahora);
+                reclamados.add(email);
+            }
+        }
+        return reclamados;
+    }
+
+    /**
+     * Marca un correo como enviado.
+     *
+     * @param id ID del correo.
+     */
+    @Transactional
+    public void marcarEnviado(Long id) {
+        emailOutboxRepository.findById(id).ifPresent(email -> {
+            email.setEstado(EstadoEmail.ENVIADO);
+            email.setIntentos(email.getIntentos() + 1);
+            email.setFechaEnvio(LocalDateTime.now());
+            email.setFechaBloqueo(null);
+            email.setUltimoError(null);
+            emailOutboxRepository.save(email);
+        });
+    }
+
+    /**
+     * Registra un intento fallido de envío.
+     * <p>
+     * Si quedan intentos, el correo vuelve a pendiente con un retraso que se duplica en cada
+     * intento (hasta {@code email.outbox.backoff-max-segundos}). Si no, pasa a {@link EstadoEmail#FALLIDO}.
+     * </p>
+     *
+     * @param id ID del correo.
+     * @param error Descripción del error producido.
+     */
+    @Transactional
+    public void registrarFallo(Long id, String error) {
+        emailOutboxRepository.findById(id).ifPresent(email -> {
+            int intentos = email.getIntentos() + 1;
+            email.setIntentos(intentos);
+            email.setFechaBloqueo(null);
+            email.setUltimoError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+
+            if (intentos >= maxIntentos) {
+                email.setEstado(EstadoEmail.FALLIDO);
+            } else {
+                email.setEstado(EstadoEmail.PENDIENTE);
+                email.setSiguienteIntento(LocalDateTime.now().plusSeconds(calcularBackoff(intentos)));
+            }
+            emailOutboxRepository.save(email);
+        });
+    }
+
+    /**
+     * Libera los correos que llevan más de {@code email.outbox.bloqueo-max-segundos} en envío.
+     *
+     * @return Número de correos liberados.
+     */
+    public int liberarBloqueados() {
+        return emailOutboxRepository.liberarBloqueados(EstadoEmail.ENVIANDO, EstadoEmail.PENDIENTE,
+                LocalDateTime.now().minusSeconds(bloqueoMaxSegundos));
+    }
+
+    /**
+     * Calcula el retraso antes del siguiente intento: {@code inicial * 2^(intentos - 1)}, con tope.
+     *
+     * @param intentos Intentos realizados hasta ahora.
+     * @return Segundos de espera.
+     */
+    private long calcularBackoff(int intentos) {
+        int exponente = Math.min(intentos - 1, 20);
+        return Math.min(backoffInicialSegundos << exponente, backoffMaxSegundos);
+    }
+}
@@ -0,0 +1,107 @@
+package com.kevinolarte.resibenissa.services.moduloReporting;
+
+import com.kevinolarte.resibenissa.models.moduloReporting.EmailOutbox;
+import com.kevinolarte.resibenissa.services.EmailService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Proceso en segundo plano que vacía la bandeja de salida de correos.
+ * <p>
+ * Periódicamente reclama los correos pendientes, los agrupa en bloques de hasta
+ * {@code email.outbox.mensajes-por-conexion} y reparte los bloques entre un pool acotado de hilos.
+ * Cada bloque se envía por una sola conexión SMTP mediante {@link EmailService#sendEmails(List)}, así que
+ * como mucho hay {@code email.outbox.workers} conexiones abiertas a la vez. Solo reclama tantos
+ * correos como huecos libres tenga el pool, así que nunca bloquea más correos de los que puede enviar.
+ * </p>
+ *
+ * Se puede desactivar con {@code email.outbox.enabled=false}.
+ *
+ * @author Kevin Olarte
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "email.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class EmailOutboxWorker {
+
+    private final EmailOutboxService emailOutboxService;
+    private final EmailService emailService;
+
+    @Value("${email.outbox.workers:4}")
+    private int workers;
+
+    @Value("${email.outbox.mensajes-por-conexion:20}")
+    private int mensajesPorConexion;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger contador = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                workers, workers,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * 4),
+                r -> {
+                    Thread t = new Thread(r, "email-outbox-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Reclama los correos pendientes que caben en el pool y los envía en paralelo,
+     * un bloque por conexión SMTP.
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.intervalo-ms:2000}")
+    public void drenar() {
+        emailOutboxService.liberarBloqueados();
+
+        int huecos = executor.getQueue().remainingCapacity();
+        List<EmailOutbox> correos = emailOutboxService.reclamarPendientes(huecos * mensajesPorConexion);
+        for (int i = 0; i < correos.size(); i += mensajesPorConexion) {
+            List<EmailOutbox> bloque = correos.subList(i, Math.min(i + mensajesPorConexion, correos.size()));
+            executor.execute(() -> enviar(bloque));
+        }
+    }
+
+    /**
+     * Envía un bloque de correos reclamados y registra el resultado de cada uno.
+     *
+     * @param bloque Correos a enviar por la misma conexión.
+     */
+    private void enviar(List<EmailOutbox> bloque) {
+        Map<Long, String> fallidos;
+        try {
+            fallidos = emailService.sendEmails(bloque);
+        } catch (Exception e) {
+            bloque.forEach(correo -> emailOutboxService.registrarFallo(correo.getId(), e.getMessage()));
+            return;
+        }
+        for (EmailOutbox correo : bloque) {
+            if (fallidos.containsKey(correo.getId())) {
+                emailOutboxService.registrarFallo(correo.getId(), fallidos.get(correo.getId()));
+            } else {
+                emailOutboxService.marcarEnviado(correo.getId());
+            }
+        }
+    }
+}
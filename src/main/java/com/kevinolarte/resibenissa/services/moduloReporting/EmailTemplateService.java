@@ -0,0 +1,122 @@
+package com.kevinolarte.resibenissa.services.moduloReporting;
+
+import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
+import com.kevinolarte.resibenissa.exceptions.ResiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio que carga y cachea las plantillas HTML de los correos.
+ * <p>
+ * Las plantillas se leen del classpath ({@code templates/<nombre>.html}), por lo que funcionan
+ * igual desde el IDE que desde el jar empaquetado. Cada plantilla se lee y compila una sola vez
+ * en un {@link PlantillaEmail}; después renderizar no toca el disco.
+ * </p>
+ *
+ * Con {@code email.templates.dir} (pensado para desarrollo) las plantillas se buscan primero en ese
+ * directorio del sistema de ficheros: se comprueba la fecha de modificación del fichero en cada uso y
+ * la plantilla se recompila si ha cambiado. Las que no estén en el directorio se leen del classpath,
+ * que no cambia, así que no se vuelven a comprobar.
+ *
+ * @author Kevin Olarte
+ */
+@Service
+public class EmailTemplateService {
+
+    public static final String PLANTILLA_PERMISO_EXCURSION = "permiso-excursion";
+    public static final String PLANTILLA_VERIFICACION = "verificacion-cuenta";
+    public static final String PLANTILLA_RESUMEN_FAMILIAR = "resumen-familiar";
+
+    private static final String CARPETA = "templates/";
+    private static final String EXTENSION = ".html";
+
+    /**
+     * Fecha de modificación de las plantillas que no están en el directorio.
+     */
+    private static final long SIN_FICHERO = 0L;
+
+    private final Map<String, PlantillaEmail> cache = new ConcurrentHashMap<>();
+
+    @Value("${email.templates.dir:}")
+    private String directorio;
+
+    /**
+     * Renderiza una plantilla con los valores indicados.
+     *
+     * @param nombre Nombre de la plantilla (sin carpeta ni extensión).
+     * @param valores Valor de cada placeholder.
+     * @return HTML resultante.
+     * @throws ResiException si la plantilla no existe o no se puede leer.
+     */
+    public String render(String nombre, Map<String, String> valores) {
+        return getPlantilla(nombre).render(valores);
+    }
+
+    /**
+     * Obtiene la plantilla compilada, cargándola la primera vez que se pide.
+     *
+     * @param nombre Nombre de la plantilla (sin carpeta ni extensión).
+     * @return Plantilla compilada.
+     * @throws ResiException si la plantilla no existe o no se puede leer.
+     */
+    public PlantillaEmail getPlantilla(String nombre) {
+        PlantillaEmail plantilla = cache.computeIfAbsent(nombre, this::cargar);
+        if (!directorio.isBlank() && ultimaModificacion(nombre) != plantilla.getUltimaModificacion()) {
+            plantilla = cargar(nombre);
+            cache.put(nombre, plantilla);
+        }
+        return plantilla;
+    }
+
+    /**
+     * Lee y compila una plantilla del directorio configurado o, si no está ahí, del classpath.
+     *
+     * @param nombre Nombre de la plantilla.
+     * @return Plantilla compilada.
+     */
+    private PlantillaEmail cargar(String nombre) {
+        long modificacion = ultimaModificacion(nombre);
+        try {
+            String texto = modificacion != SIN_FICHERO
+                    ? Files.readString(fichero(nombre), StandardCharsets.UTF_8)
+                    : leerClasspath(nombre);
+            return PlantillaEmail.compilar(nombre, texto, modificacion);
+        } catch (IOException e) {
+            throw new ResiException(ApiErrorCode.PROBLEMAS_CON_FILE);
+        }
+    }
+
+    private String leerClasspath(String nombre) throws IOException {
+        try (InputStream in = new ClassPathResource(CARPETA + nombre + EXTENSION).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private Path fichero(String nombre) {
+        return Path.of(directorio, nombre + EXTENSION);
+    }
+
+    /**
+     * Devuelve la fecha de modificación de la plantilla en el directorio configurado, o
+     * {@link #SIN_FICHERO} si no hay directorio o la plantilla no está en él.
+     */
+    private long ultimaModificacion(String nombre) {
+        if (directorio.isBlank()) {
+            return SIN_FICHERO;
+        }
+        try {
+            return Files.getLastModifiedTime(fichero(nombre)).toMillis();
+        } catch (IOException e) {
+            return SIN_FICHERO;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.kevinolarte.resibenissa.services.moduloReporting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plantilla HTML de correo ya precompilada.
+ * <p>
+ * Al compilarse, el texto se divide en segmentos literales y nombres de placeholder
+ * ({@code {{nombre}}}), de forma que renderizar es solo concatenar segmentos sobre un
+ * buffer con el tamaño exacto, sin búsquedas ni reemplazos sobre el texto completo.
+ * </p>
+ *
+ * Las instancias son inmutables y se pueden compartir entre hilos.
+ *
+ * @author Kevin Olarte
+ */
+public final class PlantillaEmail {
+
+    private static final String APERTURA = "{{";
+    private static final String CIERRE = "}}";
+
+    private final String nombre;
+
+    /**
+     * Segmentos literales. Siempre hay uno más que placeholders:
+     * {@code literales[0] + valor(placeholders[0]) + literales[1] + ... + literales[n]}.
+     */
+    private final String[] literales;
+    private final String[] placeholders;
+    private final int longitudLiterales;
+    private final long ultimaModificacion;
+
+    private PlantillaEmail(String nombre, String[] literales, String[] placeholders, long ultimaModificacion) {
+        this.nombre = nombre;
+        this.literales = literales;
+        this.placeholders = placeholders;
+        this.ultimaModificacion = ultimaModificacion;
+        int longitud = 0;
+        for (String literal : literales) {
+            longitud += literal.length();
+        }
+        this.longitudLiterales = longitud;
+    }
+
+    /**
+     * Compila el texto de una plantilla en segmentos literales y placeholders.
+     *
+     * @param nombre Nombre de la plantilla.
+     * @param texto Contenido de la plantilla.
+     * @param ultimaModificacion Fecha de modificación del recurso de origen (o {@code 0} si no se conoce).
+     * @return Plantilla compilada.
+     */
+    public static PlantillaEmail compilar(String nombre, String texto, long ultimaModificacion) {
+        List<String> literales = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+
+        int desde = 0;
+        while (true) {
+            int inicio = texto.indexOf(APERTURA, desde);
+            int fin = inicio < 0 ? -1 : texto.indexOf(CIERRE, inicio + APERTURA.length());
+            if (inicio < 0 || fin < 0) {
+                literales.add(texto.substring(desde));
+                break;
+            }
+            literales.add(texto.substring(desde, inicio));
+            placeholders.add(texto.substring(inicio + APERTURA.length(), fin).trim());
+            desde = fin + CIERRE.length();
+        }
+
+        return new PlantillaEmail(nombre, literales.toArray(new String[0]), placeholders.toArray(new String[0]), ultimaModificacion);
+    }
+
+    /**
+     * Renderiza la plantilla con los valores indicados.
+     * <p>
+     * Los placeholders sin valor se dejan tal cual ({@code {{nombre}}}) para que sean visibles.
+     * </p>
+     *
+     * @param valores Valor de cada placeholder.
+     * @return HTML resultante.
+     */
+    public String render(Map<String, String> valores) {
+        String[] resueltos = new String[placeholders.length];
+        int capacidad = longitudLiterales;
+        for (int i = 0; i < placeholders.length; i++) {
+            String valor = valores.get(placeholders[i]);
+            resueltos[i] = valor != null ? valor : APERTURA + placeholders[i] + CIERRE;
+            capacidad += resueltos[i].length();
+        }
+
+        StringBuilder sb = new StringBuilder(capacidad);
+        for (int i = 0; i < placeholders.length; i++) {
+            sb.append(literales[i]).append(resueltos[i]);
+        }
+        sb.append(literales[placeholders.length]);
+        return sb.toString();
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public long getUltimaModificacion() {
+        return ultimaModificacion;
+    }
+}
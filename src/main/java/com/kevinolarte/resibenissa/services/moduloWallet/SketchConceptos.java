@@ -0,0 +1,97 @@
+package com.kevinolarte.resibenissa.services.moduloWallet;
+
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.ConceptoTopResponseDto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contador acotado de los conceptos con más peso (algoritmo Space-Saving).
+ * <p>
+ * Guarda como mucho {@code capacidad} conceptos. Cuando llega uno nuevo y no hay sitio, sustituye al de
+ * menor valor y hereda ese valor como error. Cualquier concepto cuyo peso real supere
+ * {@code total / capacidad} está garantizado en la lista, y el valor de cada concepto es una cota
+ * superior con un error conocido. El peso puede ser 1 (frecuencia) o el importe (gasto).
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+class SketchConceptos {
+
+    private final int capacidad;
+
+    /**
+     * Contadores por concepto: {@code [valor, error]}.
+     */
+    private final Map<String, long[]> contadores = new HashMap<>();
+
+    SketchConceptos(int capacidad) {
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * Suma un peso a un concepto.
+     *
+     * @param concepto Concepto ya normalizado.
+     * @param peso Peso a sumar.
+     */
+    synchronized void sumar(String concepto, long peso) {
+        long[] contador = contadores.get(concepto);
+        if (contador != null) {
+            contador[0] += peso;
+            return;
+        }
+        if (contadores.size() < capacidad) {
+            contadores.put(concepto, new long[]{peso, 0});
+            return;
+        }
+
+        String minimo = null;
+        long valorMinimo = Long.MAX_VALUE;
+        for (Map.Entry<String, long[]> entrada : contadores.entrySet()) {
+            if (entrada.getValue()[0] < valorMinimo) {
+                valorMinimo = entrada.getValue()[0];
+                minimo = entrada.getKey();
+            }
+        }
+        contadores.remove(minimo);
+        contadores.put(concepto, new long[]{valorMinimo + peso, valorMinimo});
+    }
+
+    /**
+     * Restaura un contador guardado.
+     */
+    synchronized void cargar(String concepto, long valor, long error) {
+        if (contadores.size() < capacidad || contadores.containsKey(concepto)) {
+            contadores.put(concepto, new long[]{valor, error});
+        }
+    }
+
+    /**
+     * Obtiene los {@code n} conceptos con más peso, de mayor a menor.
+     *
+     * @param n Número de conceptos.
+     * @return Conceptos con su valor y error.
+     */
+    synchronized List<ConceptoTopResponseDto> top(int n) {
+        return contadores.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[0]).reversed())
+                .limit(n)
+                .map(e -> new ConceptoTopResponseDto(e.getKey(), e.getValue()[0], e.getValue()[1]))
+                .toList();
+    }
+
+    /**
+     * Copia de todos los contadores, para guardarlos.
+     *
+     * @return Conceptos con su valor y error.
+     */
+    synchronized List<ConceptoTopResponseDto> copia() {
+        List<ConceptoTopResponseDto> copia = new ArrayList<>(contadores.size());
+        contadores.forEach((concepto, contador) -> copia.add(new ConceptoTopResponseDto(concepto, contador[0], contador[1])));
+        return copia;
+    }
+}
@@ -0,0 +1,194 @@
+package com.kevinolarte.resibenissa.services.moduloWallet;
+
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.ConceptoTopResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.ConceptosWalletResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.ResumenMensualResponseDto;
+import com.kevinolarte.resibenissa.enums.moduloWallet.TipoMovimiento;
+import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
+import com.kevinolarte.resibenissa.exceptions.ResiException;
+import com.kevinolarte.resibenissa.models.moduloWallet.ConceptoTopWallet;
+import com.kevinolarte.resibenissa.repositories.moduloWallet.ConceptoTopWalletRepository;
+import com.kevinolarte.resibenissa.repositories.moduloWallet.ResumenMensualWalletRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio de analítica de las wallets.
+ * <p>
+ * Mantiene, en la misma transacción que cada movimiento, los totales mensuales por wallet y tipo
+ * ({@code resumenes_mensuales_wallet}), y en memoria dos contadores acotados por residencia con los
+ * conceptos de gasto más frecuentes y más caros ({@link SketchConceptos}). Las consultas de analítica
+ * responden con estas estructuras, sin recorrer los movimientos.
+ * </p>
+ * <p>
+ * Los contadores de conceptos se actualizan al confirmarse la transacción del movimiento y se guardan
+ * periódicamente en {@code conceptos_top_wallet}; tras un reinicio se pierden, como mucho, los gastos
+ * del último intervalo.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Service
+@RequiredArgsConstructor
+public class WalletAnaliticaService {
+
+    private final ResumenMensualWalletRepository resumenMensualWalletRepository;
+    private final ConceptoTopWalletRepository conceptoTopWalletRepository;
+
+    @Value("${wallet.analitica.conceptos-max:64}")
+    private int conceptosMax;
+
+    private final Map<Long, SketchConceptos> frecuentes = new ConcurrentHashMap<>();
+    private final Map<Long, SketchConceptos> caros = new ConcurrentHashMap<>();
+
+    /**
+     * Residencias con contadores cambiados desde la última vez que se guardaron.
+     */
+    private final Set<Long> pendientes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Carga los contadores de conceptos guardados.
+     */
+    @PostConstruct
+    public void init() {
+        for (ConceptoTopWallet c : conceptoTopWalletRepository.findAll()) {
+            Map<Long, SketchConceptos> sketches = ConceptoTopWallet.METRICA_IMPORTE.equals(c.getMetrica()) ? caros : frecuentes;
+            getSketch(sketches, c.getIdResidencia()).cargar(c.getConcepto(), c.getValor(), c.getError());
+        }
+    }
+
+    /**
+     * Registra un movimiento en la analítica. Debe llamarse dentro de la transacción que lo guarda.
+     *
+     * @param idResidencia ID de la residencia del residente.
+     * @param idWallet ID de la wallet.
+     * @param tipo Tipo de movimiento.
+     * @param centimos Cantidad en céntimos.
+     * @param concepto Concepto del movimiento (puede ser nulo).
+     * @param fecha Fecha del movimiento.
+     */
+    public void registrar(Long idResidencia, Long idWallet, TipoMovimiento tipo, long centimos, String concepto, LocalDateTime fecha) {
+        resumenMensualWalletRepository.acumular(idWallet, idResidencia, fecha.getYear(), fecha.getMonthValue(), tipo.name(), centimos);
+        if (tipo != TipoMovimiento.OUT) {
+            return;
+        }
+        String normalizado = normalizar(concepto);
+        if (normalizado == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sumarGasto(idResidencia, normalizado, centimos);
+                }
+            });
+        } else {
+            sumarGasto(idResidencia, normalizado, centimos);
+        }
+    }
+
+    /**
+     * Obtiene los totales mensuales de una wallet en un año.
+     *
+     * @param idWallet ID de la wallet.
+     * @param anio Año a consultar.
+     * @return Totales por mes y tipo.
+     */
+    public List<ResumenMensualResponseDto> getResumenMensualWallet(Long idWallet, int anio) {
+        return resumenMensualWalletRepository.findByWallet(idWallet, anio);
+    }
+
+    /**
+     * Obtiene los totales mensuales de todas las wallets de una residencia en un año.
+     *
+     * @param idResidencia ID de la residencia.
+     * @param anio Año a consultar (opcional, por defecto el actual).
+     * @return Totales por mes y tipo.
+     */
+    public List<ResumenMensualResponseDto> getResumenMensualResidencia(Long idResidencia, Integer anio) {
+        return resumenMensualWalletRepository.findByResidencia(idResidencia, anio != null ? anio : LocalDate.now().getYear());
+    }
+
+    /**
+     * Obtiene los conceptos de gasto más frecuentes y los de mayor importe de una residencia.
+     * Los valores son aproximados (ver {@link ConceptoTopResponseDto}).
+     *
+     * @param idResidencia ID de la residencia.
+     * @param n Número de conceptos de cada lista.
+     * @return Conceptos más frecuentes y más caros.
+     * @throws ResiException si {@code n} no es válido.
+     */
+    public ConceptosWalletResponseDto getConceptosTop(Long idResidencia, int n) {
+        if (n <= 0 || n > conceptosMax) {
+            throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
+        }
+        SketchConceptos frecuencia = frecuentes.get(idResidencia);
+        SketchConceptos importe = caros.get(idResidencia);
+        return new ConceptosWalletResponseDto(
+                frecuencia != null ? frecuencia.top(n) : List.of(),
+                importe != null ? importe.top(n) : List.of());
+    }
+
+    /**
+     * Guarda los contadores de conceptos de las residencias que han cambiado.
+     */
+    @Scheduled(fixedDelayString = "${wallet.analitica.guardar-intervalo-ms:300000}")
+    @Transactional
+    public void guardarConceptos() {
+        for (Long idResidencia : List.copyOf(pendientes)) {
+            pendientes.remove(idResidencia);
+            List<ConceptoTopWallet> filas = new ArrayList<>();
+            copiar(idResidencia, frecuentes, ConceptoTopWallet.METRICA_FRECUENCIA, filas);
+            copiar(idResidencia, caros, ConceptoTopWallet.METRICA_IMPORTE, filas);
+            conceptoTopWalletRepository.deleteAllByIdResidencia(idResidencia);
+            conceptoTopWalletRepository.saveAll(filas);
+        }
+    }
+
+    private void sumarGasto(Long idResidencia, String concepto, long centimos) {
+        getSketch(frecuentes, idResidencia).sumar(concepto, 1);
+        getSketch(caros, idResidencia).sumar(concepto, centimos);
+        pendientes.add(idResidencia);
+    }
+
+    private SketchConceptos getSketch(Map<Long, SketchConceptos> sketches, Long idResidencia) {
+        return sketches.computeIfAbsent(idResidencia, id -> new SketchConceptos(conceptosMax));
+    }
+
+    private static void copiar(Long idResidencia, Map<Long, SketchConceptos> sketches, String metrica, List<ConceptoTopWallet> filas) {
+        SketchConceptos sketch = sketches.get(idResidencia);
+        if (sketch == null) {
+            return;
+        }
+        for (ConceptoTopResponseDto c : sketch.copia()) {
+            filas.add(new ConceptoTopWallet(idResidencia, metrica, c.getConcepto(), c.getValor(), c.getError()));
+        }
+    }
+
+    /**
+     * Normaliza un concepto para que "Peluquería" y " peluquería " cuenten como el mismo.
+     */
+    private static String normalizar(String concepto) {
+        if (concepto == null || concepto.trim().isEmpty()) {
+            return null;
+        }
+        String normalizado = concepto.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        return normalizado.length() > 255 ? normalizado.substring(0, 255) : normalizado;
+    }
+}
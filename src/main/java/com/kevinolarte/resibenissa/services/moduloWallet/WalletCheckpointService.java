@@ -0,0 +1,89 @@
+package com.kevinolarte.resibenissa.services.moduloWallet;
+
+import com.kevinolarte.resibenissa.models.moduloWallet.CheckpointWallet;
+import com.kevinolarte.resibenissa.repositories.moduloWallet.CheckpointWalletRepository;
+import com.kevinolarte.resibenissa.repositories.moduloWallet.MovimientoWalletRepository;
+import com.kevinolarte.resibenissa.repositories.moduloWallet.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Servicio que mantiene los checkpoints de saldo de las wallets ({@link CheckpointWallet})
+ * y calcula con ellos el saldo en cualquier momento pasado.
+ * <p>
+ * Cada noche se crea, para cada wallet, un checkpoint al inicio de cada día con movimientos desde
+ * su último checkpoint (la primera vez se rellena todo el historial). Así el saldo en una fecha es
+ * una búsqueda del checkpoint anterior más la suma de, como mucho, un día de movimientos.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Service
+@RequiredArgsConstructor
+public class WalletCheckpointService {
+
+    private static final LocalDateTime FECHA_MINIMA = LocalDate.of(1900, 1, 1).atStartOfDay();
+
+    private final CheckpointWalletRepository checkpointWalletRepository;
+    private final MovimientoWalletRepository movimientoWalletRepository;
+    private final WalletRepository walletRepository;
+
+    /**
+     * Calcula el saldo de una wallet justo antes de un momento dado.
+     *
+     * @param idWallet ID de la wallet.
+     * @param momento Momento de referencia (los movimientos de ese instante no se incluyen).
+     * @return Saldo en céntimos.
+     */
+    public long getSaldoAntesDe(Long idWallet, LocalDateTime momento) {
+        Optional<CheckpointWallet> checkpoint = checkpointWalletRepository
+                .findFirstByWalletIdAndFechaLessThanEqualOrderByFechaDesc(idWallet, momento);
+        if (checkpoint.isPresent()) {
+            return checkpoint.get().getSaldoCentimos()
+                    + movimientoWalletRepository.sumarEntre(idWallet, checkpoint.get().getFecha(), momento);
+        }
+        return movimientoWalletRepository.sumarEntre(idWallet, FECHA_MINIMA, momento);
+    }
+
+    /**
+     * Genera los checkpoints de todas las wallets hasta el inicio del día actual.
+     * Se ejecuta de madrugada, cuando ya no se pueden registrar movimientos del día anterior.
+     */
+    @Scheduled(cron = "${wallet.checkpoint.cron:0 30 2 * * *}")
+    public void generarCheckpoints() {
+        LocalDateTime hoy = LocalDate.now().atStartOfDay();
+        for (Long idWallet : walletRepository.findAllIds()) {
+            crearCheckpoints(idWallet, hoy);
+        }
+    }
+
+    /**
+     * Crea los checkpoints de una wallet para cada día con movimientos entre su último checkpoint y {@code hasta}.
+     *
+     * @param idWallet ID de la wallet.
+     * @param hasta Inicio del día hasta el que se generan checkpoints (excluido).
+     * @return Número de checkpoints creados.
+     */
+    public int crearCheckpoints(Long idWallet, LocalDateTime hasta) {
+        Optional<CheckpointWallet> ultimo = checkpointWalletRepository
+                .findFirstByWalletIdAndFechaLessThanEqualOrderByFechaDesc(idWallet, hasta);
+        LocalDateTime desde = ultimo.map(CheckpointWallet::getFecha).orElse(FECHA_MINIMA);
+        long saldo = ultimo.map(CheckpointWallet::getSaldoCentimos).orElse(0L);
+
+        List<CheckpointWallet> nuevos = new ArrayList<>();
+        for (Object[] fila : movimientoWalletRepository.sumarPorDia(idWallet, desde, hasta)) {
+            LocalDate dia = (LocalDate) fila[0];
+            saldo += ((Number) fila[1]).longValue();
+            nuevos.add(new CheckpointWallet(walletRepository.getReferenceById(idWallet), dia.plusDays(1).atStartOfDay(), saldo));
+        }
+        checkpointWalletRepository.saveAll(nuevos);
+        return nuevos.size();
+    }
+}
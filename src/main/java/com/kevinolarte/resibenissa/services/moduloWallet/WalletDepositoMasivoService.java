@@ -0,0 +1,168 @@
+package com.kevinolarte.resibenissa.services.moduloWallet;
+
+import com.kevinolarte.resibenissa.dto.in.modeloWallet.DepositoMasivoRequestDto;
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.DepositoMasivoResponseDto;
+import com.kevinolarte.resibenissa.enums.moduloWallet.TipoMovimiento;
+import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
+import com.kevinolarte.resibenissa.exceptions.ResiException;
+import com.kevinolarte.resibenissa.models.Residente;
+import com.kevinolarte.resibenissa.models.moduloWallet.LoteDeposito;
+import com.kevinolarte.resibenissa.models.moduloWallet.Wallet;
+import com.kevinolarte.resibenissa.repositories.ResidenteRepository;
+import com.kevinolarte.resibenissa.repositories.moduloWallet.LoteDepositoRepository;
+import com.kevinolarte.resibenissa.repositories.moduloWallet.ResumenMensualWalletRepository;
+import com.kevinolarte.resibenissa.repositories.moduloWallet.WalletRepository;
+import com.kevinolarte.resibenissa.services.ResidenciaService;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Servicio para depositar dinero en bloque en las wallets de los residentes de una residencia
+ * (por ejemplo, la paga mensual).
+ * <p>
+ * Los residentes se validan con una sola consulta, y los cambios de saldo y los movimientos se aplican
+ * con batches JDBC dentro de una única transacción: o se aplican todos los depósitos o ninguno.
+ * Cada petición lleva una clave del cliente que se guarda en {@link LoteDeposito}; repetir la
+ * petición devuelve el resultado original sin volver a depositar.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Service
+@RequiredArgsConstructor
+public class WalletDepositoMasivoService {
+
+    private static final int TAMANO_BATCH = 500;
+    private static final String CONCEPTO_DEFECTO = "Depósito mensual";
+
+    private final WalletService walletService;
+    private final WalletRepository walletRepository;
+    private final ResidenteRepository residenteRepository;
+    private final LoteDepositoRepository loteDepositoRepository;
+    private final ResidenciaService residenciaService;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Deposita en bloque en las wallets de los residentes de una residencia.
+     * <p>
+     * Los residentes que aún no tienen wallet reciben una nueva con el depósito como saldo inicial.
+     * </p>
+     *
+     * @param idResidencia ID de la residencia.
+     * @param input Depósitos por residente, o una cantidad para todos los residentes activos, y la clave de la petición.
+     * @return Resultado del depósito (el original si la clave ya se había procesado).
+     * @throws ResiException si faltan datos, alguna cantidad no es válida, algún residente no existe,
+     *                      es de otra residencia o está de baja, o la misma clave se está procesando a la vez.
+     */
+    @Transactional
+    public DepositoMasivoResponseDto depositar(Long idResidencia, DepositoMasivoRequestDto input) {
+        if (input == null || input.getClave() == null || input.getClave().trim().isEmpty() || input.getClave().trim().length() > 100) {
+            throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
+        }
+        String clave = input.getClave().trim();
+        Optional<LoteDeposito> previo = loteDepositoRepository.findByIdResidenciaAndClave(idResidencia, clave);
+        if (previo.isPresent()) {
+            return new DepositoMasivoResponseDto(previo.get(), true);
+        }
+        residenciaService.getResidencia(idResidencia);
+
+        boolean porResidente = input.getDepositos() != null && !input.getDepositos().isEmpty();
+        if (porResidente == (input.getCantidad() != null)) {
+            throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
+        }
+        String conceptoGeneral = input.getConcepto() != null && !input.getConcepto().trim().isEmpty() ? input.getConcepto() : CONCEPTO_DEFECTO;
+
+        // Cantidad y concepto por residente, validados antes de tocar la base de datos
+        Map<Long, Long> centimos = new LinkedHashMap<>();
+        Map<Long, String> conceptos = new HashMap<>();
+        List<Residente> residentes;
+        if (porResidente) {
+            for (DepositoMasivoRequestDto.DepositoResidenteDto deposito : input.getDepositos()) {
+                if (deposito == null || deposito.getIdResidente() == null) {
+                    throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
+                }
+                if (centimos.put(deposito.getIdResidente(), walletService.toCentimos(deposito.getCantidad())) != null) {
+                    throw new ResiException(ApiErrorCode.RESIDENTE_INVALIDO); // residente repetido
+                }
+                if (deposito.getConcepto() != null && !deposito.getConcepto().trim().isEmpty()) {
+                    conceptos.put(deposito.getIdResidente(), deposito.getConcepto());
+                }
+            }
+            residentes = residenteRepository.findAllConWalletByResidenciaIdAndIdIn(idResidencia, centimos.keySet());
+            if (residentes.size() != centimos.size()) {
+                throw new ResiException(ApiErrorCode.RESIDENTE_INVALIDO);
+            }
+            if (residentes.stream().anyMatch(Residente::isBaja)) {
+                throw new ResiException(ApiErrorCode.RESIDENTE_BAJA);
+            }
+        } else {
+            long cantidad = walletService.toCentimos(input.getCantidad());
+            residentes = residenteRepository.findAllConWalletByResidenciaId(idResidencia);
+            residentes.forEach(residente -> centimos.put(residente.getId(), cantidad));
+        }
+
+        // Reservar la clave; si otra petición con la misma clave llega a la vez, una de las dos falla aquí
+        LoteDeposito lote = new LoteDeposito(idResidencia, clave, conceptoGeneral);
+        try {
+            lote = loteDepositoRepository.saveAndFlush(lote);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResiException(ApiErrorCode.LOTE_EN_CURSO);
+        }
+
+        List<Wallet> nuevas = new ArrayList<>();
+        for (Residente residente : residentes) {
+            if (residente.getWallet() == null) {
+                Wallet wallet = new Wallet();
+                wallet.setResidente(residente);
+                residente.setWallet(wallet);
+                nuevas.add(wallet);
+            }
+        }
+        walletRepository.saveAll(nuevas);
+
+        LocalDateTime fecha = LocalDateTime.now();
+        Timestamp ahora = Timestamp.valueOf(fecha);
+        List<Object[]> saldos = new ArrayList<>(residentes.size());
+        List<Object[]> movimientos = new ArrayList<>(residentes.size());
+        List<Object[]> resumenes = new ArrayList<>(residentes.size());
+        long total = 0;
+        for (Residente residente : residentes) {
+            Long idWallet = residente.getWallet().getId();
+            long cantidad = centimos.get(residente.getId());
+            total += cantidad;
+            saldos.add(new Object[]{cantidad, idWallet});
+            movimientos.add(new Object[]{idWallet, cantidad, TipoMovimiento.IN.name(),
+                    conceptos.getOrDefault(residente.getId(), conceptoGeneral), ahora});
+            resumenes.add(new Object[]{idWallet, idResidencia, fecha.getYear(), fecha.getMonthValue(), TipoMovimiento.IN.name(), cantidad});
+        }
+        batch("UPDATE wallet SET saldo_centimos = saldo_centimos + ?, version = version + 1 WHERE id = ?", saldos);
+        batch("INSERT INTO movimiento_wallet (fk_wallet, cantidad_centimos, tipo, concepto, fecha) VALUES (?, ?, ?, ?, ?)", movimientos);
+        batch(ResumenMensualWalletRepository.SQL_ACUMULAR, resumenes);
+
+        lote.setNumeroDepositos(residentes.size());
+        lote.setWalletsCreadas(nuevas.size());
+        lote.setTotalCentimos(total);
+        return new DepositoMasivoResponseDto(loteDepositoRepository.save(lote), false);
+    }
+
+    /**
+     * Ejecuta una sentencia en batches JDBC de {@value #TAMANO_BATCH} filas.
+     */
+    private void batch(String sql, List<Object[]> filas) {
+        for (int i = 0; i < filas.size(); i += TAMANO_BATCH) {
+            jdbcTemplate.batchUpdate(sql, filas.subList(i, Math.min(i + TAMANO_BATCH, filas.size())));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.kevinolarte.resibenissa.services.moduloWallet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché en memoria de informes PDF de wallets ya generados.
+ * <p>
+ * La clave incluye la versión de la wallet, así que un informe nunca queda obsoleto: cuando la wallet
+ * cambia se pide con otra clave y el antiguo acaba expulsado. La caché está acotada por el total de bytes
+ * ({@code wallet.informe.cache-max-bytes}) y expulsa el informe usado hace más tiempo. Los informes
+ * mayores de {@code wallet.informe.cache-max-bytes-informe} no se guardan.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Component
+public class WalletInformeCache {
+
+    @Value("${wallet.informe.cache-max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${wallet.informe.cache-max-bytes-informe:4194304}")
+    private int maxBytesInforme;
+
+    /**
+     * Informes por clave, en orden de acceso (el primero es el menos usado recientemente).
+     */
+    private final LinkedHashMap<String, byte[]> informes = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytesTotales;
+
+    /**
+     * Obtiene un informe de la caché.
+     *
+     * @param clave Clave del informe.
+     * @return El PDF, o {@code null} si no está en caché.
+     */
+    public synchronized byte[] get(String clave) {
+        return informes.get(clave);
+    }
+
+    /**
+     * Guarda un informe en la caché, expulsando los menos usados si se supera el límite.
+     *
+     * @param clave Clave del informe.
+     * @param pdf Contenido del PDF.
+     */
+    public synchronized void put(String clave, byte[] pdf) {
+        if (pdf.length > maxBytesInforme) {
+            return;
+        }
+        byte[] anterior = informes.put(clave, pdf);
+        bytesTotales += pdf.length - (anterior != null ? anterior.length : 0);
+
+        Iterator<Map.Entry<String, byte[]>> it = informes.entrySet().iterator();
+        while (bytesTotales > maxBytes && it.hasNext()) {
+            bytesTotales -= it.next().getValue().length;
+            it.remove();
+        }
+    }
+
+    /**
+     * Tamaño máximo de un informe para poder guardarse en la caché.
+     *
+     * @return Número máximo de bytes por informe.
+     */
+    public int getMaxBytesInforme() {
+        return maxBytesInforme;
+    }
+}
@@ -0,0 +1,208 @@
+package com.kevinolarte.resibenissa.services.moduloWallet;
+
+import com.kevinolarte.resibenissa.models.Residente;
+import com.kevinolarte.resibenissa.repositories.ResidenteRepository;
+import com.kevinolarte.resibenissa.services.ResidenciaService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Servicio que genera en bloque los informes de wallet de todos los residentes de una residencia.
+ * <p>
+ * Los PDF se generan en paralelo en un pool acotado ({@code wallet.informe.zip-workers} hilos), cada uno
+ * en un fichero temporal, y se van añadiendo en orden a un ZIP que se escribe directamente en la respuesta.
+ * Como mucho hay el doble de informes en curso que hilos, así que ni la memoria ni el disco temporal
+ * dependen del número de residentes. Los residentes cuyo informe falla se listan en {@code errores.txt}
+ * dentro del propio ZIP, sin interrumpir el resto.
+ * </p>
+ *
+ * @author Kevin Olarte
+ */
+@Service
+@RequiredArgsConstructor
+public class WalletInformeZipService {
+
+    private final WalletService walletService;
+    private final ResidenteRepository residenteRepository;
+    private final ResidenciaService residenciaService;
+
+    @Value("${wallet.informe.zip-workers:4}")
+    private int workers;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger contador = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "wallet-informe-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Obtiene los residentes activos de una residencia, con su wallet, validando que la residencia existe.
+     *
+     * @param idResidencia ID de la residencia.
+     * @return Residentes de la residencia.
+     * @throws com.kevinolarte.resibenissa.exceptions.ResiException si la residencia no existe.
+     */
+    public List<Residente> getResidentes(Long idResidencia) {
+        residenciaService.getResidencia(idResidencia);
+        return residenteRepository.findAllConWalletByResidenciaId(idResidencia);
+    }
+
+    /**
+     * Escribe un ZIP con el informe de wallet de cada residente.
+     *
+     * @param residentes Residentes obtenidos con {@link #getResidentes(Long)}.
+     * @param out Stream donde se escribe el ZIP (por ejemplo, el de la respuesta HTTP).
+     * @throws IOException si ocurre un error al escribir el ZIP.
+     */
+    public void writeInformesZip(List<Residente> residentes, OutputStream out) throws IOException {
+        int maxEnCurso = workers * 2;
+        Deque<Future<InformeGenerado>> enCurso = new ArrayDeque<>();
+        StringBuilder errores = new StringBuilder();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        try {
+            for (Residente residente : residentes) {
+                if (enCurso.size() >= maxEnCurso) {
+                    volcar(enCurso.poll(), zip, errores);
+                }
+                enCurso.add(executor.submit(() -> generar(residente)));
+            }
+            while (!enCurso.isEmpty()) {
+                volcar(enCurso.poll(), zip, errores);
+            }
+
+            if (!errores.isEmpty()) {
+                zip.putNextEntry(new ZipEntry("errores.txt"));
+                zip.write(errores.toString().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+        } finally {
+            // Si el cliente corta la descarga, se cancelan y limpian los informes pendientes
+            for (Future<InformeGenerado> futuro : enCurso) {
+                futuro.cancel(true);
+                if (futuro.isDone() && !futuro.isCancelled()) {
+                    try {
+                        borrar(futuro.get().fichero);
+                    } catch (ExecutionException | InterruptedException ignored) {
+                        // Sin fichero que borrar
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Genera el informe de un residente en un fichero temporal.
+     * Se ejecuta en el pool; los errores se devuelven en el resultado en lugar de lanzarse.
+     */
+    private InformeGenerado generar(Residente residente) {
+        if (residente.getWallet() == null) {
+            return new InformeGenerado(residente, null, "El residente no tiene wallet");
+        }
+        Path fichero = null;
+        try {
+            fichero = Files.createTempFile("informe_wallet_" + residente.getId() + "_", ".pdf");
+            try (OutputStream pdf = Files.newOutputStream(fichero)) {
+                walletService.writeInformeCacheado(residente.getWallet(), null, null, pdf);
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                // Descarga cancelada: nadie recogerá este fichero
+                borrar(fichero);
+                return new InformeGenerado(residente, null, "Cancelado");
+            }
+            return new InformeGenerado(residente, fichero, null);
+        } catch (Exception e) {
+            borrar(fichero);
+            return new InformeGenerado(residente, null, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Espera a que termine un informe y lo añade al ZIP, o anota su error.
+     */
+    private void volcar(Future<InformeGenerado> futuro, ZipOutputStream zip, StringBuilder errores) throws IOException {
+        InformeGenerado informe;
+        try {
+            informe = futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Generación de informes interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+
+        Residente residente = informe.residente;
+        if (informe.error != null) {
+            errores.append(residente.getId()).append(';')
+                    .append(residente.getNombre()).append(' ').append(residente.getApellido()).append(';')
+                    .append(informe.error.replace('\n', ' ')).append('\n');
+            return;
+        }
+        try {
+            zip.putNextEntry(new ZipEntry("informe_wallet_" + residente.getId() + ".pdf"));
+            Files.copy(informe.fichero, zip);
+            zip.closeEntry();
+        } finally {
+            borrar(informe.fichero);
+        }
+    }
+
+    private static void borrar(Path fichero) {
+        if (fichero == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(fichero);
+        } catch (IOException ignored) {
+            // El sistema limpiará el directorio temporal
+        }
+    }
+
+    /**
+     * Resultado de generar el informe de un residente: el fichero generado o el error producido.
+     */
+    private static class InformeGenerado {
+        private final Residente residente;
+        private final Path fichero;
+        private final String error;
+
+        InformeGenerado(Residente residente, Path fichero, String error) {
+            this.residente = residente;
+            this.fichero = fichero;
+            this.error = error;
+        }
+    }
+}
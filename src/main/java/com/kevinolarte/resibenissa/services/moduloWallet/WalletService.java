@@ -1,6 +1,9 @@
 package com.kevinolarte.resibenissa.services.moduloWallet;
 
 import com.kevinolarte.resibenissa.dto.in.modeloWallet.MovimientoRequestDTO;
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.ExtractoWalletResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.MovimientoWalletResponseDto;
+import com.kevinolarte.resibenissa.dto.out.moduloWallet.ResumenMensualResponseDto;
 import com.kevinolarte.resibenissa.enums.moduloWallet.TipoMovimiento;
 import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
@@ -15,10 +18,17 @@ import com.lowagie.text.DocumentException;
 import com.lowagie.text.Paragraph;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
+import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -33,32 +43,122 @@ public class WalletService {
     private final WalletRepository walletRepository;
     private final MovimientoWalletRepository movimientoWalletRepository;
     private final ResidenteService residenteService;
+    private final WalletInformeCache walletInformeCache;
+    private final WalletCheckpointService walletCheckpointService;
+    private final WalletAnaliticaService walletAnaliticaService;
 
     /**
-     * Genera un informe PDF de los movimientos de la wallet de un residente.
+     * Número de movimientos que se leen por consulta al generar un informe.
+     * También es el número máximo de filas de la tabla que se mantienen en memoria.
+     */
+    private static final int TAMANO_PAGINA_INFORME = 500;
+
+    private static final LocalDateTime FECHA_MINIMA = LocalDate.of(1900, 1, 1).atStartOfDay();
+    private static final LocalDateTime FECHA_MAXIMA = LocalDate.of(9999, 1, 1).atStartOfDay();
+
+    /**
+     * Obtiene la wallet de un residente para generar su informe, validando el rango de fechas.
+     * <p>
+     * Se llama antes de empezar a escribir la respuesta, para que cualquier error
+     * se devuelva como un error normal de la API y no a mitad de un PDF.
+     * </p>
      *
      * @param idResidencia ID de la residencia del residente.
      * @param idResidente  ID del residente del cual se genera el informe.
-     * @return Un array de bytes que representa el PDF del informe.
-     * @throws ResiException si no se encuentra la wallet o si ocurre un error al generar el PDF.
+     * @param desde Fecha inicial del informe (opcional, incluida).
+     * @param hasta Fecha final del informe (opcional, incluida).
+     * @return La wallet del residente.
+     * @throws ResiException si no se encuentra la wallet o el rango de fechas no es válido.
      */
-    public byte[] getInforme(Long idResidencia, Long idResidente) throws ResiException, DocumentException {
-
+    public Wallet getWalletInforme(Long idResidencia, Long idResidente, LocalDate desde, LocalDate hasta) {
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new ResiException(ApiErrorCode.FECHA_INVALIDO);
+        }
         Residente residente = residenteService.getResidente(idResidencia, idResidente);
-        Wallet wallet = walletRepository.findById(residente.getWallet().getId()).orElse(null);
-        if (wallet == null) {
+        if (residente.getWallet() == null) {
             throw new ResiException(ApiErrorCode.WALLET_NO_ENCONTRADA);
         }
-        List<MovimientoWallet> movimientos = movimientoWalletRepository.findByWallet(wallet);
+        return walletRepository.findById(residente.getWallet().getId())
+                .orElseThrow(() -> new ResiException(ApiErrorCode.WALLET_NO_ENCONTRADA));
+    }
+
+    /**
+     * Calcula el ETag del informe de una wallet para un rango de fechas.
+     * <p>
+     * Depende solo de la versión de la wallet y del rango, por lo que se puede comparar con
+     * {@code If-None-Match} sin generar el informe.
+     * </p>
+     *
+     * @param wallet Wallet del informe.
+     * @param desde Fecha inicial del informe (opcional).
+     * @param hasta Fecha final del informe (opcional).
+     * @return ETag del informe (entre comillas).
+     */
+    public String getEtagInforme(Wallet wallet, LocalDate desde, LocalDate hasta) {
+        return "\"" + getClaveInforme(wallet, desde, hasta) + "\"";
+    }
+
+    /**
+     * Escribe el informe PDF de una wallet en un stream, usando la caché si ya se generó para esta versión.
+     * <p>
+     * Si no está en caché, se genera con {@link #writeInforme(Wallet, LocalDate, LocalDate, OutputStream)}
+     * y se guarda una copia mientras se escribe, salvo que supere el tamaño máximo de la caché.
+     * </p>
+     *
+     * @param wallet Wallet obtenida con {@link #getWalletInforme(Long, Long, LocalDate, LocalDate)}.
+     * @param desde Fecha inicial del informe (opcional, incluida).
+     * @param hasta Fecha final del informe (opcional, incluida).
+     * @param out Stream donde se escribe el PDF.
+     * @throws DocumentException si ocurre un error al generar el PDF.
+     * @throws IOException si ocurre un error al escribir el PDF.
+     */
+    public void writeInformeCacheado(Wallet wallet, LocalDate desde, LocalDate hasta, OutputStream out) throws DocumentException, IOException {
+        String clave = getClaveInforme(wallet, desde, hasta);
+        byte[] pdf = walletInformeCache.get(clave);
+        if (pdf != null) {
+            out.write(pdf);
+            return;
+        }
+
+        CopiaLimitadaOutputStream copia = new CopiaLimitadaOutputStream(out, walletInformeCache.getMaxBytesInforme());
+        writeInforme(wallet, desde, hasta, copia);
+        if (copia.isCompleta()) {
+            walletInformeCache.put(clave, copia.toByteArray());
+        }
+    }
+
+    /**
+     * Escribe el informe PDF de los movimientos de una wallet directamente en un stream.
+     * <p>
+     * Los movimientos se leen por páginas ordenadas por fecha y la tabla se vuelca al documento
+     * tras cada página ({@link PdfPTable#setComplete(boolean)}), repitiendo la cabecera en cada
+     * salto de página. Así la memoria usada no depende de la longitud del informe.
+     * </p>
+     *
+     * @param wallet Wallet obtenida con {@link #getWalletInforme(Long, Long, LocalDate, LocalDate)}.
+     * @param desde Fecha inicial del informe (opcional, incluida).
+     * @param hasta Fecha final del informe (opcional, incluida).
+     * @param out Stream donde se escribe el PDF (por ejemplo, el de la respuesta HTTP).
+     * @throws DocumentException si ocurre un error al generar el PDF.
+     */
+    public void writeInforme(Wallet wallet, LocalDate desde, LocalDate hasta, OutputStream out) throws DocumentException {
+        LocalDateTime inicio = desde != null ? desde.atStartOfDay() : FECHA_MINIMA;
+        LocalDateTime fin = hasta != null ? hasta.plusDays(1).atStartOfDay() : FECHA_MAXIMA;
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
         Document document = new Document();
-        PdfWriter.getInstance(document, baos);
+        PdfWriter.getInstance(document, out);
         document.open();
 
         document.add(new Paragraph("INFORME DE MOVIMIENTOS"));
         document.add(new Paragraph("Residente: " + wallet.getResidente().getNombre()));
-        document.add(new Paragraph("Saldo actual: " + String.format("%.2f", wallet.getSaldoTotal())));
+        document.add(new Paragraph("Saldo actual: " + formatCentimos(wallet.getSaldoCentimos())));
+        if (desde != null || hasta != null) {
+            document.add(new Paragraph("Periodo: " + (desde != null ? desde : "inicio") + " - " + (hasta != null ? hasta : "hoy")));
+            document.add(new Paragraph("Saldo inicial: " + formatCentimos(desde != null ? walletCheckpointService.getSaldoAntesDe(wallet.getId(), inicio) : 0)));
+            if (hasta != null) {
+                document.add(new Paragraph("Saldo final: " + formatCentimos(walletCheckpointService.getSaldoAntesDe(wallet.getId(), fin))));
+            }
+        }
         document.add(new Paragraph(" ")); // Espacio
 
         PdfPTable table = new PdfPTable(4);
@@ -66,55 +166,57 @@ public class WalletService {
         table.addCell("Tipo");
         table.addCell("Cantidad");
         table.addCell("Concepto");
+        table.setHeaderRows(1);
+        table.setComplete(false);
 
-        for (MovimientoWallet m : movimientos) {
-            table.addCell(m.getFecha().toString());
-            table.addCell(m.getTipo().toString());
-            table.addCell(String.format("%.2f", m.getCantidad()));
-            table.addCell(m.getConcepto());
-        }
+        LocalDateTime fechaUltimo = inicio;
+        Long idUltimo = 0L;
+        List<MovimientoWalletResponseDto> pagina;
+        do {
+            pagina = movimientoWalletRepository.findPaginaInforme(wallet.getId(), fechaUltimo, idUltimo, fin,
+                    PageRequest.of(0, TAMANO_PAGINA_INFORME));
+            for (MovimientoWalletResponseDto m : pagina) {
+                table.addCell(m.getFecha().toString());
+                table.addCell(m.getTipo().toString());
+                table.addCell(formatCentimos(m.getCantidadCentimos()));
+                table.addCell(m.getConcepto() != null ? m.getConcepto() : "");
+            }
+            if (!pagina.isEmpty()) {
+                MovimientoWalletResponseDto ultimo = pagina.get(pagina.size() - 1);
+                fechaUltimo = ultimo.getFecha();
+                idUltimo = ultimo.getId();
+            }
+            // Escribe las filas ya completas y las libera de la tabla
+            document.add(table);
+        } while (pagina.size() == TAMANO_PAGINA_INFORME);
 
+        table.setComplete(true);
         document.add(table);
         document.close();
-
-        return baos.toByteArray();
     }
 
 
     /**
      * Deposita una cantidad en la wallet de un residente.
+     * <p>
+     * El saldo se actualiza con una única sentencia {@code UPDATE} atómica, en la misma
+     * transacción que el alta del movimiento, sin leer antes el saldo.
+     * </p>
      *
      * @param idResidencia ID de la residencia del residente.
      * @param idResidente  ID del residente al que se le deposita el dinero.
      * @param input         DTO que contiene la cantidad a depositar.
      * @throws ResiException si el monto es inválido o si la wallet no se encuentra.
      */
+    @Transactional
     public void deposit(Long idResidencia, Long idResidente, MovimientoRequestDTO input) {
-        if (!moneyValid(input.getCantidad())) {
-            throw new ResiException(ApiErrorCode.MONTO_INVALIDO); // crea este código si aún no lo tienes
-        }
-        System.out.println("asdaaasdasdasd");
-        Residente residente = residenteService.getResidente(idResidencia, idResidente);
-        Wallet wallet = walletRepository.findById(residente.getWallet().getId()).orElseThrow(() ->
-                new ResiException(ApiErrorCode.WALLET_NO_ENCONTRADA));
-
-        System.out.println("Wallet encontrada: " + wallet.getId() + ", Saldo actual: " + wallet.getSaldoTotal());
-        System.out.println("Cantidad a depositar: " + input.getCantidad());
-        // Crear movimiento
-        MovimientoWallet movimiento = new MovimientoWallet();
-        movimiento.setWallet(wallet);
-        movimiento.setCantidad(input.getCantidad());
-        movimiento.setTipo(TipoMovimiento.IN);
-        movimiento.setConcepto(input.getConcepto());
-        movimiento.setFecha(LocalDateTime.now());
-
-        // Actualizar saldo
-        Double nuevoSaldo = wallet.getSaldoTotal() + input.getCantidad();
-        wallet.setSaldoTotal(nuevoSaldo);
+        long centimos = toCentimos(input.getCantidad());
+        Long idWallet = getIdWallet(idResidencia, idResidente);
 
-        // Guardar movimiento y wallet
-        movimientoWalletRepository.save(movimiento);
-        walletRepository.save(wallet);
+        if (walletRepository.depositar(idWallet, centimos) == 0) {
+            throw new ResiException(ApiErrorCode.WALLET_NO_ENCONTRADA);
+        }
+        registrarMovimiento(idResidencia, idWallet, centimos, TipoMovimiento.IN, input.getConcepto());
     }
 
     /**
@@ -123,45 +225,216 @@ public class WalletService {
      * @return booleano comprobando si es valido esa cantidad de dinero.
      */
     public boolean moneyValid(double cantidad) {
-        if (cantidad <= 0) return false;
+        if (cantidad <= 0 || Double.isNaN(cantidad) || Double.isInfinite(cantidad)) return false;
 
-        // Multiplicamos por 100 y comprobamos si tiene más de 2 decimales
-        double scaled = cantidad * 100;
-        return scaled == Math.floor(scaled);
+        // Como mucho dos decimales
+        return BigDecimal.valueOf(cantidad).stripTrailingZeros().scale() <= 2;
     }
 
+    /**
+     * Convierte una cantidad en euros a céntimos, validándola.
+     *
+     * @param cantidad Cantidad en euros (positiva y con dos decimales como mucho).
+     * @return Cantidad en céntimos.
+     * @throws ResiException si la cantidad no es válida.
+     */
+    public long toCentimos(double cantidad) {
+        if (!moneyValid(cantidad)) {
+            throw new ResiException(ApiErrorCode.MONTO_INVALIDO);
+        }
+        try {
+            return BigDecimal.valueOf(cantidad).movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ResiException(ApiErrorCode.MONTO_INVALIDO);
+        }
+    }
 
+    /**
+     * Retira una cantidad de la wallet de un residente.
+     * <p>
+     * La comprobación de saldo y la resta se hacen en una única sentencia {@code UPDATE}
+     * condicional, así que dos retiradas simultáneas no pueden dejar el saldo en negativo.
+     * </p>
+     *
+     * @param idResidencia ID de la residencia del residente.
+     * @param idResidente  ID del residente al que se le retira el dinero.
+     * @param input         DTO que contiene la cantidad a retirar.
+     * @throws ResiException si el monto es inválido, la wallet no se encuentra o no hay saldo suficiente.
+     */
+    @Transactional
     public void retire(Long idResidencia, Long idResidente, MovimientoRequestDTO input) {
-        if (!moneyValid(input.getCantidad())) {
-            throw new ResiException(ApiErrorCode.MONTO_INVALIDO);
+        long centimos = toCentimos(input.getCantidad());
+        Long idWallet = getIdWallet(idResidencia, idResidente);
+
+        if (walletRepository.retirar(idWallet, centimos) == 0) {
+            throw new ResiException(ApiErrorCode.SALDO_INSUFICIENTE);
         }
+        String concepto = input.getConcepto() != null && !input.getConcepto().trim().isEmpty() ? input.getConcepto() : "Retiro manual";
+        registrarMovimiento(idResidencia, idWallet, centimos, TipoMovimiento.OUT, concepto);
+    }
 
-        Residente residente = residenteService.getResidente(idResidencia, idResidente);
-        Wallet wallet = walletRepository.findById(residente.getWallet().getId())
+    /**
+     * Obtiene el saldo actual de la wallet de un residente.
+     *
+     * @param idResidencia ID de la residencia del residente.
+     * @param idResidente  ID del residente.
+     * @return Saldo en euros.
+     * @throws ResiException si la wallet no se encuentra.
+     */
+    public Double getSaldo(Long idResidencia, Long idResidente) {
+        Wallet wallet = walletRepository.findById(getIdWallet(idResidencia, idResidente))
                 .orElseThrow(() -> new ResiException(ApiErrorCode.WALLET_NO_ENCONTRADA));
 
-        if (wallet.getSaldoTotal() < input.getCantidad()) {
-            throw new ResiException(ApiErrorCode.SALDO_INSUFICIENTE);
+        return BigDecimal.valueOf(wallet.getSaldoCentimos(), 2).doubleValue();
+    }
+
+    /**
+     * Obtiene el saldo que tenía la wallet de un residente al final de un día.
+     * <p>
+     * Se calcula a partir del checkpoint anterior más los movimientos posteriores a él,
+     * sin recorrer todo el historial.
+     * </p>
+     *
+     * @param idResidencia ID de la residencia del residente.
+     * @param idResidente  ID del residente.
+     * @param fecha Día a consultar.
+     * @return Saldo en euros al final de ese día.
+     * @throws ResiException si la wallet no se encuentra o falta la fecha.
+     */
+    public Double getSaldoEn(Long idResidencia, Long idResidente, LocalDate fecha) {
+        if (fecha == null) {
+            throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
         }
+        Long idWallet = getIdWallet(idResidencia, idResidente);
+        long saldo = walletCheckpointService.getSaldoAntesDe(idWallet, fecha.plusDays(1).atStartOfDay());
+        return BigDecimal.valueOf(saldo, 2).doubleValue();
+    }
 
-        MovimientoWallet movimiento = new MovimientoWallet();
-        movimiento.setWallet(wallet);
-        movimiento.setCantidad(input.getCantidad());
-        movimiento.setTipo(TipoMovimiento.OUT);
-        movimiento.setConcepto(input.getConcepto() != null && !input.getConcepto().trim().isEmpty() ? input.getConcepto() : "Retiro manual");
-        movimiento.setFecha(LocalDateTime.now());
+    /**
+     * Obtiene una página del extracto de la wallet de un residente en un rango de fechas,
+     * con el saldo al inicio y al final del rango.
+     *
+     * @param idResidencia ID de la residencia del residente.
+     * @param idResidente  ID del residente.
+     * @param desde Fecha inicial (opcional, incluida).
+     * @param hasta Fecha final (opcional, incluida).
+     * @param page Número de página (desde 0).
+     * @param size Movimientos por página (como mucho {@value #TAMANO_PAGINA_INFORME}).
+     * @return Página del extracto.
+     * @throws ResiException si la wallet no se encuentra o el rango o la página no son válidos.
+     */
+    public ExtractoWalletResponseDto getExtracto(Long idResidencia, Long idResidente, LocalDate desde, LocalDate hasta, int page, int size) {
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new ResiException(ApiErrorCode.FECHA_INVALIDO);
+        }
+        if (page < 0 || size <= 0 || size > TAMANO_PAGINA_INFORME) {
+            throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
+        }
+        Long idWallet = getIdWallet(idResidencia, idResidente);
+        LocalDateTime inicio = desde != null ? desde.atStartOfDay() : FECHA_MINIMA;
+        LocalDateTime fin = hasta != null ? hasta.plusDays(1).atStartOfDay() : FECHA_MAXIMA;
 
-        wallet.setSaldoTotal(wallet.getSaldoTotal() - input.getCantidad());
+        long saldoInicial = desde != null ? walletCheckpointService.getSaldoAntesDe(idWallet, inicio) : 0;
+        long saldoFinal = walletCheckpointService.getSaldoAntesDe(idWallet, fin);
+        List<MovimientoWalletResponseDto> movimientos = movimientoWalletRepository.findPagina(idWallet, inicio, fin, PageRequest.of(page, size));
+        return new ExtractoWalletResponseDto(desde, hasta, saldoInicial, saldoFinal, page, size, movimientos);
+    }
 
-        movimientoWalletRepository.save(movimiento);
-        walletRepository.save(wallet);
+    /**
+     * Obtiene los totales mensuales de entradas y salidas de la wallet de un residente en un año.
+     *
+     * @param idResidencia ID de la residencia del residente.
+     * @param idResidente  ID del residente.
+     * @param anio Año a consultar (opcional, por defecto el actual).
+     * @return Totales por mes y tipo de movimiento.
+     * @throws ResiException si la wallet no se encuentra.
+     */
+    public List<ResumenMensualResponseDto> getResumenMensual(Long idResidencia, Long idResidente, Integer anio) {
+        Long idWallet = getIdWallet(idResidencia, idResidente);
+        return walletAnaliticaService.getResumenMensualWallet(idWallet, anio != null ? anio : LocalDate.now().getYear());
     }
 
-    public Double getSaldo(Long idResidencia, Long idResidente) {
+    /**
+     * Obtiene el ID de la wallet de un residente, validando que pertenece a la residencia.
+     */
+    private Long getIdWallet(Long idResidencia, Long idResidente) {
         Residente residente = residenteService.getResidente(idResidencia, idResidente);
-        Wallet wallet = walletRepository.findById(residente.getWallet().getId())
-                .orElseThrow(() -> new ResiException(ApiErrorCode.WALLET_NO_ENCONTRADA));
+        if (residente.getWallet() == null) {
+            throw new ResiException(ApiErrorCode.WALLET_NO_ENCONTRADA);
+        }
+        return residente.getWallet().getId();
+    }
 
-        return wallet.getSaldoTotal();
+    /**
+     * Guarda un movimiento de la wallet con la fecha actual y lo suma a la analítica.
+     */
+    private void registrarMovimiento(Long idResidencia, Long idWallet, long centimos, TipoMovimiento tipo, String concepto) {
+        LocalDateTime ahora = LocalDateTime.now();
+        MovimientoWallet movimiento = new MovimientoWallet();
+        movimiento.setWallet(walletRepository.getReferenceById(idWallet));
+        movimiento.setCantidadCentimos(centimos);
+        movimiento.setTipo(tipo);
+        movimiento.setConcepto(concepto);
+        movimiento.setFecha(ahora);
+        movimientoWalletRepository.save(movimiento);
+        walletAnaliticaService.registrar(idResidencia, idWallet, tipo, centimos, concepto, ahora);
+    }
+
+    /**
+     * Formatea una cantidad en céntimos como euros con dos decimales.
+     */
+    private static String formatCentimos(long centimos) {
+        return BigDecimal.valueOf(centimos, 2).toPlainString();
+    }
+
+    /**
+     * Clave de un informe en la caché: wallet, versión y rango de fechas.
+     */
+    private static String getClaveInforme(Wallet wallet, LocalDate desde, LocalDate hasta) {
+        return "w" + wallet.getId() + "-v" + wallet.getVersion() + "-" + (desde != null ? desde : "") + "-" + (hasta != null ? hasta : "");
+    }
+
+    /**
+     * Stream que escribe en otro y guarda una copia de lo escrito mientras no supere un límite.
+     */
+    private static class CopiaLimitadaOutputStream extends FilterOutputStream {
+        private final int limite;
+        private ByteArrayOutputStream copia = new ByteArrayOutputStream();
+
+        CopiaLimitadaOutputStream(OutputStream out, int limite) {
+            super(out);
+            this.limite = limite;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            copiar(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            copiar(b, off, len);
+        }
+
+        private void copiar(byte[] b, int off, int len) {
+            if (copia == null) {
+                return;
+            }
+            if (copia.size() + len > limite) {
+                copia = null; // demasiado grande para la caché
+                return;
+            }
+            copia.write(b, off, len);
+        }
+
+        boolean isCompleta() {
+            return copia != null;
+        }
+
+        byte[] toByteArray() {
+            return copia.toByteArray();
+        }
     }
 }
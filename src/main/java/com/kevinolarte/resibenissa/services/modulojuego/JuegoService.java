@@ -6,6 +6,8 @@ import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
 import com.kevinolarte.resibenissa.exceptions.ResiException;
 import com.kevinolarte.resibenissa.models.modulojuego.Juego;
 import com.kevinolarte.resibenissa.repositories.modulojuego.JuegoRepository;
+import com.kevinolarte.resibenissa.repositories.modulojuego.RegistroJuegoRepository;
+import com.kevinolarte.resibenissa.services.PertenenciaService;
 import com.kevinolarte.resibenissa.services.ResidenciaService;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -27,7 +29,14 @@ import java.util.stream.Collectors;
 public class JuegoService {
 
     private final JuegoRepository juegoRepository;
+    private final RegistroJuegoRepository registroJuegoRepository;
     private final ResidenciaService residenciaService;
+    private final PertenenciaService pertenenciaService;
+
+    /**
+     * Máximo de registros que se eliminan por sentencia al borrar un juego.
+     */
+    private static final int TAMANO_LOTE_BORRADO = 5000;
 
     /**
      * Registra un nuevo juego en una residencia.
@@ -139,11 +148,18 @@ public class JuegoService {
         }
 
         //Comprobar si existe el juego
-        Juego juegoTmp = juegoRepository.findById(idJuego)
-                .orElseThrow(() -> new ResiException(ApiErrorCode.JUEGO_INVALIDO));
+        if (!juegoRepository.existsById(idJuego)) {
+            throw new ResiException(ApiErrorCode.JUEGO_INVALIDO);
+        }
 
-        juegoRepository.delete(juegoTmp);
+        // Eliminar sus registros por lotes, sin cargarlos
+        int borrados;
+        do {
+            borrados = registroJuegoRepository.deleteLoteByJuegoId(idJuego, TAMANO_LOTE_BORRADO);
+        } while (borrados == TAMANO_LOTE_BORRADO);
 
+        juegoRepository.deleteSinCascadaById(idJuego);
+        pertenenciaService.olvidarTodo(PertenenciaService.Tipo.REGISTRO);
     }
 
 
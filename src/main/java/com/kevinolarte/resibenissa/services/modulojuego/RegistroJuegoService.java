@@ -13,9 +13,11 @@ import com.kevinolarte.resibenissa.models.modulojuego.Juego;
 import com.kevinolarte.resibenissa.models.modulojuego.RegistroJuego;
 import com.kevinolarte.resibenissa.models.Residente;
 import com.kevinolarte.resibenissa.models.User;
+import com.kevinolarte.resibenissa.repositories.ProyeccionRepository;
 import com.kevinolarte.resibenissa.repositories.ResidenciaRepository;
 import com.kevinolarte.resibenissa.repositories.modulojuego.RegistroJuegoRepository;
 
+import com.kevinolarte.resibenissa.services.PertenenciaService;
 import com.kevinolarte.resibenissa.services.ResidenciaService;
 import com.kevinolarte.resibenissa.services.ResidenteService;
 import com.kevinolarte.resibenissa.services.UserService;
@@ -29,7 +31,6 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * Servicio encargado de gestionar los registros de juegos jugados por los residentes.
@@ -47,11 +48,13 @@ import java.util.stream.Collectors;
 public class RegistroJuegoService {
 
     private final RegistroJuegoRepository registroJuegoRepository;
+    private final ProyeccionRepository proyeccionRepository;
     private final ResidenteService residenteService;
     private final JuegoService juegoService;
     private final UserService userService;
     private final ResidenciaService residenciaService;
     private final ResidenciaRepository residenciaRepository;
+    private final PertenenciaService pertenenciaService;
 
 
     /**
@@ -92,6 +95,7 @@ public class RegistroJuegoService {
         registroJuego.setResidente(residente);
         registroJuego.setUsuario(usuario);
         RegistroJuego registro = registroJuegoRepository.save(registroJuego);
+        pertenenciaService.registrar(PertenenciaService.Tipo.REGISTRO, registro.getId(), residente.getId());
         return new RegistroJuegoResponseDto(registro);
     }
 
@@ -153,12 +157,7 @@ public class RegistroJuegoService {
 
 
         Sort sort = (filtrado != null) ? filtrado.toSort() : Sort.by(Sort.Direction.DESC, "fecha");
-        List<RegistroJuego> registros = registroJuegoRepository.findAll(spec, sort);
-
-
-        return registros.stream()
-                .map(RegistroJuegoResponseDto::new)
-                .collect(Collectors.toList());
+        return proyeccionRepository.findAll(RegistroJuego.class, spec, sort, RegistroJuegoResponseDto.class, RegistroJuegoSpecification::columnasResponse);
 
 
     }
@@ -198,11 +197,7 @@ public class RegistroJuegoService {
 
 
         Sort sort = (filtrado != null) ? filtrado.toSort() : Sort.by(Sort.Direction.DESC, "fecha");
-        List<RegistroJuego> registros = registroJuegoRepository.findAll(spec, sort);
-
-        return registros.stream()
-                .map(RegistroJuegoResponseDto::new)
-                .collect(Collectors.toList());
+        return proyeccionRepository.findAll(RegistroJuego.class, spec, sort, RegistroJuegoResponseDto.class, RegistroJuegoSpecification::columnasResponse);
     }
 
 
@@ -221,6 +216,7 @@ public class RegistroJuegoService {
 
         //Eliminar el registro
         registroJuegoRepository.delete(registroJuego);
+        pertenenciaService.olvidar(PertenenciaService.Tipo.REGISTRO, idRegistroJuego);
     }
 
 
@@ -273,13 +269,11 @@ public class RegistroJuegoService {
             throw new ResiException(ApiErrorCode.CAMPOS_OBLIGATORIOS);
         }
 
-        //Comprobar si existe el registro de juego
-        RegistroJuego registroJuego = registroJuegoRepository.findById(idRegistroJuego)
-                .orElseThrow(() -> new ResiException(ApiErrorCode.REGISTRO_JUEGO_INVALIDO));
-        //Comprobar si el registro pertenece al juego a la residencia.
-        if (!Objects.equals(registroJuego.getResidente().getResidencia().getId(), idResidencia))
+        //Comprobar si existe el registro de juego y pertenece a la residencia.
+        if (!Objects.equals(pertenenciaService.getResidenciaDeRegistro(idRegistroJuego), idResidencia))
             throw new ResiException(ApiErrorCode.REGISTRO_JUEGO_INVALIDO);
-        return registroJuego;
+        return registroJuegoRepository.findById(idRegistroJuego)
+                .orElseThrow(() -> new ResiException(ApiErrorCode.REGISTRO_JUEGO_INVALIDO));
     }
 
     /**
@@ -294,7 +288,7 @@ public class RegistroJuegoService {
      * @throws ResiException si el residente no pertenece a la residencia indicada.
      */
     public List<MediaRegistroDTO> getMediaDuracion(Long idResidencia, Long idResidente, TipoAgrupacion tipo, Dificultad dificultad, Long idJuego) {
-        residenteService.getResidente(idResidencia, idResidente);
+        residenteService.comprobarResidente(idResidencia, idResidente);
 
         return switch (tipo) {
             case DIARIO -> registroJuegoRepository.getMediaDuracionDiaria(idResidente, dificultad, idJuego);
@@ -313,7 +307,7 @@ public class RegistroJuegoService {
      * @throws ResiException si el residente no pertenece a la residencia.
      */
     public List<MediaRegistroDTO> getMediaErrores(Long idResidencia, Long idResidente, TipoAgrupacion tipo, Dificultad dificultad, Long idJuego) {
-        Residente residente = residenteService.getResidente(idResidencia, idResidente);
+        residenteService.comprobarResidente(idResidencia, idResidente);
 
         return switch (tipo) {
             case DIARIO -> registroJuegoRepository.getMediaErroresDiario(idResidente, dificultad, idJuego);
@@ -87,40 +87,18 @@ public class EventoSalidaSpecification {
                 predicate = cb.and(predicate, cb.equal(participantes.get("id"), idParticipante));
             }
 
-            // Subquery para contar recursosHumanos por evento
-            if (minRecursosHumanos != null || maxRecursosHumanos != null) {
-                Subquery<Long> subRH = query.subquery(Long.class);
-                Root<EventoSalida> subRoot = subRH.from(EventoSalida.class);
-                Join<Object, Object> subPart = subRoot.join("participantes");
-                subRH.select(cb.count(subPart.get("id")));
-                subRH.where(
-                        cb.equal(subRoot.get("id"), root.get("id")),
-                        cb.isTrue(subPart.get("recursosHumanos"))
-                );
-                if (minRecursosHumanos != null) {
-                    predicate = cb.and(predicate, cb.ge(subRH, minRecursosHumanos));
-                }
-                if (maxRecursosHumanos != null) {
-                    predicate = cb.and(predicate, cb.le(subRH, maxRecursosHumanos));
-                }
+            // Filtros por número de participantes con recursos (contadores del evento)
+            if (minRecursosHumanos != null) {
+                predicate = cb.and(predicate, cb.ge(root.get("numRecursosHumanos"), minRecursosHumanos));
             }
-
-            // Subquery para contar recursosMateriales por evento
-            if (minRecursosMateriales != null || maxRecursosMateriales != null) {
-                Subquery<Long> subRM = query.subquery(Long.class);
-                Root<EventoSalida> subRoot = subRM.from(EventoSalida.class);
-                Join<Object, Object> subPart = subRoot.join("participantes");
-                subRM.select(cb.count(subPart.get("id")));
-                subRM.where(
-                        cb.equal(subRoot.get("id"), root.get("id")),
-                        cb.isTrue(subPart.get("recursosMateriales"))
-                );
-                if (minRecursosMateriales != null) {
-                    predicate = cb.and(predicate, cb.ge(subRM, minRecursosMateriales));
-                }
-                if (maxRecursosMateriales != null) {
-                    predicate = cb.and(predicate, cb.le(subRM, maxRecursosMateriales));
-                }
+            if (maxRecursosHumanos != null) {
+                predicate = cb.and(predicate, cb.le(root.get("numRecursosHumanos"), maxRecursosHumanos));
+            }
+            if (minRecursosMateriales != null) {
+                predicate = cb.and(predicate, cb.ge(root.get("numRecursosMateriales"), minRecursosMateriales));
+            }
+            if (maxRecursosMateriales != null) {
+                predicate = cb.and(predicate, cb.le(root.get("numRecursosMateriales"), maxRecursosMateriales));
             }
 
             return predicate;
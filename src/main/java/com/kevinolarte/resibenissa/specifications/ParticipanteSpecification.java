@@ -1,10 +1,12 @@
 package com.kevinolarte.resibenissa.specifications;
 
+import com.kevinolarte.resibenissa.models.Residente;
 import com.kevinolarte.resibenissa.models.moduloOrgSalida.Participante;
 import jakarta.persistence.criteria.*;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Especificación para filtrar participantes en eventos de salida.
@@ -123,4 +125,18 @@ public class ParticipanteSpecification {
             return predicate;
         };
     }
+
+    /**
+     * Columnas de {@code ParticipanteResponseDto}, en el orden de su constructor de listado.
+     *
+     * @param root Raíz de la consulta.
+     * @return Columnas a seleccionar.
+     */
+    public static List<Selection<?>> columnasResponse(Root<Participante> root) {
+        Path<Residente> residente = root.get("residente");
+        return List.of(root.get("id"), residente.get("id"), root.get("evento").get("id"),
+                root.get("recursosHumanos"), root.get("recursosMateriales"), root.get("asistenciaPermitida"),
+                root.get("preOpinion"), root.get("postOpinion"),
+                residente.get("residencia").get("id"), residente.get("familiar1"), residente.get("familiar2"));
+    }
 }
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Especificación para filtrar registros de juegos ({@link RegistroJuego}) basándose en múltiples criterios.
@@ -150,4 +151,17 @@ public class RegistroJuegoSpecification {
             return predicate;
         };
     }
+
+    /**
+     * Columnas de {@code RegistroJuegoResponseDto}, en el orden de su constructor de listado.
+     * El usuario es opcional, así que se une con {@code LEFT JOIN}.
+     *
+     * @param root Raíz de la consulta.
+     * @return Columnas a seleccionar.
+     */
+    public static List<Selection<?>> columnasResponse(Root<RegistroJuego> root) {
+        return List.of(root.get("id"), root.get("residente").get("id"), root.get("juego").get("id"),
+                root.join("usuario", JoinType.LEFT).get("id"), root.get("num"), root.get("duracion"),
+                root.get("dificultad"), root.get("fecha"), root.get("observacion"));
+    }
 }
@@ -6,6 +6,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
+import java.util.List;
 
 public class ResidenteSpecification {
 
@@ -136,6 +137,15 @@ public class ResidenteSpecification {
         };
     }
 
-
-
+    /**
+     * Columnas de {@code ResidenteResponseDto}, en el orden de su constructor de listado.
+     *
+     * @param root Raíz de la consulta.
+     * @return Columnas a seleccionar.
+     */
+    public static List<Selection<?>> columnasResponse(Root<Residente> root) {
+        return List.of(root.get("id"), root.get("nombre"), root.get("apellido"), root.get("fechaNacimiento"),
+                root.get("docuemntoIdentidad"), root.get("familiar1"), root.get("familiar2"),
+                root.get("residencia").get("id"), root.get("baja"));
+    }
 }
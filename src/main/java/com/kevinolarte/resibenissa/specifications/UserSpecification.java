@@ -5,6 +5,7 @@ import jakarta.persistence.criteria.*;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Especificaciones para filtrar usuarios en base a diferentes criterios.
@@ -89,4 +90,14 @@ public class UserSpecification {
         };
     }
 
+    /**
+     * Columnas de {@code UserResponseDto}, en el orden de su constructor de listado.
+     *
+     * @param root Raíz de la consulta.
+     * @return Columnas a seleccionar.
+     */
+    public static List<Selection<?>> columnasResponse(Root<User> root) {
+        return List.of(root.get("id"), root.get("nombre"), root.get("apellido"), root.get("email"), root.get("enabled"),
+                root.get("residencia").get("id"), root.get("fotoPerfil"), root.get("verificationCode"), root.get("baja"));
+    }
 }
@@ -0,0 +1,147 @@
+package com.kevinolarte.resibenissa.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pruebas de {@link MapaLongLong} comparándolo con un {@link HashMap}: altas, bajas y búsquedas
+ * aleatorias, redimensionado y borrados en grupos que dan la vuelta al final de la tabla.
+ */
+class MapaLongLongTest {
+
+    /**
+     * Capacidad de un mapa nuevo con capacidad inicial 16; se redimensiona al superar 8 entradas.
+     */
+    private static final int CAPACIDAD = 16;
+
+    @Test
+    void operacionesAleatoriasCoincidenConHashMap() {
+        Random random = new Random(42);
+        MapaLongLong mapa = new MapaLongLong(16);
+        Map<Long, Long> esperado = new HashMap<>();
+
+        // Pocas claves distintas para que haya muchas colisiones y borrados de claves presentes
+        for (int i = 0; i < 200_000; i++) {
+            long clave = 1 + random.nextInt(300);
+            int operacion = random.nextInt(10);
+            if (operacion < 5) {
+                long valor = random.nextInt(1_000_000);
+                mapa.put(clave, valor);
+                esperado.put(clave, valor);
+            } else if (operacion < 9) {
+                mapa.remove(clave);
+                esperado.remove(clave);
+            } else {
+                assertEquals(esperado.getOrDefault(clave, MapaLongLong.AUSENTE), mapa.get(clave));
+            }
+            if (i % 1000 == 0) {
+                comprobar(esperado, mapa, 300);
+            }
+        }
+        comprobar(esperado, mapa, 300);
+    }
+
+    @Test
+    void redimensionarConservaTodasLasEntradas() {
+        MapaLongLong mapa = new MapaLongLong(16);
+        Map<Long, Long> esperado = new HashMap<>();
+        for (long clave = 1; clave <= 100_000; clave++) {
+            mapa.put(clave, clave * 3);
+            esperado.put(clave, clave * 3);
+        }
+        comprobar(esperado, mapa, 100_000);
+
+        for (long clave = 1; clave <= 100_000; clave += 2) {
+            mapa.remove(clave);
+            esperado.remove(clave);
+        }
+        comprobar(esperado, mapa, 100_000);
+    }
+
+    @Test
+    void borrarEnGrupoQueDaLaVueltaAlFinalDeLaTabla() {
+        // Claves cuya posición ideal es una de las dos últimas celdas o la primera: al insertarlas
+        // ocupan las celdas 14, 15, 0, 1... y el grupo continúa tras dar la vuelta a la tabla
+        List<Long> claves = new ArrayList<>();
+        claves.addAll(clavesConIndice(14, 2));
+        claves.addAll(clavesConIndice(15, 3));
+        claves.addAll(clavesConIndice(0, 2));
+        claves.addAll(clavesConIndice(1, 1));
+        assertEquals(8, claves.size());
+
+        // Todas las formas de borrar primero una clave y luego otra, con el resto de entradas presentes
+        for (long primera : claves) {
+            for (long segunda : claves) {
+                MapaLongLong mapa = new MapaLongLong(16);
+                Map<Long, Long> esperado = new HashMap<>();
+                for (long clave : claves) {
+                    mapa.put(clave, clave + 1);
+                    esperado.put(clave, clave + 1);
+                }
+                mapa.remove(primera);
+                esperado.remove(primera);
+                comprobar(esperado, mapa, claves);
+                mapa.remove(segunda);
+                esperado.remove(segunda);
+                comprobar(esperado, mapa, claves);
+
+                // Volver a insertar tras los borrados no debe duplicar claves
+                mapa.put(primera, 7L);
+                esperado.put(primera, 7L);
+                comprobar(esperado, mapa, claves);
+            }
+        }
+    }
+
+    @Test
+    void clearVaciaElMapa() {
+        MapaLongLong mapa = new MapaLongLong(16);
+        for (long clave = 1; clave <= 50; clave++) {
+            mapa.put(clave, clave);
+        }
+        mapa.clear();
+        assertEquals(0, mapa.size());
+        for (long clave = 1; clave <= 50; clave++) {
+            assertEquals(MapaLongLong.AUSENTE, mapa.get(clave));
+        }
+        mapa.put(3, 9);
+        assertEquals(9, mapa.get(3));
+        assertEquals(1, mapa.size());
+    }
+
+    private static void comprobar(Map<Long, Long> esperado, MapaLongLong mapa, long claveMaxima) {
+        assertEquals(esperado.size(), mapa.size());
+        for (long clave = 1; clave <= claveMaxima; clave++) {
+            assertEquals(esperado.getOrDefault(clave, MapaLongLong.AUSENTE), mapa.get(clave), "clave " + clave);
+        }
+    }
+
+    private static void comprobar(Map<Long, Long> esperado, MapaLongLong mapa, List<Long> claves) {
+        assertEquals(esperado.size(), mapa.size());
+        for (long clave : claves) {
+            assertEquals(esperado.getOrDefault(clave, MapaLongLong.AUSENTE), mapa.get(clave), "clave " + clave);
+        }
+    }
+
+    /**
+     * Busca claves cuya posición ideal en una tabla de {@value #CAPACIDAD} celdas es {@code indice}.
+     * Usa la misma mezcla de bits que {@link MapaLongLong}.
+     */
+    private static List<Long> clavesConIndice(int indice, int cuantas) {
+        List<Long> claves = new ArrayList<>();
+        for (long clave = 1; claves.size() < cuantas; clave++) {
+            long h = clave * 0x9E3779B97F4A7C15L;
+            if (((int) (h ^ (h >>> 32)) & (CAPACIDAD - 1)) == indice) {
+                claves.add(clave);
+            }
+        }
+        return claves;
+    }
+}
@@ -0,0 +1,92 @@
+package com.kevinolarte.resibenissa.services.moduloOrgSalida;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link IntervalosResidente} comparándolo con una comprobación por fuerza bruta
+ * de las franjas guardadas.
+ */
+class IntervalosResidenteTest {
+
+    @Test
+    void operacionesAleatoriasCoincidenConFuerzaBruta() {
+        Random random = new Random(7);
+        IntervalosResidente intervalos = IntervalosResidente.VACIO;
+        Map<Long, long[]> esperado = new LinkedHashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long idEvento = 1 + random.nextInt(40);
+            if (random.nextInt(3) < 2) {
+                long inicio = random.nextInt(1000);
+                long fin = inicio + 1 + random.nextInt(100);
+                intervalos = intervalos.con(idEvento, inicio, fin);
+                esperado.put(idEvento, new long[]{inicio, fin});
+            } else {
+                intervalos = intervalos.sin(idEvento);
+                esperado.remove(idEvento);
+            }
+
+            long inicio = random.nextInt(1100);
+            long fin = inicio + 1 + random.nextInt(100);
+            assertEquals(solapa(esperado, inicio, fin), intervalos.solapa(inicio, fin),
+                    "franja [" + inicio + ", " + fin + ")");
+            assertEquals(esperado.containsKey(idEvento), intervalos.contiene(idEvento));
+        }
+    }
+
+    @Test
+    void deOrdenaLasFranjas() {
+        IntervalosResidente intervalos = IntervalosResidente.de(
+                new long[]{1, 2, 3},
+                new long[]{500, 100, 300},
+                new long[]{600, 200, 400});
+
+        assertTrue(intervalos.solapa(150, 160));
+        assertTrue(intervalos.solapa(350, 360));
+        assertTrue(intervalos.solapa(550, 560));
+        assertFalse(intervalos.solapa(200, 300));
+        assertFalse(intervalos.solapa(400, 500));
+        assertFalse(intervalos.solapa(600, 700));
+    }
+
+    @Test
+    void franjaLargaAnteriorSolapaConLasPosteriores() {
+        // La primera franja termina después de que empiecen las siguientes: cuenta el máximo de los fines
+        IntervalosResidente intervalos = IntervalosResidente.VACIO
+                .con(1, 0, 1000)
+                .con(2, 100, 110)
+                .con(3, 200, 210);
+
+        assertTrue(intervalos.solapa(500, 510));
+        assertFalse(intervalos.solapa(1000, 1010));
+        assertFalse(intervalos.sin(1).solapa(500, 510));
+    }
+
+    @Test
+    void conSustituyeLaFranjaDelMismoEvento() {
+        IntervalosResidente intervalos = IntervalosResidente.VACIO
+                .con(1, 0, 100)
+                .con(1, 500, 600);
+
+        assertFalse(intervalos.solapa(0, 100));
+        assertTrue(intervalos.solapa(550, 560));
+        assertFalse(intervalos.sin(1).contiene(1));
+    }
+
+    private static boolean solapa(Map<Long, long[]> franjas, long inicio, long fin) {
+        for (long[] franja : franjas.values()) {
+            if (franja[0] < fin && franja[1] > inicio) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,75 @@
+package com.kevinolarte.resibenissa.services.moduloReporting;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.kevinolarte.resibenissa.enums.moduloReporting.EstadoEmail;
+import com.kevinolarte.resibenissa.models.moduloReporting.EmailOutbox;
+import com.kevinolarte.resibenissa.repositories.moduloReporting.EmailOutboxRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de {@link EmailOutboxWorker} contra un servidor SMTP local (GreenMail): los correos
+ * encolados se envían y quedan marcados como enviados.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EmailOutboxWorkerTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+    @Autowired
+    private EmailOutboxWorker emailOutboxWorker;
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Test
+    void drenarEnviaLosCorreosPendientes() throws Exception {
+        String sufijo = UUID.randomUUID().toString().substring(0, 8);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            EmailOutbox correo = emailOutboxService.encolar("familiar" + sufijo + "-" + i + "@test.com",
+                    "Asunto " + i, "<p>Mensaje " + i + "</p>");
+            ids.add(correo.getId());
+        }
+
+        emailOutboxWorker.drenar();
+
+        assertTrue(greenMail.waitForIncomingEmail(10_000, ids.size()));
+        List<String> destinatarios = new ArrayList<>();
+        for (MimeMessage mensaje : greenMail.getReceivedMessages()) {
+            destinatarios.add(mensaje.getAllRecipients()[0].toString());
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            assertTrue(destinatarios.contains("familiar" + sufijo + "-" + i + "@test.com"));
+        }
+
+        // El estado se registra después del envío, desde el hilo del worker
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!todosEnviados(ids) && System.currentTimeMillis() < limite) {
+            Thread.sleep(100);
+        }
+        for (Long id : ids) {
+            assertEquals(EstadoEmail.ENVIADO, emailOutboxRepository.findById(id).orElseThrow().getEstado());
+        }
+    }
+
+    private boolean todosEnviados(List<Long> ids) {
+        return emailOutboxRepository.findAllById(ids).stream()
+                .allMatch(correo -> correo.getEstado() == EstadoEmail.ENVIADO);
+    }
+}
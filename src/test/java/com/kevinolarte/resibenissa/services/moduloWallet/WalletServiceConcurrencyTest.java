@@ -0,0 +1,154 @@
+package com.kevinolarte.resibenissa.services.moduloWallet;
+
+import com.kevinolarte.resibenissa.dto.in.modeloWallet.MovimientoRequestDTO;
+import com.kevinolarte.resibenissa.exceptions.ApiErrorCode;
+import com.kevinolarte.resibenissa.exceptions.ResiException;
+import com.kevinolarte.resibenissa.models.Residencia;
+import com.kevinolarte.resibenissa.models.Residente;
+import com.kevinolarte.resibenissa.models.moduloWallet.Wallet;
+import com.kevinolarte.resibenissa.repositories.ResidenciaRepository;
+import com.kevinolarte.resibenissa.repositories.ResidenteRepository;
+import com.kevinolarte.resibenissa.repositories.moduloWallet.MovimientoWalletRepository;
+import com.kevinolarte.resibenissa.repositories.moduloWallet.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de estrés de {@link WalletService}: muchos depósitos y retiradas simultáneos
+ * sobre la misma wallet no deben perder ninguna actualización ni dejar el saldo en negativo.
+ */
+@SpringBootTest
+class WalletServiceConcurrencyTest {
+
+    private static final int HILOS = 16;
+
+    @Autowired
+    private WalletService walletService;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private MovimientoWalletRepository movimientoWalletRepository;
+    @Autowired
+    private ResidenciaRepository residenciaRepository;
+    @Autowired
+    private ResidenteRepository residenteRepository;
+
+    private Residencia residencia;
+    private Residente residente;
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        String sufijo = UUID.randomUUID().toString().substring(0, 8);
+        residencia = residenciaRepository.save(new Residencia("Residencia wallet " + sufijo, "wallet" + sufijo + "@test.com"));
+
+        residente = new Residente("Test", "Wallet", LocalDate.of(1940, 1, 1), "DOC" + sufijo, "familiar" + sufijo + "@test.com", null);
+        residente.setResidencia(residencia);
+        residente = residenteRepository.save(residente);
+
+        wallet = new Wallet();
+        wallet.setResidente(residente);
+        wallet = walletRepository.save(wallet);
+        residente.setWallet(wallet);
+    }
+
+    @Test
+    void depositosYRetiradasSimultaneosNoPierdenActualizaciones() throws Exception {
+        walletService.deposit(residencia.getId(), residente.getId(), movimiento(1000.00));
+        int operaciones = 2000;
+
+        List<Callable<Void>> tareas = new ArrayList<>();
+        for (int i = 0; i < operaciones; i++) {
+            boolean deposito = i % 2 == 0;
+            tareas.add(() -> {
+                if (deposito) {
+                    walletService.deposit(residencia.getId(), residente.getId(), movimiento(0.75));
+                } else {
+                    walletService.retire(residencia.getId(), residente.getId(), movimiento(0.25));
+                }
+                return null;
+            });
+        }
+        for (Future<Void> futuro : ejecutarALaVez(tareas)) {
+            futuro.get();
+        }
+
+        // 1000.00 + 1000 * 0.75 - 1000 * 0.25
+        Wallet resultado = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(150000L, resultado.getSaldoCentimos());
+        assertEquals(operaciones + 1, movimientoWalletRepository.findByWallet(resultado).size());
+        assertEquals(operaciones + 1, resultado.getVersion());
+    }
+
+    @Test
+    void retiradasSimultaneasNuncaDejanSaldoNegativo() throws Exception {
+        walletService.deposit(residencia.getId(), residente.getId(), movimiento(10.00));
+        int retiradas = 200;
+
+        List<Callable<Void>> tareas = new ArrayList<>();
+        for (int i = 0; i < retiradas; i++) {
+            tareas.add(() -> {
+                walletService.retire(residencia.getId(), residente.getId(), movimiento(1.00));
+                return null;
+            });
+        }
+
+        int correctas = 0;
+        for (Future<Void> futuro : ejecutarALaVez(tareas)) {
+            try {
+                futuro.get();
+                correctas++;
+            } catch (Exception e) {
+                assertTrue(e.getCause() instanceof ResiException);
+                assertEquals(ApiErrorCode.SALDO_INSUFICIENTE, ((ResiException) e.getCause()).getErrorCode());
+            }
+        }
+
+        Wallet resultado = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(10, correctas);
+        assertEquals(0L, resultado.getSaldoCentimos());
+        assertEquals(1 + correctas, movimientoWalletRepository.findByWallet(resultado).size());
+    }
+
+    /**
+     * Lanza todas las tareas en un pool y las libera a la vez para maximizar la concurrencia.
+     */
+    private static List<Future<Void>> ejecutarALaVez(List<Callable<Void>> tareas) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<Void>> futuros = new ArrayList<>();
+        for (Callable<Void> tarea : tareas) {
+            futuros.add(executor.submit(() -> {
+                salida.await();
+                return tarea.call();
+            }));
+        }
+        salida.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        return futuros;
+    }
+
+    private static MovimientoRequestDTO movimiento(double cantidad) {
+        MovimientoRequestDTO dto = new MovimientoRequestDTO();
+        dto.setCantidad(cantidad);
+        dto.setConcepto("Prueba de concurrencia");
+        return dto;
+    }
+}